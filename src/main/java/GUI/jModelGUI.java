@@ -325,6 +325,7 @@ public class jModelGUI extends JFrame {
                 } else {
                     jSettings.getInstance().put(BuiltInSettings.DEBUG_DETECTOR, false);
                 }
+                jModel.getInstance().refreshSettings();
             }
         });
         recordDetectors.setSelected(jSettings.getInstance().get(BuiltInSettings.DEBUG_DETECTOR));
@@ -347,6 +348,7 @@ public class jModelGUI extends JFrame {
                 } else {
                     jSettings.getInstance().put(BuiltInSettings.DEBUG_TRAJECTORY, false);
                 }
+                jModel.getInstance().refreshSettings();
             }
         });
         recordTrajectories.setSelected(jSettings.getInstance().get(BuiltInSettings.DEBUG_TRAJECTORY));
@@ -425,6 +427,7 @@ public class jModelGUI extends JFrame {
         canvas.resetZoom();
         
         jModel.getInstance().setGui(this);
+        jModel.getInstance().addCoordinateConsumer(this);
     }
     
     /**
@@ -578,6 +581,7 @@ public class jModelGUI extends JFrame {
             }
         }
         jModel.getInstance().saveLogsToDisk();
+        jModel.getInstance().removeCoordinateConsumer(this);
         setVisible(false);
         dispose();
         synchronized (this) {
@@ -595,6 +599,7 @@ public class jModelGUI extends JFrame {
             }
         }
         jModel.getInstance().saveLogsToDisk();
+        jModel.getInstance().removeCoordinateConsumer(this);
         setVisible(false);
         dispose();
         synchronized (this) {
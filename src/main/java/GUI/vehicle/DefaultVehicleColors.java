@@ -65,7 +65,7 @@ public enum DefaultVehicleColors implements VehicleColor {
         if (this==VELOCITY) {
             c = NetworkCanvas.fromDefaultMap(VELOCITIES, vehicle.getSpeed() * 3.6);
         } else if (this==DESTINATION) {
-            c = NetworkCanvas.nToColor(vehicle.driver.getRoute().destinations()[0]);
+            c = NetworkCanvas.nToColor(vehicle.driver.getRoute().destination(0));
         } else if (this==CLASS_ID) {
             c = NetworkCanvas.nToColor(vehicle.classID);
         } else if (this==LANE_CHANGE_PROCESS) {
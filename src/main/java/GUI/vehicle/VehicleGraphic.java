@@ -4,9 +4,11 @@ import GUI.Graphic;
 import GUI.NetworkCanvas;
 import microModel.core.vehicle.Enclosure;
 import microModel.core.vehicle.Vehicle;
+import microModel.core.vehicle.VehicleState;
 import microModel.jModel;
 
 import java.awt.*;
+import java.awt.geom.Point2D;
 
 /**
  * Graphic class for vehicles.
@@ -16,6 +18,8 @@ public class VehicleGraphic implements Graphic {
     /** The concerned vehicle object. */
     private Vehicle vehicle;
     private NetworkCanvas networkCanvas;
+    /** State of the vehicle, read once per paint as the simulation may be moving it. */
+    private final VehicleState state = new VehicleState();
 
     /**
      * Constructor that sets the vehicle.
@@ -58,10 +62,13 @@ public class VehicleGraphic implements Graphic {
      */
     public void paint(Graphics g, NetworkCanvas canvas) {
         Graphics2D g2 = (Graphics2D) g;
+        vehicle.readState(state);
+        Point2D.Double coordinates = state.getCoordinates();
+        Point2D.Double heading = state.getHeading();
         VehicleColor vehCol = (VehicleColor) networkCanvas.getGui().getVehCol().getSelectedItem();
         g2.setColor(vehCol.getColor(vehicle));
         if (getVehicle().isCrashed()) {
-            Point point = networkCanvas.getPoint(vehicle.getCoordinates().x, vehicle.getCoordinates().y);
+            Point point = networkCanvas.getPoint(coordinates.x, coordinates.y);
             Color color = g2.getColor();
             g2.setColor(new Color(225,50,50));
             g2.fillOval(point.x-7, point.y-7, 14, 14);
@@ -70,7 +77,7 @@ public class VehicleGraphic implements Graphic {
             g2.drawString(String.valueOf(vehicle.getDriver().getID() + " CRASH!"), point.x-4 + 10, point.y-4 + 10);
         }
         else if (networkCanvas.popupItemChecked("Vehicles as dots")) {
-            Point point = networkCanvas.getPoint(vehicle.getCoordinates().x, vehicle.getCoordinates().y);
+            Point point = networkCanvas.getPoint(coordinates.x, coordinates.y);
             g2.fillOval(point.x-4, point.y-4, 7, 7);
             g2.setColor(new Color(255,5,5));
             g2.drawString(String.valueOf(vehicle.getDriver().getID()), point.x-4 + 10, point.y-4 + 10);
@@ -78,19 +85,19 @@ public class VehicleGraphic implements Graphic {
             Polygon pol = new Polygon();
             double w = 2;
             Point point = new Point();
-            point = networkCanvas.getPoint(vehicle.getCoordinates().x + vehicle.heading.y * w / 2,
-                    vehicle.getCoordinates().y - vehicle.heading.x * w / 2);
+            point = networkCanvas.getPoint(coordinates.x + heading.y * w / 2,
+                    coordinates.y - heading.x * w / 2);
             pol.addPoint(point.x, point.y);
-            point = networkCanvas.getPoint(vehicle.getCoordinates().x - vehicle.heading.y * w / 2,
-                    vehicle.getCoordinates().y + vehicle.heading.x * w / 2);
+            point = networkCanvas.getPoint(coordinates.x - heading.y * w / 2,
+                    coordinates.y + heading.x * w / 2);
             pol.addPoint(point.x, point.y);
-            double x2 = vehicle.getCoordinates().x - vehicle.heading.x*vehicle.getLength();
-            double y2 = vehicle.getCoordinates().y - vehicle.heading.y*vehicle.getLength();
-            point = networkCanvas.getPoint(x2 - vehicle.heading.y * w / 2,
-                    y2 + vehicle.heading.x * w / 2);
+            double x2 = coordinates.x - heading.x*state.getLength();
+            double y2 = coordinates.y - heading.y*state.getLength();
+            point = networkCanvas.getPoint(x2 - heading.y * w / 2,
+                    y2 + heading.x * w / 2);
             pol.addPoint(point.x, point.y);
-            point = networkCanvas.getPoint(x2 + vehicle.heading.y * w / 2,
-                    y2 - vehicle.heading.x * w / 2);
+            point = networkCanvas.getPoint(x2 + heading.y * w / 2,
+                    y2 - heading.x * w / 2);
             pol.addPoint(point.x, point.y);
             g2.fillPolygon(pol);
             g2.setColor(new Color(255,5,5));
@@ -100,21 +107,21 @@ public class VehicleGraphic implements Graphic {
         if (networkCanvas.popupItemChecked("Show downstream")) {
             if (vehicle.getVehicle(Enclosure.LEFT_DOWNSTREAM) !=null) {
                 g2.setColor(new Color(255, 0, 0));
-                Point p1 = networkCanvas.getPoint(vehicle.getCoordinates().x, vehicle.getCoordinates().y);
+                Point p1 = networkCanvas.getPoint(coordinates.x, coordinates.y);
                 Point.Double p3 = vehicle.getVehicle(Enclosure.LEFT_DOWNSTREAM).getLane().XY(vehicle.getVehicle(Enclosure.LEFT_DOWNSTREAM).getX() - vehicle.getVehicle(Enclosure.LEFT_DOWNSTREAM).getLength());
                 Point p2 = networkCanvas.getPoint(p3.x, p3.y);
                 g2.drawLine(p1.x, p1.y, p2.x, p2.y);
             }
             if (vehicle.getVehicle(Enclosure.DOWNSTREAM) !=null) {
                 g2.setColor(new Color(0, 255, 0));
-                Point p1 = networkCanvas.getPoint(vehicle.getCoordinates().x, vehicle.getCoordinates().y);
+                Point p1 = networkCanvas.getPoint(coordinates.x, coordinates.y);
                 Point.Double p3 = vehicle.getVehicle(Enclosure.DOWNSTREAM).getLane().XY(vehicle.getVehicle(Enclosure.DOWNSTREAM).getX() - vehicle.getVehicle(Enclosure.DOWNSTREAM).getLength());
                 Point p2 = networkCanvas.getPoint(p3.x, p3.y);
                 g2.drawLine(p1.x, p1.y, p2.x, p2.y);
             }
             if (vehicle.getVehicle(Enclosure.RIGHT_DOWNSTREAM) !=null) {
                 g2.setColor(new Color(0, 0, 255));
-                Point p1 = networkCanvas.getPoint(vehicle.getCoordinates().x, vehicle.getCoordinates().y);
+                Point p1 = networkCanvas.getPoint(coordinates.x, coordinates.y);
                 Point.Double p3 = vehicle.getVehicle(Enclosure.RIGHT_DOWNSTREAM).getLane().XY(vehicle.getVehicle(Enclosure.RIGHT_DOWNSTREAM).getX() - vehicle.getVehicle(Enclosure.RIGHT_DOWNSTREAM).getLength());
                 Point p2 = networkCanvas.getPoint(p3.x, p3.y);
                 g2.drawLine(p1.x, p1.y, p2.x, p2.y);
@@ -123,19 +130,19 @@ public class VehicleGraphic implements Graphic {
         if (networkCanvas.popupItemChecked("Show upstream")) {
             if (vehicle.getVehicle(Enclosure.LEFT_UPSTREAM) !=null) {
                 g2.setColor(new Color(255, 0, 255));
-                Point p1 = networkCanvas.getPoint(vehicle.getCoordinates().x, vehicle.getCoordinates().y);
+                Point p1 = networkCanvas.getPoint(coordinates.x, coordinates.y);
                 Point p2 = networkCanvas.getPoint(vehicle.getVehicle(Enclosure.LEFT_UPSTREAM).getCoordinates().x, vehicle.getVehicle(Enclosure.LEFT_UPSTREAM).getCoordinates().y);
                 g2.drawLine(p1.x, p1.y, p2.x, p2.y);
             }
             if (vehicle.getVehicle(Enclosure.UPSTREAM) !=null) {
                 g2.setColor(new Color(255, 255, 0));
-                Point p1 = networkCanvas.getPoint(vehicle.getCoordinates().x, vehicle.getCoordinates().y);
+                Point p1 = networkCanvas.getPoint(coordinates.x, coordinates.y);
                 Point p2 = networkCanvas.getPoint(vehicle.getVehicle(Enclosure.UPSTREAM).getCoordinates().x, vehicle.getVehicle(Enclosure.UPSTREAM).getCoordinates().y);
                 g2.drawLine(p1.x, p1.y, p2.x, p2.y);
             }
             if (vehicle.getVehicle(Enclosure.RIGHT_UPSTREAM) !=null) {
                 g2.setColor(new Color(0, 255, 255));
-                Point p1 = networkCanvas.getPoint(vehicle.getCoordinates().x, vehicle.getCoordinates().y);
+                Point p1 = networkCanvas.getPoint(coordinates.x, coordinates.y);
                 Point p2 = networkCanvas.getPoint(vehicle.getVehicle(Enclosure.RIGHT_UPSTREAM).getCoordinates().x, vehicle.getVehicle(Enclosure.RIGHT_UPSTREAM).getCoordinates().y);
                 g2.drawLine(p1.x, p1.y, p2.x, p2.y);
             }
@@ -149,12 +149,12 @@ public class jSimEnvironment extends AbstractEnvironment {
         jModel model = new jModel.Builder(lanes.toArray(new jLane[0])).build(startTime.getTime()/1000);
         model.setEnvironment(this);
 
+        if (jSettings.getInstance().get(BuiltInSettings.IMPORT_DETECTOR_FROM_KML)) {
+            RoadSegment.setupDetectors(network.values());
+        }
         for (RoadSegment rs: network.values()) {
-            if (jSettings.getInstance().get(BuiltInSettings.IMPORT_DETECTOR_FROM_KML)) {
-                rs.setupDetectors();
-            }
             if (jSettings.getInstance().get(BuiltInSettings.IMPORT_ORIGIN_FROM_KML)) {
-                List<jRoute> routes = Arrays.asList(new jRoute[]{new jRoute(new int[]{3})});
+                List<jRoute> routes = Arrays.asList(new jRoute[]{jRoute.of(3)});
                 AgentDriverGenerator agentDriverGenerator = new AgentDriverGenerator(routes);
                 DynamicDemandGenerator.Builder builder = new DynamicDemandGenerator.Builder(agentDriverGenerator).withEnvironment(this);
                 rs.setupGenerators(builder);
@@ -172,19 +172,8 @@ public class jSimEnvironment extends AbstractEnvironment {
 
     private void setupMergingScenario() {
         jSettings.getInstance().put(BuiltInSettings.DEBUG_TRAJECTORY, Boolean.TRUE);
-        KMLImporter imp = new KMLImporter("/resources/merge.kml");
-        Map<Integer,RoadSegment> network = imp.setupRoadSegments();
-        for (RoadSegment rs: network.values()) {
-            rs.init(network);
-        }
-
-        List<jLane> lanes = new ArrayList<jLane>();
-        for (RoadSegment rs: network.values()) {
-            lanes.addAll(rs.getLanes());
-        }
-
-
-        jModel model = new jModel.Builder(lanes.toArray(new jLane[0])).build(0);
+        jLane[] lanes = KMLImporter.importLanes("/resources/merge.kml");
+        jModel model = new jModel.Builder(lanes).build(0);
         model.setEnvironment(this);
 
         model.init();
@@ -197,7 +186,7 @@ public class jSimEnvironment extends AbstractEnvironment {
 
     private void generateMergingScenarioHighwayFlow() {
         jModel model = jModel.getInstance();
-        List<jRoute> routes = Arrays.asList(new jRoute[]{new jRoute(new int[]{1})});
+        List<jRoute> routes = Arrays.asList(new jRoute[]{jRoute.of(1)});
         ArrayList<Integer> laneIds = Lists.newArrayList(new Integer[]{0, 1, 2});
         for (jLane lane: model.getNetwork()) {
             if (laneIds.contains(lane.getId())) {
@@ -217,17 +206,8 @@ public class jSimEnvironment extends AbstractEnvironment {
 
     private void setupFlowDensityScenario() {
         jSettings.getInstance().put(BuiltInSettings.DEBUG_TRAJECTORY, Boolean.TRUE);
-        KMLImporter imp = new KMLImporter("/resources/16-Normal-Lanes.kml");
-        Map<Integer,RoadSegment> network = imp.setupRoadSegments();
-        for (RoadSegment rs: network.values()) {
-            rs.init(network);
-        }
-
-        List<jLane> lanes = new ArrayList<jLane>();
-        for (RoadSegment rs: network.values()) {
-            lanes.addAll(rs.getLanes());
-        }
-        jModel model = new jModel.Builder(lanes.toArray(new jLane[0])).build(0);
+        jLane[] lanes = KMLImporter.importLanes("/resources/16-Normal-Lanes.kml");
+        jModel model = new jModel.Builder(lanes).build(0);
         model.setEnvironment(this);
 
         jModelGUI gui = new jModelGUI();
@@ -240,7 +220,7 @@ public class jSimEnvironment extends AbstractEnvironment {
         jModel model = jModel.getInstance();
 
         int laneCounter = 0;
-        List<jRoute> routes = Arrays.asList(new jRoute[]{new jRoute(new int[]{1})});
+        List<jRoute> routes = Arrays.asList(new jRoute[]{jRoute.of(1)});
         for (jLane lane: model.getNetwork()) {
             DensityGenerator driverGenerator = new DensityGenerator(this, lane, routes, count);
 //            driverGenerator.setGap(20 +  10 * laneCounter++);
@@ -251,24 +231,13 @@ public class jSimEnvironment extends AbstractEnvironment {
         for (jLane lane: model.getNetwork()) {
             jDetector d = new jDetector(lane, lane.getL()/10 , jSettings.getInstance().get(BuiltInSettings.DETECTOR_PERIOD), laneCounter++);
             d.init();
-            lane.addRSU(d);
-            lane.addObserver(d);
         }
     }
 
     private void setupBlockedFlowDensityScenario() {
         jSettings.getInstance().put(BuiltInSettings.DEBUG_TRAJECTORY, Boolean.TRUE);
-        KMLImporter imp = new KMLImporter("/resources/16-Normal-Lanes.kml");
-        Map<Integer,RoadSegment> network = imp.setupRoadSegments();
-        for (RoadSegment rs: network.values()) {
-            rs.init(network);
-        }
-
-        List<jLane> lanes = new ArrayList<jLane>();
-        for (RoadSegment rs: network.values()) {
-            lanes.addAll(rs.getLanes());
-        }
-        jModel model = new jModel.Builder(lanes.toArray(new jLane[0])).build(0);
+        jLane[] lanes = KMLImporter.importLanes("/resources/16-Normal-Lanes.kml");
+        jModel model = new jModel.Builder(lanes).build(0);
         model.setEnvironment(this);
 
         jModelGUI gui = new jModelGUI();
@@ -281,7 +250,7 @@ public class jSimEnvironment extends AbstractEnvironment {
         jModel model = jModel.getInstance();
 
         int laneCounter = 0;
-        List<jRoute> routes = Arrays.asList(new jRoute[]{new jRoute(new int[]{1})});
+        List<jRoute> routes = Arrays.asList(new jRoute[]{jRoute.of(1)});
         for (jLane lane: model.getNetwork()) {
             DensityGenerator driverGenerator = new BlockedDensityGenerator(this, lane, routes, count);
 //            driverGenerator.setGap(20 +  10 * laneCounter++);
@@ -292,24 +261,13 @@ public class jSimEnvironment extends AbstractEnvironment {
         for (jLane lane: model.getNetwork()) {
             jDetector d = new jDetector(lane, lane.getL()/10 , jSettings.getInstance().get(BuiltInSettings.DETECTOR_PERIOD), laneCounter++);
             d.init();
-            lane.addRSU(d);
-            lane.addObserver(d);
         }
     }
 
     private void setupMixedTrafficScenario() {
         jSettings.getInstance().put(BuiltInSettings.DEBUG_TRAJECTORY, Boolean.TRUE);
-        KMLImporter imp = new KMLImporter("/resources/16-Normal-Lanes.kml");
-        Map<Integer,RoadSegment> network = imp.setupRoadSegments();
-        for (RoadSegment rs: network.values()) {
-            rs.init(network);
-        }
-
-        List<jLane> lanes = new ArrayList<jLane>();
-        for (RoadSegment rs: network.values()) {
-            lanes.addAll(rs.getLanes());
-        }
-        jModel model = new jModel.Builder(lanes.toArray(new jLane[0])).build(0);
+        jLane[] lanes = KMLImporter.importLanes("/resources/16-Normal-Lanes.kml");
+        jModel model = new jModel.Builder(lanes).build(0);
         model.setEnvironment(this);
 
         jModelGUI gui = new jModelGUI();
@@ -323,7 +281,7 @@ public class jSimEnvironment extends AbstractEnvironment {
         jModel model = jModel.getInstance();
 
         int laneCounter = 0;
-        List<jRoute> routes = Arrays.asList(new jRoute[]{new jRoute(new int[]{1})});
+        List<jRoute> routes = Arrays.asList(new jRoute[]{jRoute.of(1)});
         for (jLane lane: model.getNetwork()) {
             MixedDensityGenerator driverGenerator = new MixedDensityGenerator(this, lane, routes, count);
 //            driverGenerator.setGap(20 +  10 * laneCounter++);
@@ -334,24 +292,13 @@ public class jSimEnvironment extends AbstractEnvironment {
         for (jLane lane: model.getNetwork()) {
             jDetector d = new jDetector(lane, lane.getL()/10 , jSettings.getInstance().get(BuiltInSettings.DETECTOR_PERIOD), laneCounter++);
             d.init();
-            lane.addRSU(d);
-            lane.addObserver(d);
         }
     }
 
     private void setupBlockedMixedTrafficScenario() {
         jSettings.getInstance().put(BuiltInSettings.DEBUG_TRAJECTORY, Boolean.TRUE);
-        KMLImporter imp = new KMLImporter("/resources/16-Normal-Lanes.kml");
-        Map<Integer,RoadSegment> network = imp.setupRoadSegments();
-        for (RoadSegment rs: network.values()) {
-            rs.init(network);
-        }
-
-        List<jLane> lanes = new ArrayList<jLane>();
-        for (RoadSegment rs: network.values()) {
-            lanes.addAll(rs.getLanes());
-        }
-        jModel model = new jModel.Builder(lanes.toArray(new jLane[0])).build(0);
+        jLane[] lanes = KMLImporter.importLanes("/resources/16-Normal-Lanes.kml");
+        jModel model = new jModel.Builder(lanes).build(0);
         model.setEnvironment(this);
 
         jModelGUI gui = new jModelGUI();
@@ -365,7 +312,7 @@ public class jSimEnvironment extends AbstractEnvironment {
         jModel model = jModel.getInstance();
 
         int laneCounter = 0;
-        List<jRoute> routes = Arrays.asList(new jRoute[]{new jRoute(new int[]{1})});
+        List<jRoute> routes = Arrays.asList(new jRoute[]{jRoute.of(1)});
         for (jLane lane: model.getNetwork()) {
             BlockedMixedDensityGenerator driverGenerator = new BlockedMixedDensityGenerator(this, lane, routes, count);
 //            driverGenerator.setGap(20 +  10 * laneCounter++);
@@ -376,8 +323,6 @@ public class jSimEnvironment extends AbstractEnvironment {
         for (jLane lane: model.getNetwork()) {
             jDetector d = new jDetector(lane, lane.getL()/10 , jSettings.getInstance().get(BuiltInSettings.DETECTOR_PERIOD), laneCounter++);
             d.init();
-            lane.addRSU(d);
-            lane.addObserver(d);
         }
     }
 
@@ -385,17 +330,8 @@ public class jSimEnvironment extends AbstractEnvironment {
         //This will cause the vehicle accelerations to be recorded.
         jSettings.getInstance().put(BuiltInSettings.DEBUG_MODEL, Boolean.TRUE);
 
-        KMLImporter imp = new KMLImporter("/resources/2-Normal-Lanes.kml");
-        Map<Integer,RoadSegment> network = imp.setupRoadSegments();
-        for (RoadSegment rs: network.values()) {
-            rs.init(network);
-        }
-
-        List<jLane> lanes = new ArrayList<jLane>();
-        for (RoadSegment rs: network.values()) {
-            lanes.addAll(rs.getLanes());
-        }
-        jModel model = new jModel.Builder(lanes.toArray(new jLane[0])).build(0);
+        jLane[] lanes = KMLImporter.importLanes("/resources/2-Normal-Lanes.kml");
+        jModel model = new jModel.Builder(lanes).build(0);
         model.setEnvironment(this);
 
         jModelGUI gui = new jModelGUI();
@@ -409,7 +345,7 @@ public class jSimEnvironment extends AbstractEnvironment {
         jModel model = jModel.getInstance();
 
         int laneCounter = 0;
-        List<jRoute> routes = Arrays.asList(new jRoute[]{new jRoute(new int[]{1})});
+        List<jRoute> routes = Arrays.asList(new jRoute[]{jRoute.of(1)});
 
         new BlockedVehicleGenerator(this, model.getNetwork()[0], routes, AgentDriver.TYPE);
 
@@ -418,17 +354,8 @@ public class jSimEnvironment extends AbstractEnvironment {
     }
 
     private void setupScalabilityScenario() {
-        KMLImporter imp = new KMLImporter("/resources/A16.kml");
-        Map<Integer,RoadSegment> network = imp.setupRoadSegments();
-        for (RoadSegment rs: network.values()) {
-            rs.init(network);
-        }
-
-        List<jLane> lanes = new ArrayList<jLane>();
-        for (RoadSegment rs: network.values()) {
-            lanes.addAll(rs.getLanes());
-        }
-        jModel model = new jModel.Builder(lanes.toArray(new jLane[0])).build(0);
+        jLane[] lanes = KMLImporter.importLanes("/resources/A16.kml");
+        jModel model = new jModel.Builder(lanes).build(0);
         model.setEnvironment(this);
 
         jModelGUI gui = new jModelGUI();
@@ -451,11 +378,9 @@ public class jSimEnvironment extends AbstractEnvironment {
         while(tmpLane != null) {
             jDetector d = new jDetector(tmpLane, tmpLane.getL() - 5, 60, id++);
             d.init();
-            tmpLane.addRSU(d);
-            tmpLane.addObserver(d);
             tmpLane = tmpLane.getDown();
         }
-        List<jRoute> routes = Arrays.asList(new jRoute[]{new jRoute(new int[]{3})});
+        List<jRoute> routes = Arrays.asList(new jRoute[]{jRoute.of(3)});
         DensityGenerator driverGenerator1 = new DensityGenerator(this, lane1, routes, count);
         driverGenerator1.setGap(100.0);
         DensityGenerator driverGenerator2 = new DensityGenerator(this, lane2, routes, count);
@@ -1,18 +1,68 @@
 package microModel.core;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Class representing a parameter with a default value. This is used for
  * built-in modelParameters and can also be used to create new custom modelParameters.
  * See the Builtin Settings modelParameters for example.
+ * <p>
+ * Each parameter receives a dense ordinal when it is declared, which can be used to store
+ * parameter values in arrays (see {@link ParameterValues}). Parameters that are equal (same
+ * name and type) share the same ordinal.
+ * </p>
  * @param <T>
  */
 public class Parameter<T> {
+    /** Ordinals by name and type of the parameter. */
+    private static final Map<String, Integer> ORDINALS = new HashMap<String, Integer>();
+
     private String name;
     private T value;
+    private final int ordinal;
+    /** Default value as a primitive, for numeric and boolean parameters. */
+    private final double primitiveValue;
 
     public Parameter(String name, T value) {
         this.name = name;
         this.value = value;
+        this.ordinal = ordinal(name + '#' + (value == null ? "" : value.getClass().getName()));
+        this.primitiveValue = ParameterValues.toPrimitive(value);
+    }
+
+    private static int ordinal(String key) {
+        synchronized (ORDINALS) {
+            Integer ordinal = ORDINALS.get(key);
+            if (ordinal == null) {
+                ordinal = ORDINALS.size();
+                ORDINALS.put(key, ordinal);
+            }
+            return ordinal;
+        }
+    }
+
+    /**
+     * @return The number of distinct parameters declared so far.
+     */
+    public static int count() {
+        synchronized (ORDINALS) {
+            return ORDINALS.size();
+        }
+    }
+
+    /**
+     * @return Dense ordinal of this parameter.
+     */
+    public int ordinal() {
+        return ordinal;
+    }
+
+    /**
+     * @return The default value as a primitive, NaN for parameters that are not numeric or boolean.
+     */
+    double primitiveValue() {
+        return primitiveValue;
     }
 
     public String name() {
@@ -0,0 +1,122 @@
+package microModel.core;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Values of {@link Parameter}s, stored in arrays indexed by the parameter ordinal.
+ * Parameters without a value fall through to their default value.
+ * </p><p>
+ * Numeric and boolean values are also kept as primitives, so that
+ * {@link #getDouble(Parameter)}, {@link #getInt(Parameter)} and {@link #getBoolean(Parameter)}
+ * are plain array reads and {@link #setDouble(Parameter, double)} does not box.
+ * </p>
+ */
+public final class ParameterValues {
+
+    private static final byte ABSENT = 0;
+    /** The boxed value is set, the primitive value mirrors it if it is numeric or boolean. */
+    private static final byte BOXED = 1;
+    /** Only the primitive (double) value is set. */
+    private static final byte PRIMITIVE = 2;
+
+    private byte[] state = new byte[0];
+    private Object[] values = new Object[0];
+    private double[] primitives = new double[0];
+
+    /**
+     * @param parameter Parameter of interest.
+     * @return Whether a value has been set for the parameter.
+     */
+    public boolean contains(Parameter<?> parameter) {
+        int o = parameter.ordinal();
+        return o < state.length && state[o] != ABSENT;
+    }
+
+    /**
+     * @param parameter Parameter of interest.
+     * @return The value of the parameter, or its default value if not set.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Parameter<T> parameter) {
+        int o = parameter.ordinal();
+        if (o >= state.length || state[o] == ABSENT) {
+            return parameter.value();
+        }
+        if (state[o] == PRIMITIVE) {
+            return (T) Double.valueOf(primitives[o]);
+        }
+        return (T) values[o];
+    }
+
+    public double getDouble(Parameter<Double> parameter) {
+        int o = parameter.ordinal();
+        return o < state.length && state[o] != ABSENT ? primitives[o] : parameter.primitiveValue();
+    }
+
+    public int getInt(Parameter<Integer> parameter) {
+        int o = parameter.ordinal();
+        return (int) (o < state.length && state[o] != ABSENT ? primitives[o] : parameter.primitiveValue());
+    }
+
+    public boolean getBoolean(Parameter<Boolean> parameter) {
+        int o = parameter.ordinal();
+        return (o < state.length && state[o] != ABSENT ? primitives[o] : parameter.primitiveValue()) != 0;
+    }
+
+    /**
+     * Sets the value of a parameter.
+     * @param parameter Parameter to set.
+     * @param value Value of the parameter.
+     */
+    public <T> void set(Parameter<T> parameter, T value) {
+        int o = ensureCapacity(parameter.ordinal());
+        state[o] = BOXED;
+        values[o] = value;
+        primitives[o] = toPrimitive(value);
+    }
+
+    /**
+     * Sets the value of a numeric parameter without boxing it.
+     * @param parameter Parameter to set.
+     * @param value Value of the parameter.
+     */
+    public void setDouble(Parameter<Double> parameter, double value) {
+        int o = ensureCapacity(parameter.ordinal());
+        state[o] = PRIMITIVE;
+        values[o] = null;
+        primitives[o] = value;
+    }
+
+    /**
+     * Removes all values, keeping the allocated arrays.
+     */
+    public void clear() {
+        Arrays.fill(state, ABSENT);
+        Arrays.fill(values, null);
+        Arrays.fill(primitives, 0);
+    }
+
+    private int ensureCapacity(int ordinal) {
+        if (ordinal >= state.length) {
+            int size = Math.max(ordinal + 1, Parameter.count());
+            state = Arrays.copyOf(state, size);
+            values = Arrays.copyOf(values, size);
+            primitives = Arrays.copyOf(primitives, size);
+        }
+        return ordinal;
+    }
+
+    /**
+     * @return The value as a primitive, NaN if the value is not numeric or boolean.
+     */
+    static double toPrimitive(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof Boolean) {
+            return ((Boolean) value) ? 1 : 0;
+        }
+        return Double.NaN;
+    }
+}
@@ -8,7 +8,10 @@ import microModel.jModel;
  * detectors, traffic lights, dynamic speed limiers. Other types of controllers
  * are vehicle generators, OBUs and RSUs.
  * </p>
- * <p>The simulation calls the {@link #run()} method during each round.</p>
+ * <p>The simulation calls the {@link #run()} method during each round, unless the
+ * controller runs with a fixed interval and does not need {@link #noControl()}, see
+ * {@link #pollsNoControl()}. Such controllers are run by a {@link ControllerScheduler}
+ * only when {@link #control()} is due.</p>
  * <p>
  * The {@link #control()} and {@link #noControl()} methods should be defined in
  * sub classes and should respectively define the operation of the controller
@@ -60,8 +63,15 @@ public abstract class AbstractController implements jController {
      */
     @Override
     public final void run() {
-        jModel model = jModel.getInstance();
-        if (model.getT() >= t + duration && model.getT() >= start) {
+        run(jModel.getInstance().getT());
+    }
+
+    /**
+     * Runs the controller at the given simulation time, see {@link #run()}.
+     * @param now Current simulation time [s].
+     */
+    public final void run(double now) {
+        if (now >= t + duration && now >= start) {
             t = t + duration; // set time of latest control
             control();
         } else {
@@ -69,4 +79,28 @@ public abstract class AbstractController implements jController {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * @return Simulation time [s] from which {@link #control()} is due.
+     */
+    public double getNextControlTime() {
+        return Math.max(t + duration, start);
+    }
+
+    /**
+     * Whether {@link #noControl()} needs to be called every time step. Controllers with
+     * an empty {@link #noControl()} can return <tt>false</tt>, such that a
+     * {@link ControllerScheduler} only runs them when {@link #control()} is due.
+     * @return Whether {@link #noControl()} needs to be called every time step.
+     */
+    public boolean pollsNoControl() {
+        return true;
+    }
+
+    /**
+     * @return Time between control runs of this controller [s].
+     */
+    public double getDuration() {
+        return duration;
+    }
+
+}
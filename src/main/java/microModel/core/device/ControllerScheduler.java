@@ -0,0 +1,194 @@
+package microModel.core.device;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Timer wheel that runs controllers only in the time steps in which their
+ * {@link AbstractController#control()} is due, instead of running every controller
+ * every time step.
+ * </p><p>
+ * Only controllers that run with a fixed interval and do not need
+ * {@link AbstractController#noControl()} are put on the wheel, see {@link #add(jController)}.
+ * Other controllers are run every time step. In each time step the controllers that are
+ * run, run in the order in which they were added.
+ * </p><p>
+ * The wheel has a slot per time step, modulo the number of slots. A controller is put
+ * in the slot of the time step in which it is expected to be due. If it turns out not
+ * to be due yet, e.g. due to rounding, it is put in the slot of the next time step.
+ * Controllers due more than one rotation ahead stay in their slot until their time step
+ * comes. {@link #run(int, double)} needs to be called every time step.
+ * </p>
+ */
+public final class ControllerScheduler {
+
+    /** Default number of slots. */
+    public static final int DEFAULT_SLOTS = 256;
+
+    /** Controller with the time step in which it is due. */
+    private static final class Entry {
+        private final AbstractController controller;
+        /** Order in which the controller was added. */
+        private final int ordinal;
+        private int step;
+
+        private Entry(AbstractController controller, int ordinal) {
+            this.controller = controller;
+            this.ordinal = ordinal;
+        }
+    }
+
+    /** Time step size [s]. */
+    private final double dt;
+
+    /** Slots of the wheel, by time step modulo the number of slots. */
+    private final List<List<Entry>> slots;
+
+    /** Number of slots minus one, the number of slots is a power of 2. */
+    private final int mask;
+
+    /** Next time step to run. */
+    private int step;
+
+    /** Number of scheduled controllers. */
+    private int size;
+
+    /** Number of added controllers. */
+    private int added;
+
+    /** Controllers that are run every time step, in the order in which they were added. */
+    private final List<jController> polled = new ArrayList<jController>();
+
+    /** Order in which the controllers in {@link #polled} were added. */
+    private int[] polledOrdinals = new int[16];
+
+    /** Controllers that are run in the current time step, reused. */
+    private final List<Entry> due = new ArrayList<Entry>();
+
+    /**
+     * @param dt Time step size [s].
+     * @param step Next time step to run.
+     */
+    public ControllerScheduler(double dt, int step) {
+        this(dt, step, DEFAULT_SLOTS);
+    }
+
+    /**
+     * @param dt Time step size [s].
+     * @param step Next time step to run.
+     * @param slots Minimum number of slots, rounded up to a power of 2.
+     */
+    public ControllerScheduler(double dt, int step, int slots) {
+        if (!(dt > 0)) {
+            throw new IllegalArgumentException("Time step size should be positive, got " + dt);
+        }
+        if (slots <= 0) {
+            throw new IllegalArgumentException("Number of slots should be positive, got " + slots);
+        }
+        int n = Integer.highestOneBit(slots);
+        if (n < slots) {
+            n = n << 1;
+        }
+        this.dt = dt;
+        this.step = step;
+        this.mask = n - 1;
+        this.slots = new ArrayList<List<Entry>>(n);
+        for (int i = 0; i < n; i++) {
+            this.slots.add(new ArrayList<Entry>());
+        }
+    }
+
+    /**
+     * Adds a controller. It is put on the wheel if it runs with a fixed interval and does
+     * not need {@link AbstractController#noControl()} every time step, and is otherwise
+     * run every time step.
+     * @param controller Controller.
+     * @return Whether the controller was put on the wheel.
+     */
+    public boolean add(jController controller) {
+        int ordinal = added++;
+        if (controller instanceof AbstractController) {
+            AbstractController c = (AbstractController) controller;
+            if (c.getDuration() > 0 && !c.pollsNoControl()) {
+                schedule(new Entry(c, ordinal), step);
+                size++;
+                return true;
+            }
+        }
+        if (polled.size() == polledOrdinals.length) {
+            polledOrdinals = Arrays.copyOf(polledOrdinals, 2 * polledOrdinals.length);
+        }
+        polledOrdinals[polled.size()] = ordinal;
+        polled.add(controller);
+        return false;
+    }
+
+    /**
+     * Puts an entry in the slot of the time step in which it is expected to be due.
+     * @param entry Entry.
+     * @param earliest Earliest time step.
+     */
+    private void schedule(Entry entry, int earliest) {
+        double estimate = Math.floor(entry.controller.getNextControlTime() / dt);
+        entry.step = estimate > earliest ? (int) Math.min(estimate, Integer.MAX_VALUE) : earliest;
+        slots.get(entry.step & mask).add(entry);
+    }
+
+    /**
+     * Runs the controllers that are run every time step and the controllers that are due,
+     * in the order in which they were added. Controllers that were expected to be due but
+     * are not, are run with {@link AbstractController#run(double)} anyway, which calls
+     * their empty {@link AbstractController#noControl()}.
+     * @param step Time step, one more than in the previous call.
+     * @param now Simulation time [s] of the time step.
+     */
+    public void run(int step, double now) {
+        List<Entry> slot = slots.get(step & mask);
+        for (int i = slot.size() - 1; i >= 0; i--) {
+            Entry entry = slot.get(i);
+            if (entry.step <= step) {
+                // remove by moving the last entry
+                slot.set(i, slot.get(slot.size() - 1));
+                slot.remove(slot.size() - 1);
+                insertDue(entry);
+            }
+        }
+        this.step = step + 1;
+        int p = 0;
+        for (int i = 0; i < due.size(); i++) {
+            Entry entry = due.get(i);
+            for (; p < polled.size() && polledOrdinals[p] < entry.ordinal; p++) {
+                polled.get(p).run();
+            }
+            entry.controller.run(now);
+            schedule(entry, this.step);
+        }
+        for (; p < polled.size(); p++) {
+            polled.get(p).run();
+        }
+        due.clear();
+    }
+
+    /**
+     * Inserts an entry in the due controllers, ordered by the order in which they were added.
+     * @param entry Entry.
+     */
+    private void insertDue(Entry entry) {
+        int i = due.size();
+        due.add(entry);
+        while (i > 0 && due.get(i - 1).ordinal > entry.ordinal) {
+            due.set(i, due.get(i - 1));
+            i--;
+        }
+        due.set(i, entry);
+    }
+
+    /**
+     * @return Number of scheduled controllers.
+     */
+    public int size() {
+        return size;
+    }
+}
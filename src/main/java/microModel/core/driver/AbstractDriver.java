@@ -1,14 +1,12 @@
 package microModel.core.driver;
 
 import microModel.core.Parameter;
+import microModel.core.ParameterValues;
 import microModel.core.driver.model.IDMPlus;
 import microModel.core.jRoute;
 import microModel.core.vehicle.Vehicle;
 import microModel.core.vehicle.jVehicle;
 
-import java.util.HashMap;
-import java.util.Map;
-
 public abstract class AbstractDriver implements jDriver {
 
     /** ID of the driver. */
@@ -18,8 +16,19 @@ public abstract class AbstractDriver implements jDriver {
     /** Vehicle of the driver. */
     protected Vehicle vehicle;
     /** Place holder for driver model parameters */
-    protected Map<Parameter<?>, Object> modelParameters = new HashMap<Parameter<?>, Object>();
+    protected ParameterValues modelParameters = new ParameterValues();
+
 
+    /**
+     * Resets the state of the driver to that of a newly created driver, such that the
+     * instance can be reused. Subclasses that add state should extend this method.
+     */
+    protected void reset() {
+        id = 0;
+        route = null;
+        vehicle = null;
+        modelParameters.clear();
+    }
 
     @Override
     public jVehicle getVehicle() {
@@ -54,20 +63,37 @@ public abstract class AbstractDriver implements jDriver {
 
     @Override
     public <T> T get(Parameter<T> parameter) {
-        if (modelParameters.containsKey(parameter)) {
-            return (T) modelParameters.get(parameter);
-        }
-        return parameter.value();
+        return modelParameters.get(parameter);
     }
 
     @Override
     public <T> void set(Parameter<T> parameter, T value) {
-        modelParameters.put(parameter, value);
+        modelParameters.set(parameter, value);
     }
 
     @Override
     public <T> boolean hasParameter(Parameter<T> parameter) {
-        return modelParameters.containsKey(parameter);
+        return modelParameters.contains(parameter);
+    }
+
+    @Override
+    public double getDouble(Parameter<Double> parameter) {
+        return modelParameters.getDouble(parameter);
+    }
+
+    @Override
+    public int getInt(Parameter<Integer> parameter) {
+        return modelParameters.getInt(parameter);
+    }
+
+    @Override
+    public boolean getBoolean(Parameter<Boolean> parameter) {
+        return modelParameters.getBoolean(parameter);
+    }
+
+    @Override
+    public void setDouble(Parameter<Double> parameter, double value) {
+        modelParameters.setDouble(parameter, value);
     }
 
     @Override
@@ -37,7 +37,7 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
     /** Current time of anticipated speed bookkeeping (for <tt>anticipatedSpeed</tt>). */
     protected double tAnt;
 
-    public static class Builder extends jDriver.BuildHelper implements jDriver.Builder {
+    public static class Builder extends jDriver.BuildHelper implements jDriver.ReusableBuilder {
 
         private jRoute route;
 
@@ -47,7 +47,17 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
 
         @Override
         public IDMPlus_LMRS_Driver build() {
-            IDMPlus_LMRS_Driver driver = new IDMPlus_LMRS_Driver();
+            return build(new IDMPlus_LMRS_Driver());
+        }
+
+        @Override
+        public IDMPlus_LMRS_Driver rebuild(jDriver driver) {
+            IDMPlus_LMRS_Driver d = (IDMPlus_LMRS_Driver) driver;
+            d.reset();
+            return build(d);
+        }
+
+        private IDMPlus_LMRS_Driver build(IDMPlus_LMRS_Driver driver) {
             driver.set(IDMPlus.A, parameters.get(IDMPlus.A) != null ? (Double) parameters.get(IDMPlus.A) : IDMPlus.A.value());
             driver.set(IDMPlus.B, parameters.get(IDMPlus.B) != null ? (Double) parameters.get(IDMPlus.B) : IDMPlus.B.value());
             driver.set(IDMPlus.S0, parameters.get(IDMPlus.S0) != null ? (Double) parameters.get(IDMPlus.S0) : IDMPlus.S0.value());
@@ -80,6 +90,16 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
 
     protected IDMPlus_LMRS_Driver() {}
 
+    @Override
+    protected void reset() {
+        super.reset();
+        tAccLower = -1;
+        antFromLeft.clear();
+        antInLane.clear();
+        antFromRight.clear();
+        tAnt = 0;
+    }
+
 
     /**
      * Driver behavior for acceleration and lane changes. This is the main
@@ -115,7 +135,7 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
              * Tmax. The relaxation time is tau, which can never be smaller than
              * the time step. Smaller values of T can be set within the model.
              */
-            set(IDMPlus.T, get(IDMPlus.T) + (get(IDMPlus.T_MAX)-get(IDMPlus.T))* model.getStepSize() /(get(LMRS.TAU)>= model.getStepSize() ?get(LMRS.TAU): model.getStepSize()));
+            setDouble(IDMPlus.T, getDouble(IDMPlus.T) + (getDouble(IDMPlus.T_MAX)-getDouble(IDMPlus.T))* model.getStepSize() /(getDouble(LMRS.TAU)>= model.getStepSize() ?getDouble(LMRS.TAU): model.getStepSize()));
 
             /* A lane change is not considered over the first 100m of lanes with
              * generators. Vehicles that are (virtually) upstream of the network
@@ -136,8 +156,8 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
                  * distance or time is desired.
                  */
                 // Towards the left, always ignore taper on current lane
-                double dCurRouteFL = Math.max(Math.max(1-(xCur/(nCur*get(LMRS.X0))),
-                        1-((xCur/vehicle.getSpeed())/(nCur*get(LMRS.T0)))), 0);
+                double dCurRouteFL = Math.max(Math.max(1-(xCur/(nCur*getDouble(LMRS.X0))),
+                        1-((xCur/vehicle.getSpeed())/(nCur*getDouble(LMRS.T0)))), 0);
                 // Towards the right, no desire if on taper
                 double dCurRouteFR = 0;
                 if (!isOnTaper()) {
@@ -154,8 +174,8 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
                             - vehicle.getAdjacentX(LatDirection.LEFT);
                     // We can always include a taper on the left lane if it's there
                     if (!isTaper(vehicle.getLane().getLeft())) {
-                        dLeftRoute = Math.max(Math.max(1-(xLeft/(nLeft*get(LMRS.X0))),
-                                1-((xLeft/vehicle.getSpeed())/(nLeft*get(LMRS.T0)))), 0);
+                        dLeftRoute = Math.max(Math.max(1-(xLeft/(nLeft*getDouble(LMRS.X0))),
+                                1-((xLeft/vehicle.getSpeed())/(nLeft*getDouble(LMRS.T0)))), 0);
                     }
 
                     /* We now have the desire to leave the current, and to leave
@@ -186,8 +206,8 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
                     double xRight = route.xLaneChanges(vehicle.getLane().getRight())
                             - vehicle.getAdjacentX(LatDirection.RIGHT);
                     // A taper on the right lane is never applicable
-                    dRightRoute = Math.max(Math.max(1-(xRight/(nRight*get(LMRS.X0))),
-                            1-((xRight/vehicle.getSpeed())/(nRight*get(LMRS.T0)))), 0);
+                    dRightRoute = Math.max(Math.max(1-(xRight/(nRight*getDouble(LMRS.X0))),
+                            1-((xRight/vehicle.getSpeed())/(nRight*getDouble(LMRS.T0)))), 0);
 
                     if (dRightRoute<dCurRouteFR) {
                         dRightRoute = dCurRouteFR;
@@ -214,7 +234,7 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
                  * being overtaken by fast accelerating vehicles. This would
                  * otherwise cause unreasonable lane changes.
                  */
-                double aGain = 1-Math.max(IDMPlus.acceleration(vehicle, vehicle.getVehicle(Enclosure.DOWNSTREAM)),0)/get(IDMPlus.A);
+                double aGain = 1-Math.max(IDMPlus.acceleration(vehicle, vehicle.getVehicle(Enclosure.DOWNSTREAM)),0)/getDouble(IDMPlus.A);
                 /* Desire to the left is related to a possible speed gain/loss.
                  * The parameter vGain determines for which speed gain the
                  * desire would be 1. Desire is 0 if there is no left lane or if
@@ -222,7 +242,7 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
                  */
                 double dLeftSpeed = 0;
                 if (vehicle.getLane().isGoLeft()) {
-                    dLeftSpeed = aGain*(vAntLeft-vAntCur)/get(LMRS.V_GAIN);
+                    dLeftSpeed = aGain*(vAntLeft-vAntCur)/getDouble(LMRS.V_GAIN);
                 }
                 /* For the right lane, desire due to a speed gain is slightly
                  * different. As one is not allowed to overtake on the right, a
@@ -232,10 +252,10 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
                  */
                 double dRightSpeed = 0;
                 if (vehicle.getLane().isGoRight()) {
-                    if (vAntCur>=get(LMRS.V_CONG)) {
-                        dRightSpeed = aGain*Math.min(vAntRight-vAntCur, 0)/get(LMRS.V_GAIN);
+                    if (vAntCur>=getDouble(LMRS.V_CONG)) {
+                        dRightSpeed = aGain*Math.min(vAntRight-vAntCur, 0)/getDouble(LMRS.V_GAIN);
                     } else {
-                        dRightSpeed = aGain*(vAntRight-vAntCur)/get(LMRS.V_GAIN);
+                        dRightSpeed = aGain*(vAntRight-vAntCur)/getDouble(LMRS.V_GAIN);
                     }
                 }
 
@@ -252,7 +272,7 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
                 double dLeftBias = 0;
                 double dRightBias = 0;
                 if (vAntRight== IDMPlus.updateDesiredVelocity(this) && dRightRoute>=0) {
-                    dRightBias = get(LMRS.D_FREE);
+                    dRightBias = getDouble(LMRS.D_FREE);
                 }
 
                 /* === TOTAL DESIRE ===
@@ -266,24 +286,24 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
                  * dominate voluntary incentives.
                  */
                 double thetaLeft = 0; // Assume not included
-                if (dLeftRoute*(dLeftSpeed+dLeftBias)>=0 || Math.abs(dLeftRoute)<=get(LMRS.D_SYNC)) {
+                if (dLeftRoute*(dLeftSpeed+dLeftBias)>=0 || Math.abs(dLeftRoute)<=getDouble(LMRS.D_SYNC)) {
                     // Same direction or low mandatory desire
                     thetaLeft = 1;
                 } else if (dLeftRoute*(dLeftSpeed+dLeftBias)<0 &&
-                        get(LMRS.D_SYNC)<Math.abs(dLeftRoute) && Math.abs(dLeftRoute)<get(LMRS.D_COOP)) {
+                        getDouble(LMRS.D_SYNC)<Math.abs(dLeftRoute) && Math.abs(dLeftRoute)<getDouble(LMRS.D_COOP)) {
                     // Voluntary incentives paritally included
-                    thetaLeft = (get(LMRS.D_COOP)-Math.abs(dLeftRoute)) / (get(LMRS.D_COOP)-get(LMRS.D_SYNC));
+                    thetaLeft = (getDouble(LMRS.D_COOP)-Math.abs(dLeftRoute)) / (getDouble(LMRS.D_COOP)-getDouble(LMRS.D_SYNC));
                 }
-                set(LMRS.D_LEFT, dLeftRoute + thetaLeft*(dLeftSpeed+dLeftBias));
+                setDouble(LMRS.D_LEFT, dLeftRoute + thetaLeft*(dLeftSpeed+dLeftBias));
                 // Idem. for right
                 double thetaRight = 0;
-                if (dRightRoute*(dRightSpeed+dRightBias)>=0 || Math.abs(dRightRoute)<=get(LMRS.D_SYNC)) {
+                if (dRightRoute*(dRightSpeed+dRightBias)>=0 || Math.abs(dRightRoute)<=getDouble(LMRS.D_SYNC)) {
                     thetaRight = 1;
                 } else if (dRightRoute*(dRightSpeed+dRightBias)<0 &&
-                        get(LMRS.D_SYNC)<Math.abs(dRightRoute) && Math.abs(dRightRoute)<get(LMRS.D_COOP)) {
-                    thetaRight = (get(LMRS.D_COOP)-Math.abs(dRightRoute)) / (get(LMRS.D_COOP)-get(LMRS.D_SYNC));
+                        getDouble(LMRS.D_SYNC)<Math.abs(dRightRoute) && Math.abs(dRightRoute)<getDouble(LMRS.D_COOP)) {
+                    thetaRight = (getDouble(LMRS.D_COOP)-Math.abs(dRightRoute)) / (getDouble(LMRS.D_COOP)-getDouble(LMRS.D_SYNC));
                 }
-                set(LMRS.D_RIGHT, dRightRoute + thetaRight*(dRightSpeed+dRightBias));
+                setDouble(LMRS.D_RIGHT, dRightRoute + thetaRight*(dRightSpeed+dRightBias));
 
                 /* === GAP ACCEPTANCE ===
                  * A gap is accepted or rejected based on the resulting
@@ -293,7 +313,7 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
                 double aSelf = 0; // assume ok
                 if (vehicle.getVehicle(Enclosure.LEFT_DOWNSTREAM) !=null && vehicle.getGap(vehicle.getVehicle(Enclosure.LEFT_DOWNSTREAM))>0) {
                     // Use car-following model
-                    Double T = updatedTimeHeadwayForLaneChange(get(LMRS.D_LEFT), get(IDMPlus.T), get(LMRS.T_MIN), get(IDMPlus.T_MAX));
+                    double T = updatedTimeHeadwayForLaneChange(getDouble(LMRS.D_LEFT), getDouble(IDMPlus.T), getDouble(LMRS.T_MIN), getDouble(IDMPlus.T_MAX));
                     aSelf = IDMPlus.anticipatedAcceleration(vehicle, vehicle.getVehicle(Enclosure.LEFT_DOWNSTREAM), T);
                 } else if (vehicle.getVehicle(Enclosure.LEFT_DOWNSTREAM) !=null) {
                     // Negative headway, reject gap
@@ -305,7 +325,7 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
                     if (vehicle.getVehicle(Enclosure.LEFT_UPSTREAM).getGap(vehicle)>0) {
                         jVehicle anticipatedFollowingVehicle = vehicle.getVehicle(Enclosure.LEFT_UPSTREAM);
                         jDriver anticipatedFollowingDriver = anticipatedFollowingVehicle.getDriver();
-                        Double T = updatedTimeHeadwayForLaneChange(get(LMRS.D_LEFT), anticipatedFollowingDriver.get(IDMPlus.T),anticipatedFollowingDriver.get(LMRS.T_MIN), anticipatedFollowingDriver.get(IDMPlus.T_MAX));
+                        double T = updatedTimeHeadwayForLaneChange(getDouble(LMRS.D_LEFT), anticipatedFollowingDriver.getDouble(IDMPlus.T),anticipatedFollowingDriver.getDouble(LMRS.T_MIN), anticipatedFollowingDriver.getDouble(IDMPlus.T_MAX));
                         aFollow = IDMPlus.anticipatedAcceleration(anticipatedFollowingVehicle, vehicle, T);
                     } else {
                         aFollow = Double.NEGATIVE_INFINITY;
@@ -315,13 +335,13 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
                  * desire depedant threshold.
                  */
                 boolean acceptLeft = false;
-                if (aSelf >= -get(LMRS.B_SAFE)*get(LMRS.D_LEFT) && aFollow >= -get(LMRS.B_SAFE)*get(LMRS.D_LEFT) && vehicle.getLane().isGoLeft()) {
+                if (aSelf >= -getDouble(LMRS.B_SAFE)*getDouble(LMRS.D_LEFT) && aFollow >= -getDouble(LMRS.B_SAFE)*getDouble(LMRS.D_LEFT) && vehicle.getLane().isGoLeft()) {
                     acceptLeft = true;
                 }
                 // Idem. for right gap
                 aSelf = 0;
                 if (vehicle.getVehicle(Enclosure.RIGHT_DOWNSTREAM) !=null && vehicle.getGap(vehicle.getVehicle(Enclosure.RIGHT_DOWNSTREAM))>0) {
-                    Double T = updatedTimeHeadwayForLaneChange(get(LMRS.D_RIGHT), get(IDMPlus.T), get(LMRS.T_MIN), get(IDMPlus.T_MAX));
+                    double T = updatedTimeHeadwayForLaneChange(getDouble(LMRS.D_RIGHT), getDouble(IDMPlus.T), getDouble(LMRS.T_MIN), getDouble(IDMPlus.T_MAX));
                     aSelf = IDMPlus.anticipatedAcceleration(vehicle, vehicle.getVehicle(Enclosure.RIGHT_DOWNSTREAM), T);
                 } else if (vehicle.getVehicle(Enclosure.RIGHT_DOWNSTREAM) !=null) {
                     aSelf = Double.NEGATIVE_INFINITY;
@@ -331,14 +351,14 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
                     if (vehicle.getVehicle(Enclosure.RIGHT_UPSTREAM).getGap(vehicle)>0) {
                         jVehicle anticipatedFollowingVehicle = vehicle.getVehicle(Enclosure.RIGHT_UPSTREAM);
                         jDriver anticipataedFollowingDriver = anticipatedFollowingVehicle.getDriver();
-                        Double T = updatedTimeHeadwayForLaneChange(get(LMRS.D_RIGHT), anticipataedFollowingDriver.get(IDMPlus.T), anticipataedFollowingDriver.get(LMRS.T_MIN), anticipataedFollowingDriver.get(IDMPlus.T_MAX));
+                        double T = updatedTimeHeadwayForLaneChange(getDouble(LMRS.D_RIGHT), anticipataedFollowingDriver.getDouble(IDMPlus.T), anticipataedFollowingDriver.getDouble(LMRS.T_MIN), anticipataedFollowingDriver.getDouble(IDMPlus.T_MAX));
                         aFollow = IDMPlus.anticipatedAcceleration(anticipatedFollowingVehicle, vehicle, T);
                     } else {
                         aFollow = Double.NEGATIVE_INFINITY;
                     }
                 }
                 boolean acceptRight = false;
-                if (aSelf >= -get(LMRS.B_SAFE)*get(LMRS.D_RIGHT) && aFollow >= -get(LMRS.B_SAFE)*get(LMRS.D_RIGHT) && vehicle.getLane().isGoRight()) {
+                if (aSelf >= -getDouble(LMRS.B_SAFE)*getDouble(LMRS.D_RIGHT) && aFollow >= -getDouble(LMRS.B_SAFE)*getDouble(LMRS.D_RIGHT) && vehicle.getLane().isGoRight()) {
                     acceptRight = true;
                 }
 
@@ -347,32 +367,32 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
                  * gap is accepted. If the gap is rejected, the turn indicator
                  * may be turned on.
                  */
-                if (get(LMRS.D_LEFT)>=get(LMRS.D_RIGHT) && get(LMRS.D_LEFT)>=get(LMRS.D_FREE) && acceptLeft) {
+                if (getDouble(LMRS.D_LEFT)>=getDouble(LMRS.D_RIGHT) && getDouble(LMRS.D_LEFT)>=getDouble(LMRS.D_FREE) && acceptLeft) {
                     // Set dy to the left
-                    double dur = Math.min((route.xLaneChanges(vehicle.getLane())- vehicle.getX())/(180/3.6), get(LMRS.DURATION));
+                    double dur = Math.min((route.xLaneChanges(vehicle.getLane())- vehicle.getX())/(180/3.6), getDouble(LMRS.DURATION));
                     vehicle.changeLane(LatDirection.LEFT, model.getStepSize() / dur);
                     // Set headway
-                    setT(get(LMRS.D_LEFT));
+                    setT(getDouble(LMRS.D_LEFT));
                     // Set response headway of new follower
                     if (vehicle.getVehicle(Enclosure.LEFT_UPSTREAM) != null && vehicle.getVehicle(Enclosure.LEFT_UPSTREAM).getVehicle(Enclosure.RIGHT_DOWNSTREAM)==vehicle) {
                         jDriver newFollower = vehicle.getVehicle(Enclosure.LEFT_UPSTREAM).getDriver();
-                        double updatedT = updatedTimeHeadwayForLaneChange(get(LMRS.D_LEFT), newFollower.get(IDMPlus.T), newFollower.get(LMRS.T_MIN), newFollower.get(IDMPlus.T_MAX));
-                        newFollower.set(IDMPlus.T, updatedT);
+                        double updatedT = updatedTimeHeadwayForLaneChange(getDouble(LMRS.D_LEFT), newFollower.getDouble(IDMPlus.T), newFollower.getDouble(LMRS.T_MIN), newFollower.getDouble(IDMPlus.T_MAX));
+                        newFollower.setDouble(IDMPlus.T, updatedT);
                     }
-                } else if (get(LMRS.D_RIGHT)>=get(LMRS.D_LEFT) && get(LMRS.D_RIGHT)>=get(LMRS.D_FREE) && acceptRight) {
+                } else if (getDouble(LMRS.D_RIGHT)>=getDouble(LMRS.D_LEFT) && getDouble(LMRS.D_RIGHT)>=getDouble(LMRS.D_FREE) && acceptRight) {
                     // Set dy to the right
-                    double dur = Math.min((route.xLaneChanges(vehicle.getLane())- vehicle.getX())/(180/3.6), get(LMRS.DURATION));
+                    double dur = Math.min((route.xLaneChanges(vehicle.getLane())- vehicle.getX())/(180/3.6), getDouble(LMRS.DURATION));
                     vehicle.changeLane(LatDirection.RIGHT, model.getStepSize() / dur);
                     // Set headway
-                    setT(get(LMRS.D_RIGHT));
+                    setT(getDouble(LMRS.D_RIGHT));
                     if (vehicle.getVehicle(Enclosure.RIGHT_UPSTREAM) != null && vehicle.getVehicle(Enclosure.RIGHT_UPSTREAM).getVehicle(Enclosure.LEFT_DOWNSTREAM)==vehicle) {
                         jDriver newFollower = vehicle.getVehicle(Enclosure.RIGHT_UPSTREAM).getDriver();
-                        newFollower.set(IDMPlus.T, updatedTimeHeadwayForLaneChange(get(LMRS.D_RIGHT), newFollower.get(IDMPlus.T), newFollower.get(LMRS.T_MIN), newFollower.get(IDMPlus.T_MAX)));
+                        newFollower.setDouble(IDMPlus.T, updatedTimeHeadwayForLaneChange(getDouble(LMRS.D_RIGHT), newFollower.getDouble(IDMPlus.T), newFollower.getDouble(LMRS.T_MIN), newFollower.getDouble(IDMPlus.T_MAX)));
                     }
-                } else if (get(LMRS.D_LEFT)>=get(LMRS.D_RIGHT) && get(LMRS.D_LEFT)>=get(LMRS.D_COOP)) {
+                } else if (getDouble(LMRS.D_LEFT)>=getDouble(LMRS.D_RIGHT) && getDouble(LMRS.D_LEFT)>=getDouble(LMRS.D_COOP)) {
                     // Indicate need to left
                     vehicle.toggleLeftIndicator();
-                } else if (get(LMRS.D_RIGHT)>=get(LMRS.D_LEFT) && get(LMRS.D_RIGHT)>=get(LMRS.D_COOP)) {
+                } else if (getDouble(LMRS.D_RIGHT)>=getDouble(LMRS.D_LEFT) && getDouble(LMRS.D_RIGHT)>=getDouble(LMRS.D_COOP)) {
                     // Indicate need to right
                     vehicle.toggleRightIndicator();
                 }
@@ -384,15 +404,15 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
             // Follow leader (regular car following)
             lowerAcceleration(IDMPlus.acceleration(vehicle, vehicle.getVehicle(Enclosure.DOWNSTREAM)));
             // Synchronize to perform a lane change
-            if (get(LMRS.D_LEFT)>=get(LMRS.D_SYNC) && get(LMRS.D_LEFT)>=get(LMRS.D_RIGHT) && vehicle.getVehicle(Enclosure.LEFT_DOWNSTREAM) !=null && vehicle.getVehicle(Enclosure.LEFT_DOWNSTREAM).getSpeed()-5/3.6<vehicle.getSpeed()) {
+            if (getDouble(LMRS.D_LEFT)>=getDouble(LMRS.D_SYNC) && getDouble(LMRS.D_LEFT)>=getDouble(LMRS.D_RIGHT) && vehicle.getVehicle(Enclosure.LEFT_DOWNSTREAM) !=null && vehicle.getVehicle(Enclosure.LEFT_DOWNSTREAM).getSpeed()-5/3.6<vehicle.getSpeed()) {
                 // Apply shorter headway for synchronization
-                Double T = updatedTimeHeadwayForLaneChange(get(LMRS.D_LEFT), get(IDMPlus.T), get(LMRS.T_MIN), get(IDMPlus.T_MAX));
+                double T = updatedTimeHeadwayForLaneChange(getDouble(LMRS.D_LEFT), getDouble(IDMPlus.T), getDouble(LMRS.T_MIN), getDouble(IDMPlus.T_MAX));
                 lowerAcceleration(safe(IDMPlus.anticipatedAcceleration(vehicle, vehicle.getVehicle(Enclosure.LEFT_DOWNSTREAM),T)));
                 set(LMRS.LEFT_SYNC, true);
-            } else if (get(LMRS.D_RIGHT)>=get(LMRS.D_SYNC) && get(LMRS.D_RIGHT)>get(LMRS.D_LEFT) && vehicle.getVehicle(Enclosure.RIGHT_DOWNSTREAM) !=null && vehicle.getVehicle(Enclosure.RIGHT_DOWNSTREAM).getSpeed()-5/3.6<vehicle.getSpeed()) {
+            } else if (getDouble(LMRS.D_RIGHT)>=getDouble(LMRS.D_SYNC) && getDouble(LMRS.D_RIGHT)>getDouble(LMRS.D_LEFT) && vehicle.getVehicle(Enclosure.RIGHT_DOWNSTREAM) !=null && vehicle.getVehicle(Enclosure.RIGHT_DOWNSTREAM).getSpeed()-5/3.6<vehicle.getSpeed()) {
                 // Apply shorter headway for synchronization
-                setT(get(LMRS.D_RIGHT));
-                Double T = updatedTimeHeadwayForLaneChange(get(LMRS.D_RIGHT), get(IDMPlus.T), get(LMRS.T_MIN), get(IDMPlus.T_MAX));
+                setT(getDouble(LMRS.D_RIGHT));
+                double T = updatedTimeHeadwayForLaneChange(getDouble(LMRS.D_RIGHT), getDouble(IDMPlus.T), getDouble(LMRS.T_MIN), getDouble(IDMPlus.T_MAX));
                 lowerAcceleration(safe(IDMPlus.anticipatedAcceleration(vehicle, vehicle.getVehicle(Enclosure.RIGHT_DOWNSTREAM), T)));
                 set(LMRS.RIGHT_SYNC, true);
             }
@@ -400,14 +420,14 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
             if (vehicle.getVehicle(Enclosure.LEFT_DOWNSTREAM) !=null && vehicle.getVehicle(Enclosure.LEFT_DOWNSTREAM).getVehicle(Enclosure.RIGHT_UPSTREAM)==vehicle &&
                     vehicle.getVehicle(Enclosure.LEFT_DOWNSTREAM).isIndicatingRight()) {
                 // Apply shorter headway for gap-creation
-                Double T = updatedTimeHeadwayForLaneChange(vehicle.getVehicle(Enclosure.LEFT_DOWNSTREAM).getDriver().get(LMRS.D_RIGHT), get(IDMPlus.T), get(LMRS.T_MIN), get(IDMPlus.T_MAX));
+                double T = updatedTimeHeadwayForLaneChange(vehicle.getVehicle(Enclosure.LEFT_DOWNSTREAM).getDriver().getDouble(LMRS.D_RIGHT), getDouble(IDMPlus.T), getDouble(LMRS.T_MIN), getDouble(IDMPlus.T_MAX));
                 lowerAcceleration(safe(IDMPlus.anticipatedAcceleration(vehicle, vehicle.getVehicle(Enclosure.LEFT_DOWNSTREAM), T)));
                 set(LMRS.RIGHT_YIELD, true);
             }
             if (vehicle.getVehicle(Enclosure.RIGHT_DOWNSTREAM) !=null && vehicle.getVehicle(Enclosure.RIGHT_DOWNSTREAM).getVehicle(Enclosure.LEFT_UPSTREAM)==vehicle &&
                     vehicle.getVehicle(Enclosure.RIGHT_DOWNSTREAM).isIndicatingLeft()) {
                 // Apply shorter headway for gap-creation
-                Double T = updatedTimeHeadwayForLaneChange(vehicle.getVehicle(Enclosure.RIGHT_DOWNSTREAM).getDriver().get(LMRS.D_LEFT), get(IDMPlus.T), get(LMRS.T_MIN), get(IDMPlus.T_MAX));
+                double T = updatedTimeHeadwayForLaneChange(vehicle.getVehicle(Enclosure.RIGHT_DOWNSTREAM).getDriver().getDouble(LMRS.D_LEFT), getDouble(IDMPlus.T), getDouble(LMRS.T_MIN), getDouble(IDMPlus.T_MAX));
                 lowerAcceleration(safe(IDMPlus.anticipatedAcceleration(vehicle, vehicle.getVehicle(Enclosure.RIGHT_DOWNSTREAM), T)));
                 set(LMRS.LEFT_YIELD, true);
             }
@@ -442,7 +462,7 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
      * @return Limited safe acceleration [m/s^2].
      */
     public double safe(double a) {
-        return a >= -get(LMRS.B_SAFE) ? a : -get(LMRS.B_SAFE);
+        return a >= -getDouble(LMRS.B_SAFE) ? a : -getDouble(LMRS.B_SAFE);
     }
 
     /**
@@ -457,12 +477,12 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
      */
     public void setT(double d) {
         if (d>0 && d<1) {
-            double Tint = d*get(LMRS.T_MIN) + (1-d)*get(IDMPlus.T_MAX);
-            set(IDMPlus.T, Math.min(get(IDMPlus.T), Tint));
+            double Tint = d*getDouble(LMRS.T_MIN) + (1-d)*getDouble(IDMPlus.T_MAX);
+            setDouble(IDMPlus.T, Math.min(getDouble(IDMPlus.T), Tint));
         } else if (d<=0) {
-            set(IDMPlus.T, Math.min(get(IDMPlus.T), get(IDMPlus.T_MAX)));
+            setDouble(IDMPlus.T, Math.min(getDouble(IDMPlus.T), getDouble(IDMPlus.T_MAX)));
         } else {
-            set(IDMPlus.T, Math.min(get(IDMPlus.T), get(LMRS.T_MIN)));
+            setDouble(IDMPlus.T, Math.min(getDouble(IDMPlus.T), getDouble(LMRS.T_MIN)));
         }
     }
 
@@ -561,14 +581,14 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
         double s = 0;
         double v = 0;
         // Loop leaders while within anticipation region
-        while (down!=null && s<=get(LMRS.X0)) {
+        while (down!=null && s<=getDouble(LMRS.X0)) {
             // interpolate from "v(s=x0) = vDes" to "v(s=0) = down.getSpeed()" e.g.
             // with headway = 0 take vehicle fully into account, and with
             // headway > x0 ignore vehicle, in between interpolate linearly
             s = down.getX()+lane.xAdj(down.getLane()) - down.getLength() - x;
             // only consider if new headway is within consideration range and
             // speed is below the desired speed, otherwise there is no influence
-            if (s<=get(LMRS.X0) && down.getSpeed()< IDMPlus.updateDesiredVelocity(this)) {
+            if (s<=getDouble(LMRS.X0) && down.getSpeed()< IDMPlus.updateDesiredVelocity(this)) {
                 // influence of a single vehicle
                 v = anticipateSingle(s, down.getSpeed());
                 // take minimum
@@ -612,7 +632,7 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
      * @return Anticipation speed of a single vehicle [m/s]
      */
     protected double anticipateSingle(double s, double v) {
-        return (1-(s/get(LMRS.X0)))*v + (s/get(LMRS.X0))* IDMPlus.updateDesiredVelocity(this);
+        return (1-(s/getDouble(LMRS.X0)))*v + (s/getDouble(LMRS.X0))* IDMPlus.updateDesiredVelocity(this);
     }
 
     /**
@@ -626,12 +646,12 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
         double s = vehicle.getDistanceToRSU(trafficLight);
         if (trafficLight.isRed()) {
             double acc = IDMPlus.acceleration(this, v, dv, v0, s);
-            if (acc>-get(LMRS.B_RED)) {
+            if (acc>-getDouble(LMRS.B_RED)) {
                 lowerAcceleration(acc);
             }
         } else if (trafficLight.isYellow()) {
             double acc = IDMPlus.acceleration(this, v, dv, v0, s);
-            if (acc>-get(IDMPlus.B)) { // yellow acceptance by -b [m/s2]
+            if (acc>-getDouble(IDMPlus.B)) { // yellow acceptance by -b [m/s2]
                 lowerAcceleration(acc);
             }
         }
@@ -657,7 +677,7 @@ public class IDMPlus_LMRS_Driver extends AbstractDriver {
 
     @Override
     public double getSafeSpeed(double distance, double stoppingDistance, double safeTimeHeadway) {
-        double Tmin = get(IDMPlus.T);
+        double Tmin = getDouble(IDMPlus.T);
         double maxDeceleration = getVehicle().getMaxDeceleration();
         return (distance - stoppingDistance - 0.5 * maxDeceleration * Math.pow(Tmin,2))/Tmin;
     }
@@ -16,6 +16,14 @@ public interface jDriver {
     public <T> T get(Parameter<T> parameter);
     public <T> void set(Parameter<T> parameter, T value);
     public <T> boolean hasParameter(Parameter<T> parameter);
+    /** Primitive variant of {@link #get(Parameter)} for the driving hot path. */
+    public double getDouble(Parameter<Double> parameter);
+    /** Primitive variant of {@link #get(Parameter)} for the driving hot path. */
+    public int getInt(Parameter<Integer> parameter);
+    /** Primitive variant of {@link #get(Parameter)} for the driving hot path. */
+    public boolean getBoolean(Parameter<Boolean> parameter);
+    /** Primitive variant of {@link #set(Parameter, Object)} for the driving hot path. */
+    public void setDouble(Parameter<Double> parameter, double value);
     public void drive();
     public jRoute getRoute();
     public void setRoute(jRoute route);
@@ -71,6 +79,21 @@ public interface jDriver {
         public jDriver build();
     }
 
+    /**
+     * Builder that can initialize a driver it built before again, such that drivers of
+     * deleted vehicles can be reused (see {@link microModel.core.vehicle.jClass}). Builders
+     * of drivers that cannot be reused, e.g. as they are registered elsewhere, should only
+     * implement {@link Builder}.
+     */
+    public interface ReusableBuilder extends Builder {
+        /**
+         * Resets a driver and initializes it as if it were returned by {@link #build()}.
+         * @param driver Driver previously returned by {@link #build()} of this builder.
+         * @return The given driver.
+         */
+        public jDriver rebuild(jDriver driver);
+    }
+
 
 
 }
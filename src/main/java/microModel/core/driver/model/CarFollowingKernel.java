@@ -0,0 +1,355 @@
+package microModel.core.driver.model;
+
+import microModel.core.driver.IDMPlus_LMRS_Driver;
+import microModel.core.driver.jDriver;
+import microModel.core.vehicle.Enclosure;
+import microModel.core.vehicle.jVehicle;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Car-following state of a set of vehicles, stored as a structure of arrays.
+ * </p><p>
+ * This is an optional alternative to driving and moving {@link microModel.core.vehicle.Vehicle}
+ * objects, meant for large runs that only involve longitudinal behaviour. Position, speed,
+ * acceleration, length, leader index and the IDM parameters of all vehicles are kept in
+ * contiguous arrays. {@link #accelerateIDM()}, {@link #accelerateIDMPlus()} and
+ * {@link #move(double)} are plain loops over these arrays. The acceleration functions are
+ * the same as those of {@link IDM} and {@link IDMPlus}, and the kinematic update is that
+ * of {@link microModel.core.vehicle.Vehicle#move(double)}.
+ * </p><p>
+ * Positions are measured along the lane of each vehicle. The gap to the leader is
+ * <tt>x[leader] + offset[i] - x[i] - length[leader]</tt>, where the offset is 0 if the
+ * leader is on the same lane, or e.g. the length of the lane of the vehicle if the leader
+ * is on the next lane. Vehicles without leader (index -1) drive on a free road. Individual
+ * vehicles can be accessed through a {@link View}.
+ * </p><p>
+ * If {@link microModel.settings.BuiltInSettings#CAR_FOLLOWING_KERNEL} is set, the model
+ * uses {@link #drive(List)} instead of the drivers of {@link IDMPlus_LMRS_Driver} vehicles.
+ * </p>
+ */
+public final class CarFollowingKernel {
+
+    /** Index of the leader of vehicles without leader. */
+    public static final int NO_LEADER = -1;
+
+    /** Number of vehicles. */
+    private int n;
+
+    private double[] x;
+    private double[] v;
+    private double[] a;
+    private double[] length;
+    private int[] leader;
+    /** Offset [m] of the position of the leader on the lane of the vehicle. */
+    private double[] offset;
+
+    private double[] v0;
+    private double[] s0;
+    private double[] t;
+    private double[] aMax;
+    private double[] b;
+    /** Square root of maximum acceleration times deceleration. */
+    private double[] sqrtAB;
+    private int[] delta;
+    /** Maximum deceleration, as a negative value. */
+    private double[] maxDeceleration;
+
+    /** Index of each vehicle added by {@link #drive(List)}. */
+    private final Map<jVehicle, Integer> indices = new IdentityHashMap<jVehicle, Integer>();
+
+    /**
+     * Constructor with an initial capacity, the kernel grows as needed.
+     * @param capacity Initial number of vehicles that can be stored.
+     */
+    public CarFollowingKernel(int capacity) {
+        capacity = Math.max(capacity, 1);
+        x = new double[capacity];
+        v = new double[capacity];
+        a = new double[capacity];
+        length = new double[capacity];
+        leader = new int[capacity];
+        offset = new double[capacity];
+        v0 = new double[capacity];
+        s0 = new double[capacity];
+        t = new double[capacity];
+        aMax = new double[capacity];
+        b = new double[capacity];
+        sqrtAB = new double[capacity];
+        delta = new int[capacity];
+        maxDeceleration = new double[capacity];
+    }
+
+    /**
+     * Adds a vehicle without leader.
+     * @param x Position [m].
+     * @param v Speed [m/s].
+     * @param length Vehicle length [m].
+     * @param v0 Desired speed [m/s].
+     * @param s0 Stopping distance [m].
+     * @param t Safe time headway [s].
+     * @param a Maximum acceleration [m/s^2].
+     * @param b Deceleration [m/s^2].
+     * @param delta Acceleration exponent.
+     * @param maxDeceleration Maximum deceleration [m/s^2], negative.
+     * @return Index of the vehicle.
+     */
+    public int add(double x, double v, double length, double v0, double s0, double t,
+                   double a, double b, int delta, double maxDeceleration) {
+        if (n == this.x.length) {
+            grow(2 * n);
+        }
+        int i = n++;
+        this.x[i] = x;
+        this.v[i] = v;
+        this.a[i] = 0;
+        this.length[i] = length;
+        this.leader[i] = NO_LEADER;
+        this.offset[i] = 0;
+        this.v0[i] = v0;
+        this.s0[i] = s0;
+        this.t[i] = t;
+        this.aMax[i] = a;
+        this.b[i] = b;
+        this.sqrtAB[i] = Math.sqrt(a * b);
+        this.delta[i] = delta;
+        this.maxDeceleration[i] = maxDeceleration;
+        return i;
+    }
+
+    /**
+     * Adds a vehicle with the current state of a vehicle object and the IDM+ parameters
+     * of its driver. As in {@link IDMPlus#acceleration(jDriver, jVehicle)}, the desired
+     * speed of the driver is updated for the current lane.
+     * @param vehicle Vehicle to copy.
+     * @param x Position of the vehicle along the axis of this kernel [m].
+     * @return Index of the vehicle.
+     */
+    public int add(jVehicle vehicle, double x) {
+        jDriver driver = vehicle.getDriver();
+        return add(x, vehicle.getSpeed(), vehicle.getLength(), IDMPlus.updateDesiredVelocity(driver),
+                driver.getDouble(IDMPlus.S0), driver.getDouble(IDMPlus.T), driver.getDouble(IDMPlus.A),
+                driver.getDouble(IDMPlus.B), driver.getInt(IDMPlus.DELTA), vehicle.getMaxDeceleration());
+    }
+
+    /**
+     * Sets the leader of a vehicle on the same lane.
+     * @param i Index of the follower.
+     * @param leader Index of the leader, or {@link #NO_LEADER}.
+     */
+    public void setLeader(int i, int leader) {
+        setLeader(i, leader, 0);
+    }
+
+    /**
+     * Sets the leader of a vehicle.
+     * @param i Index of the follower.
+     * @param leader Index of the leader, or {@link #NO_LEADER}.
+     * @param offset Offset [m] of the position of the leader on the lane of the follower.
+     */
+    public void setLeader(int i, int leader, double offset) {
+        check(i);
+        if (leader != NO_LEADER) {
+            check(leader);
+        }
+        this.leader[i] = leader;
+        this.offset[i] = offset;
+    }
+
+    /**
+     * Sets the acceleration of vehicles with an {@link IDMPlus_LMRS_Driver} according to
+     * the IDM+, following the leader they sensed. Lane changes are not considered. Other
+     * vehicles are driven by their own driver. The kernel is cleared and holds the vehicles
+     * afterwards.
+     * @param vehicles Vehicles, which have sensed their surroundings in this time step.
+     */
+    public void drive(List<? extends jVehicle> vehicles) {
+        clear();
+        indices.clear();
+        for (jVehicle vehicle : vehicles) {
+            if (vehicle.getDriver() instanceof IDMPlus_LMRS_Driver) {
+                indices.put(vehicle, add(vehicle, vehicle.getX()));
+            }
+        }
+        for (Map.Entry<jVehicle, Integer> entry : indices.entrySet()) {
+            jVehicle vehicle = entry.getKey();
+            jVehicle ahead = vehicle.getVehicle(Enclosure.DOWNSTREAM);
+            Integer l = ahead == null ? null : indices.get(ahead);
+            if (l != null) {
+                // the gap as the object model determines it, also across lanes
+                double d = vehicle.getLane() == ahead.getLane() ? 0 :
+                        vehicle.getGap(ahead) + ahead.getLength() - ahead.getX() + vehicle.getX();
+                setLeader(entry.getValue(), l, d);
+            }
+        }
+        accelerateIDMPlus();
+        int i = 0;
+        for (jVehicle vehicle : vehicles) {
+            if (vehicle.getDriver() instanceof IDMPlus_LMRS_Driver) {
+                jVehicle ahead = vehicle.getVehicle(Enclosure.DOWNSTREAM);
+                // leaders that are not in the kernel are followed through the object model
+                vehicle.setAcceleration(ahead != null && leader[i] == NO_LEADER ?
+                        IDMPlus.acceleration(vehicle, ahead) : a[i]);
+                i++;
+            } else {
+                vehicle.getDriver().drive();
+            }
+        }
+    }
+
+    /**
+     * Removes all vehicles, keeping the capacity.
+     */
+    public void clear() {
+        n = 0;
+    }
+
+    /**
+     * @return Number of vehicles.
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Sets the acceleration of all vehicles according to the IDM.
+     */
+    public void accelerateIDM() {
+        for (int i = 0; i < n; i++) {
+            int l = leader[i];
+            double vi = v[i];
+            double s = l == NO_LEADER ? Double.POSITIVE_INFINITY : x[l] + offset[i] - x[i] - length[l];
+            double dv = l == NO_LEADER ? 0 : vi - v[l];
+            double acc = IDM.acceleration(s0[i], v0[i], vi, delta[i], t[i], dv, s, aMax[i], b[i]);
+            a[i] = Math.max(acc, maxDeceleration[i]);
+        }
+    }
+
+    /**
+     * Sets the acceleration of all vehicles according to the IDM+.
+     */
+    public void accelerateIDMPlus() {
+        for (int i = 0; i < n; i++) {
+            int l = leader[i];
+            double vi = v[i];
+            double s = l == NO_LEADER ? Double.POSITIVE_INFINITY : x[l] + offset[i] - x[i] - length[l];
+            double dv = l == NO_LEADER ? 0 : vi - v[l];
+            double acc = IDMPlus.plusAcceleration(aMax[i], sqrtAB[i], s0[i], t[i], delta[i], vi, dv, v0[i], s);
+            a[i] = Math.max(acc, maxDeceleration[i]);
+        }
+    }
+
+    /**
+     * Moves all vehicles with their current acceleration. Speeds and displacements
+     * are not negative.
+     * @param dt Time step [s].
+     */
+    public void move(double dt) {
+        for (int i = 0; i < n; i++) {
+            double dx = dt * v[i] + .5 * a[i] * dt * dt;
+            x[i] += dx >= 0 ? dx : 0;
+            double vi = v[i] + dt * a[i];
+            v[i] = vi >= 0 ? vi : 0;
+        }
+    }
+
+    /**
+     * Returns a view on a single vehicle of this kernel.
+     * @param i Index of the vehicle.
+     * @return View on the vehicle.
+     */
+    public View view(int i) {
+        check(i);
+        return new View(i);
+    }
+
+    private void check(int i) {
+        if (i < 0 || i >= n) {
+            throw new IndexOutOfBoundsException("Kernel has " + n + " vehicles, requested " + i);
+        }
+    }
+
+    private void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        v = Arrays.copyOf(v, capacity);
+        a = Arrays.copyOf(a, capacity);
+        length = Arrays.copyOf(length, capacity);
+        leader = Arrays.copyOf(leader, capacity);
+        offset = Arrays.copyOf(offset, capacity);
+        v0 = Arrays.copyOf(v0, capacity);
+        s0 = Arrays.copyOf(s0, capacity);
+        t = Arrays.copyOf(t, capacity);
+        aMax = Arrays.copyOf(aMax, capacity);
+        b = Arrays.copyOf(b, capacity);
+        sqrtAB = Arrays.copyOf(sqrtAB, capacity);
+        delta = Arrays.copyOf(delta, capacity);
+        maxDeceleration = Arrays.copyOf(maxDeceleration, capacity);
+    }
+
+    /**
+     * Object view on a vehicle of the kernel. The view reads and writes the arrays of
+     * the kernel directly.
+     */
+    public final class View {
+        private final int i;
+
+        private View(int i) {
+            this.i = i;
+        }
+
+        public int getIndex() {
+            return i;
+        }
+
+        public double getX() {
+            return x[i];
+        }
+
+        public void setX(double x) {
+            CarFollowingKernel.this.x[i] = x;
+        }
+
+        public double getSpeed() {
+            return v[i];
+        }
+
+        public void setSpeed(double v) {
+            CarFollowingKernel.this.v[i] = v;
+        }
+
+        public double getAcceleration() {
+            return a[i];
+        }
+
+        public double getLength() {
+            return length[i];
+        }
+
+        public double getDesiredSpeed() {
+            return v0[i];
+        }
+
+        public void setDesiredSpeed(double v0) {
+            CarFollowingKernel.this.v0[i] = v0;
+        }
+
+        /**
+         * @return View on the leader, <tt>null</tt> if there is no leader.
+         */
+        public View getLeader() {
+            return leader[i] == NO_LEADER ? null : new View(leader[i]);
+        }
+
+        /**
+         * @return Net headway to the leader [m], infinite if there is no leader.
+         */
+        public double getGap() {
+            int l = leader[i];
+            return l == NO_LEADER ? Double.POSITIVE_INFINITY : x[l] + offset[i] - x[i] - length[l];
+        }
+    }
+}
@@ -30,7 +30,7 @@ public class IDM {
     public static double desiredVelocity(jDriver driver) {
         return desiredVelocity(driver.getVehicle().getMaxSpeed(),
                                driver.getVehicle().getLane().getVLimInMetersPerSecond(),
-                               driver.get(IDM.F_SPEED));
+                               driver.getDouble(IDM.F_SPEED));
     }
 
     /**
@@ -41,9 +41,9 @@ public class IDM {
     public static double updateDesiredVelocity(jDriver driver) {
         double vMax = driver.getVehicle().getMaxSpeed();
         double laneSpeedLimit = driver.getVehicle().getLane().getVLimInMetersPerSecond();
-        double desiredVelocity = desiredVelocity(vMax, laneSpeedLimit, driver.get(IDMPlus.F_SPEED));
-        driver.set(IDM.V0, desiredVelocity);
-        return driver.get(IDM.V0);
+        double desiredVelocity = desiredVelocity(vMax, laneSpeedLimit, driver.getDouble(IDMPlus.F_SPEED));
+        driver.setDouble(IDM.V0, desiredVelocity);
+        return driver.getDouble(IDM.V0);
     }
 
     /**
@@ -54,21 +54,21 @@ public class IDM {
      */
     public static double desiredEquilibriumHeadway(jDriver driver) {
         return desiredEquilibirumHeadway(driver.getVehicle().getSpeed(),
-                driver.get(IDM.S0),
-                driver.get(T));
+                driver.getDouble(IDM.S0),
+                driver.getDouble(T));
     }
 
     public static double acceleration(jDriver driver, double distanceToBlockingObject, double blockingObjectSpeed) {
         // calculate acceleration
-        return acceleration(driver.get(IDM.S0),
+        return acceleration(driver.getDouble(IDM.S0),
                             updateDesiredVelocity(driver),
                             driver.getVehicle().getSpeed(),
-                            driver.get(IDM.DELTA),
-                            driver.get(IDM.T),
+                            driver.getInt(IDM.DELTA),
+                            driver.getDouble(IDM.T),
                             driver.getVehicle().getSpeed() - blockingObjectSpeed,
                             distanceToBlockingObject,
-                            driver.get(IDM.A),
-                            driver.get(IDM.B));
+                            driver.getDouble(IDM.A),
+                            driver.getDouble(IDM.B));
     }
 
     public static double desiredEquilibirumHeadway(double v, double s0, double t) {
@@ -95,13 +95,34 @@ public final class IDMPlus {
      * @return Acceleration towards object.
      */
     public static double acceleration(jDriver driver, double v, double dv, double v0, double s) {
-        double ss = desiredEquilibriumHeadway(driver)+(v*dv)/(2*Math.sqrt(driver.get(IDMPlus.A)*driver.get(IDMPlus.B))); // dynamic desired gap
+        double a = driver.getDouble(IDMPlus.A);
+        return plusAcceleration(a, Math.sqrt(a * driver.getDouble(IDMPlus.B)), driver.getDouble(IDMPlus.S0),
+                driver.getDouble(IDMPlus.T), driver.getInt(IDMPlus.DELTA), v, dv, v0, s);
+    }
+
+    /**
+     * Calculates the IDM+ acceleration towards an object from primitive inputs only.
+     * This is shared with {@link CarFollowingKernel}.
+     * @param a Maximum acceleration [m/s^2].
+     * @param sqrtAB Square root of the maximum acceleration times the deceleration.
+     * @param s0 Stopping distance [m].
+     * @param t Safe time headway [s].
+     * @param delta Acceleration exponent.
+     * @param v Own velocity.
+     * @param dv Velocity difference with object.
+     * @param v0 Desired velocity.
+     * @param s Distance to object.
+     * @return Acceleration towards object.
+     */
+    static double plusAcceleration(double a, double sqrtAB, double s0, double t, int delta,
+                                   double v, double dv, double v0, double s) {
+        double ss = s0 + v*t + (v*dv)/(2*sqrtAB); // dynamic desired gap
     /* Because of the power of 2, the IDMPlus inteprets a negative sign of
      * either s and ss as positive. In all cases this makes no sense.
      */
         ss = Math.max(ss, 0);
         s = Math.max(s, 1e-99); // no division by zero
-        return driver.get(IDMPlus.A)*Math.min(1-Math.pow((v/v0),driver.get(IDMPlus.DELTA)), 1-Math.pow((ss/s),2));
+        return a*Math.min(1-Math.pow((v/v0),delta), 1-Math.pow((ss/s),2));
     }
 
     /**
@@ -112,8 +133,8 @@ public final class IDMPlus {
      */
     public static double desiredEquilibriumHeadway(jDriver driver) {
         return desiredEquilibirumHeadway(driver.getVehicle().getSpeed(),
-                                         driver.get(IDMPlus.S0),
-                                         driver.get(T));
+                                         driver.getDouble(IDMPlus.S0),
+                                         driver.getDouble(T));
     }
 
 
@@ -124,14 +145,14 @@ public final class IDMPlus {
      */
     public static double updateDesiredVelocity(jDriver driver) {
         double desiredVelocity = desiredVelocity(driver);
-        driver.set(IDMPlus.V0, desiredVelocity);
-        return driver.get(IDMPlus.V0);
+        driver.setDouble(IDMPlus.V0, desiredVelocity);
+        return driver.getDouble(IDMPlus.V0);
     }
 
     public static double desiredVelocity(jDriver driver) {
         double vMax = driver.getVehicle().getMaxSpeed();
         double laneSpeedLimit = driver.getVehicle().getLane().getVLimInMetersPerSecond();
-        return desiredVelocity(vMax, laneSpeedLimit, driver.get(IDMPlus.F_SPEED));
+        return desiredVelocity(vMax, laneSpeedLimit, driver.getDouble(IDMPlus.F_SPEED));
     }
     public static double desiredVelocity(double maxSpeed, double speedLimit, double speedLimitAdeherenceFactor) {
         return Math.min(maxSpeed, speedLimitAdeherenceFactor * speedLimit);
@@ -155,14 +176,14 @@ public final class IDMPlus {
 
 
     public static double anticipatedAcceleration(jVehicle follower, jVehicle leader, double t) {
-        double s0 = follower.getDriver().get(IDMPlus.S0);
+        double s0 = follower.getDriver().getDouble(IDMPlus.S0);
         double v0 = desiredVelocity(follower.getDriver());
         double v = follower.getSpeed();
-        Integer delta = follower.getDriver().get(IDMPlus.DELTA);
+        int delta = follower.getDriver().getInt(IDMPlus.DELTA);
         double deltaV = follower.getSpeed() - leader.getSpeed();
         double s = follower.getGap(leader);
-        Double a = follower.getDriver().get(IDMPlus.A);
-        Double b = follower.getDriver().get(IDMPlus.B);
+        double a = follower.getDriver().getDouble(IDMPlus.A);
+        double b = follower.getDriver().getDouble(IDMPlus.B);
         return acceleration(s0, v0, v, delta, t, deltaV, s, a, b);
     }
 }
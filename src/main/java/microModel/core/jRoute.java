@@ -1,32 +1,114 @@
 package microModel.core;
 
+import microModel.core.road.RoutingTable;
 import microModel.core.road.jLane;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
+ * <p>
  * Simple representation of a route. The route is represented as an array of
  * destinations that should match <tt>jLane.destination</tt> attributes.
+ * </p><p>
+ * Routes are immutable and interned, see {@link #of(int...)}. A route and all of
+ * its sub-routes share a single destination array; a sub-route is the same array
+ * with a later start index. All sub-routes are created together with the route, so
+ * advancing along a route ({@link #subRouteAfter(int)}) is a table lookup that does
+ * not allocate.
+ * </p><p>
+ * Per lane of the network, each route stores which of its destinations is the first
+ * that can be reached from that lane. This is computed once per {@link RoutingTable},
+ * after which the route queries of drivers are array reads.
+ * </p>
  */
-public class jRoute {
-    
-    /** Array of destinations. */
-    protected int[] destinations;
-    
+public final class jRoute {
+
+    /** Interned routes by destinations. */
+    private static final Map<Key, jRoute> ROUTES = new HashMap<Key, jRoute>();
+
+    /** Destinations of the full route, shared by all sub-routes. */
+    private final int[] destinations;
+
+    /** Index of the first destination of this (sub-)route. */
+    private final int start;
+
+    /** Sub-routes of the full route, by start index. */
+    private final jRoute[] subRoutes;
+
+    /** Start index of the sub-route after a destination, by destination number. -1 if not on the route. */
+    private final int[] after;
+
+    /** First reachable destination per lane, for the last routing table used. */
+    private volatile Reach reach;
+
+    private jRoute(int[] destinations, int start, jRoute[] subRoutes) {
+        this.destinations = destinations;
+        this.start = start;
+        this.subRoutes = subRoutes;
+        int max = 0;
+        for (int destination : destinations) {
+            max = Math.max(max, destination);
+        }
+        after = new int[max + 1];
+        Arrays.fill(after, -1);
+        for (int j = start; j < destinations.length; j++) {
+            if (destinations[j] >= 0) {
+                after[destinations[j]] = j + 1; // +1 for 'after', the last occurrence counts
+            }
+        }
+    }
+
     /**
-     * Default constructor.
-     * @param destinations Ordered (intermediate) destinations of this route.
+     * Returns the route with the given destinations. Equal routes are the same object.
+     * @param destinations Ordered (intermediate) destinations of the route.
+     * @return The route.
      */
-    public jRoute(int[] destinations) {
-        this.destinations = destinations;
+    public static jRoute of(int... destinations) {
+        Key key = new Key(destinations.clone());
+        synchronized (ROUTES) {
+            jRoute route = ROUTES.get(key);
+            if (route == null) {
+                int[] shared = key.destinations;
+                jRoute[] subRoutes = new jRoute[shared.length + 1];
+                for (int i = 0; i <= shared.length; i++) {
+                    subRoutes[i] = new jRoute(shared, i, subRoutes);
+                }
+                route = subRoutes[0];
+                ROUTES.put(key, route);
+            }
+            return route;
+        }
     }
-    
+
     /**
-     * Returns the array of destinations.
+     * Returns a copy of the array of destinations.
      * @return Destination array.
      */
     public int[] destinations() {
-        return destinations;
+        return Arrays.copyOfRange(destinations, start, destinations.length);
+    }
+
+    /**
+     * Returns a destination of the route.
+     * @param index Index of the destination, 0 for the next destination.
+     * @return Destination number.
+     */
+    public int destination(int index) {
+        if (index < 0 || start + index >= destinations.length) {
+            throw new IndexOutOfBoundsException("Route has " + size() + " destinations, requested " + index);
+        }
+        return destinations[start + index];
     }
-    
+
+    /**
+     * @return Number of destinations of the route.
+     */
+    public int size() {
+        return destinations.length - start;
+    }
+
     /**
      * Returns the sub-route after an intermediate destination has been passed.
      * If the intermediate destination is not part of the route, the full route
@@ -35,36 +117,21 @@ public class jRoute {
      * @return Sub-route after the passed destination.
      */
     public jRoute subRouteAfter(int destination) {
-        int i = 0;
-        for (int j=0; j<destinations.length; j++) {
-            if (destinations[j]==destination) {
-                i = j+1; // +1 for 'after'
-            }
-        }
-        int[] newRoute = new int[destinations.length-i];
-        for (int j=i; j<destinations.length; j++) {
-            newRoute[j-i] = destinations[j];
+        if (destination < 0 || destination >= after.length || after[destination] < 0) {
+            return this;
         }
-        return new jRoute(newRoute);
+        return subRoutes[after[destination]];
     }
-    
+
     /**
      * Returns whether this route can be followed from the given lane.
      * @param lane LaneType of which needs to be known if the route can be followed.
      * @return Whether this route can be followed from the given lane.
      */
     public boolean canBeFollowedFrom(jLane lane) {
-        if (lane==null) {
-            return false;
-        }
-        for (int i=0; i<destinations.length; i++) {
-            if (lane.leadsTo(destinations[i])) {
-                return true;
-            }
-        }
-        return false;
+        return lane != null && target(lane) >= 0;
     }
-    
+
     /**
      * Returns the number of lane changes that need to be performed to follow
      * this route from the given lane.
@@ -72,14 +139,10 @@ public class jRoute {
      * @return Number of lane changes that needs to be performed for this route.
      */
     public int nLaneChanges(jLane lane) {
-        for (int i=0; i<destinations.length; i++) {
-            if (lane.leadsTo(destinations[i])) {
-                return lane.nLaneChanges(destinations[i]);
-            }
-        }
-        return 0;
+        int d = target(lane);
+        return d < 0 ? 0 : lane.getRouting().laneChanges(lane.ordinal(), d);
     }
-    
+
     /**
      * Returns the distance within which a number of lane changes has to be
      * performed to follow this route from the given lane.
@@ -87,11 +150,72 @@ public class jRoute {
      * @return Distance [m] within which a number of lane changes has to be performed.
      */
     public double xLaneChanges(jLane lane) {
-        for (int i=0; i<destinations.length; i++) {
-            if (lane.leadsTo(destinations[i])) {
-                return lane.xLaneChanges(destinations[i]);
+        int d = target(lane);
+        return d < 0 ? 0 : lane.getRouting().endpoint(lane.ordinal(), d);
+    }
+
+    /**
+     * @return Destination ordinal of the first destination of this route that can be
+     * reached from the lane, -1 if none.
+     */
+    private int target(jLane lane) {
+        RoutingTable routing = lane.getRouting();
+        if (routing == null) {
+            return -1;
+        }
+        Reach r = reach;
+        if (r == null || r.routing != routing) {
+            r = new Reach(routing);
+            reach = r;
+        }
+        return r.target[lane.ordinal()];
+    }
+
+    /**
+     * First reachable destination of the route for each lane of a network.
+     */
+    private final class Reach {
+        private final RoutingTable routing;
+        private final int[] target;
+
+        private Reach(RoutingTable routing) {
+            this.routing = routing;
+            target = new int[routing.laneCount()];
+            Arrays.fill(target, -1);
+            for (int lane = 0; lane < target.length; lane++) {
+                for (int j = start; j < destinations.length && target[lane] < 0; j++) {
+                    int d = routing.destinationOrdinal(destinations[j]);
+                    if (d >= 0 && routing.laneChanges(lane, d) >= 0) {
+                        target[lane] = d;
+                    }
+                }
             }
         }
-        return 0;
     }
-}
\ No newline at end of file
+
+    @Override
+    public String toString() {
+        return "jRoute" + Arrays.toString(destinations());
+    }
+
+    /**
+     * Key for interning routes by their destinations.
+     */
+    private static final class Key {
+        private final int[] destinations;
+
+        private Key(int[] destinations) {
+            this.destinations = destinations;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && Arrays.equals(destinations, ((Key) o).destinations);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(destinations);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package microModel.core.road;
+
+import microModel.core.road.device.AbstractRSU;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Index of the noticeable RSUs on a chain of downstream connected lanes. The positions of
+ * the RSUs, measured from the start of the chain, are stored in a sorted array, such that
+ * the next noticeable RSU downstream of a position is found with a binary search, no
+ * matter how many RSUs the lanes have.
+ * </p><p>
+ * Lanes are added to the chain when the index is created and do not change. The RSU
+ * positions are collected again after the RSUs of one of the lanes change, see
+ * {@link #invalidate()}.
+ * </p>
+ */
+final class RSUIndex {
+
+    /** Lanes of the chain, from upstream to downstream. */
+    private final jLane[] lanes;
+
+    /** Position [m] of the start of each lane in the chain. */
+    private final double[] offsets;
+
+    /** Length [m] of the chain. */
+    private final double length;
+
+    /** Sorted positions [m] of the noticeable RSUs in the chain. */
+    private double[] positions;
+
+    /** Noticeable RSUs in the order of {@link #positions}. */
+    private AbstractRSU[] rsus;
+
+    /** Whether the RSU positions need to be collected. */
+    private boolean stale = true;
+
+    private RSUIndex(jLane[] lanes) {
+        this.lanes = lanes;
+        offsets = new double[lanes.length];
+        double l = 0;
+        for (int i = 0; i < lanes.length; i++) {
+            offsets[i] = l;
+            l += lanes[i].getL();
+        }
+        length = l;
+    }
+
+    /**
+     * Creates an index for the chain that starts at the given lane. The chain follows the
+     * downstream lanes up to a lane that is already part of an index.
+     * @param start First lane of the chain, without index.
+     */
+    static void create(jLane start) {
+        List<jLane> chain = new ArrayList<jLane>();
+        jLane lane = start;
+        while (lane != null && lane.rsuIndex == null && !chain.contains(lane)) {
+            chain.add(lane);
+            lane = lane.getDown();
+        }
+        RSUIndex index = new RSUIndex(chain.toArray(new jLane[chain.size()]));
+        for (int i = 0; i < index.lanes.length; i++) {
+            index.lanes[i].rsuIndex = index;
+            index.lanes[i].rsuOffset = index.offsets[i];
+        }
+    }
+
+    /**
+     * Marks the RSU positions to be collected on the next query.
+     */
+    void invalidate() {
+        stale = true;
+    }
+
+    private void collect() {
+        List<AbstractRSU> list = new ArrayList<AbstractRSU>();
+        List<Double> pos = new ArrayList<Double>();
+        for (int i = 0; i < lanes.length; i++) {
+            // RSUs of a lane are ordered by position, so the chain is too
+            for (AbstractRSU rsu : lanes[i].getRSUs()) {
+                if (rsu.noticeable) {
+                    list.add(rsu);
+                    pos.add(offsets[i] + rsu.getX(lanes[i]));
+                }
+            }
+        }
+        rsus = list.toArray(new AbstractRSU[list.size()]);
+        positions = new double[pos.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = pos.get(i);
+        }
+        stale = false;
+    }
+
+    /**
+     * Finds the first noticeable RSU downstream of a location within a certain range.
+     * The search continues in the index of the lane downstream of the chain.
+     * @param x Location [m] from the start of the chain.
+     * @param range Range [m] of the search.
+     * @return First noticeable RSU, <tt>null</tt> if none within range.
+     */
+    AbstractRSU find(double x, double range) {
+        RSUIndex index = this;
+        // at the start of a downstream chain, RSUs at the location itself are included
+        boolean inclusive = false;
+        while (true) {
+            if (index.stale) {
+                index.collect();
+            }
+            // first position beyond x
+            double[] p = index.positions;
+            int lo = 0;
+            int hi = p.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (p[mid] < x || (p[mid] == x && !inclusive)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            if (lo < p.length) {
+                return p[lo] - x <= range ? index.rsus[lo] : null;
+            }
+            // continue at the downstream lane, which starts another chain or this chain again
+            double remaining = index.length - x;
+            jLane next = index.lanes[index.lanes.length - 1].getDown();
+            if (next == null || remaining > range || !(index.length > 0)) {
+                return null;
+            }
+            if (next.rsuIndex == null) {
+                create(next);
+            }
+            range -= remaining;
+            x = next.rsuOffset;
+            index = next.rsuIndex;
+            inclusive = true;
+        }
+    }
+}
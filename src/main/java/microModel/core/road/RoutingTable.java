@@ -0,0 +1,317 @@
+package microModel.core.road;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Network-wide lane change information: for each lane and each destination, the
+ * number of lane changes needed to reach the destination and the distance [m] within
+ * which they have to be performed.
+ * </p><p>
+ * Lanes and destinations are numbered with dense ordinals. Lane <tt>i</tt> of the
+ * network given at construction has ordinal <tt>i</tt>, destinations are numbered in
+ * order of their first occurrence. Both tables are stored row-major in a single primitive
+ * array, so every query is a single array read. A lane that does not lead to a
+ * destination has <tt>-1</tt> lane changes towards it.
+ * </p><p>
+ * The tables are filled with one upstream walk per destination, starting at the lanes
+ * of that destination. Lanes are linked to the table on construction, after which
+ * {@link jLane#leadsTo(int)}, {@link jLane#nLaneChanges(int)} and
+ * {@link jLane#xLaneChanges(int)} read from it.
+ * </p>
+ */
+public final class RoutingTable {
+
+    private final jLane[] lanes;
+
+    /** Destination number per destination ordinal. */
+    private final int[] destinations;
+
+    /** Destination ordinal per destination number, -1 for unknown destinations. */
+    private final int[] destinationOrdinals;
+
+    /** Number of lane changes per lane and destination ordinal, -1 if the destination can not be reached. */
+    private final int[] laneChanges;
+
+    /** Distance [m] in which the lane changes have to be performed, per lane and destination ordinal. */
+    private final double[] endpoints;
+
+    private RoutingTable(jLane[] lanes, int[] destinations, int[] laneChanges, double[] endpoints) {
+        if (laneChanges.length != lanes.length * destinations.length || endpoints.length != laneChanges.length) {
+            throw new IllegalArgumentException("Routing table size does not match " + lanes.length + " lanes and "
+                    + destinations.length + " destinations.");
+        }
+        this.lanes = lanes;
+        this.destinations = destinations;
+        this.laneChanges = laneChanges;
+        this.endpoints = endpoints;
+
+        int max = 0;
+        for (int destination : destinations) {
+            max = Math.max(max, destination);
+        }
+        destinationOrdinals = new int[max + 1];
+        Arrays.fill(destinationOrdinals, -1);
+        for (int d = 0; d < destinations.length; d++) {
+            destinationOrdinals[destinations[d]] = d;
+        }
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i].setRouting(this, i);
+        }
+    }
+
+    /**
+     * Returns the routing table of the network, computing it if the lanes are not (all)
+     * linked to a single table in the given order yet.
+     *
+     * @param lanes the lanes of the network.
+     * @return the routing table of the network.
+     */
+    public static RoutingTable forNetwork(jLane[] lanes) {
+        RoutingTable routing = lanes.length > 0 ? lanes[0].getRouting() : null;
+        if (routing != null && routing.lanes.length == lanes.length) {
+            boolean covers = true;
+            for (int i = 0; i < lanes.length && covers; i++) {
+                covers = routing.lanes[i] == lanes[i] && lanes[i].getRouting() == routing;
+            }
+            if (covers) {
+                return routing;
+            }
+        }
+        return build(lanes);
+    }
+
+    /**
+     * Creates a routing table from precomputed tables, e.g. of a compiled network, and links
+     * the lanes to it.
+     *
+     * @param lanes        the lanes of the network, in ordinal order.
+     * @param destinations destination number per destination ordinal.
+     * @param laneChanges  number of lane changes, <tt>laneChanges[lane * destinations.length + destination]</tt>.
+     * @param endpoints    distance [m] of the lane changes, indexed as <tt>laneChanges</tt>.
+     * @return the routing table.
+     */
+    public static RoutingTable build(jLane[] lanes, int[] destinations, int[] laneChanges, double[] endpoints) {
+        return new RoutingTable(lanes, destinations, laneChanges, endpoints);
+    }
+
+    /**
+     * Computes the routing table of a network and links the lanes to it.
+     *
+     * @param lanes the connected lanes of the network.
+     * @return the routing table.
+     */
+    public static RoutingTable build(jLane[] lanes) {
+        lanes = lanes.clone();
+        int n = lanes.length;
+        for (int i = 0; i < n; i++) {
+            lanes[i].setRouting(null, i);
+        }
+
+        // number the destinations
+        int[] destinations = new int[4];
+        int count = 0;
+        for (jLane lane : lanes) {
+            int destination = lane.getDestination();
+            if (destination > 0 && indexOf(destinations, count, destination) < 0) {
+                if (count == destinations.length) {
+                    destinations = Arrays.copyOf(destinations, count * 2);
+                }
+                destinations[count++] = destination;
+            }
+        }
+        destinations = Arrays.copyOf(destinations, count);
+
+        int[] laneChanges = new int[n * count];
+        double[] endpoints = new double[n * count];
+        Arrays.fill(laneChanges, -1);
+        Walk walk = new Walk(lanes, count, laneChanges, endpoints);
+        for (int i = 0; i < n; i++) {
+            int destination = lanes[i].getDestination();
+            if (destination > 0) {
+                int d = indexOf(destinations, count, destination);
+                if (laneChanges[i * count + d] < 0) {
+                    walk.from(i, d);
+                }
+            }
+        }
+        return new RoutingTable(lanes, destinations, laneChanges, endpoints);
+    }
+
+    private static int indexOf(int[] values, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Upstream walk over the lane graph towards one destination. Starting with the lanes
+     * of the destination in a cross section, lanes to the left and right are added with one
+     * more lane change each, after which the lanes directly upstream of all these lanes
+     * form the next cross section.
+     */
+    private static final class Walk {
+        private final jLane[] lanes;
+        private final int count;
+        private final int[] laneChanges;
+        private final double[] endpoints;
+        private int[] current;
+        private int[] next;
+
+        Walk(jLane[] lanes, int count, int[] laneChanges, double[] endpoints) {
+            this.lanes = lanes;
+            this.count = count;
+            this.laneChanges = laneChanges;
+            this.endpoints = endpoints;
+            current = new int[16];
+            next = new int[16];
+        }
+
+        void from(int origin, int d) {
+            jLane destinationLane = lanes[origin];
+            int destination = destinationLane.getDestination();
+            int size = 0;
+            current = add(current, size++, origin);
+            set(origin, d, 0, destinationLane.getL());
+            jLane lane = destinationLane.getLeft();
+            while (lane != null && lane.getDestination() == destination) {
+                current = add(current, size++, ordinal(lane));
+                set(ordinal(lane), d, 0, lane.getL());
+                lane = lane.getLeft();
+            }
+            lane = destinationLane.getRight();
+            while (lane != null && lane.getDestination() == destination) {
+                current = add(current, size++, ordinal(lane));
+                set(ordinal(lane), d, 0, lane.getL());
+                lane = lane.getRight();
+            }
+
+            while (size > 0) {
+                // move left and right, one more lane change per lane
+                int n = size;
+                for (int i = 0; i < n; i++) {
+                    jLane cur = lanes[current[i]];
+                    int lcs = 0;
+                    while (cur.getLeft() != null && cur.getLeft().isGoRight() && !covered(cur.getLeft(), d)) {
+                        lcs++;
+                        cur = cur.getLeft();
+                        current = add(current, size++, ordinal(cur));
+                        set(ordinal(cur), d, lcs, cur.getL());
+                    }
+                }
+                for (int i = 0; i < n; i++) {
+                    jLane cur = lanes[current[i]];
+                    int lcs = 0;
+                    while (cur.getRight() != null && cur.getRight().isGoLeft() && !covered(cur.getRight(), d)) {
+                        lcs++;
+                        cur = cur.getRight();
+                        current = add(current, size++, ordinal(cur));
+                        set(ordinal(cur), d, lcs, cur.getL());
+                    }
+                }
+                // move upstream, keeping the number of lane changes
+                int upSize = 0;
+                for (int i = 0; i < size; i++) {
+                    int cur = current[i];
+                    jLane up = lanes[cur].getUp();
+                    if (up != null) {
+                        int u = ordinal(up);
+                        int lc = laneChanges[cur * count + d];
+                        if (laneChanges[u * count + d] < 0 || laneChanges[u * count + d] > lc) {
+                            next = add(next, upSize++, u);
+                            set(u, d, lc, endpoints[cur * count + d] + up.getL());
+                        }
+                    }
+                }
+                int[] swap = current;
+                current = next;
+                next = swap;
+                size = upSize;
+            }
+        }
+
+        private boolean covered(jLane lane, int d) {
+            return laneChanges[ordinal(lane) * count + d] >= 0;
+        }
+
+        private void set(int lane, int d, int lc, double endpoint) {
+            laneChanges[lane * count + d] = lc;
+            endpoints[lane * count + d] = endpoint;
+        }
+
+        private int ordinal(jLane lane) {
+            int ordinal = lane.ordinal();
+            if (ordinal < 0 || ordinal >= lanes.length || lanes[ordinal] != lane) {
+                throw new IllegalArgumentException("Lane " + lane.getId() + " is linked to, but not part of the network.");
+            }
+            return ordinal;
+        }
+
+        private static int[] add(int[] list, int size, int value) {
+            if (size == list.length) {
+                list = Arrays.copyOf(list, size * 2);
+            }
+            list[size] = value;
+            return list;
+        }
+    }
+
+    /** @return the number of lanes. */
+    public int laneCount() {
+        return lanes.length;
+    }
+
+    /** @return the lane with the given ordinal. */
+    public jLane lane(int ordinal) {
+        return lanes[ordinal];
+    }
+
+    /** @return the number of destinations. */
+    public int destinationCount() {
+        return destinations.length;
+    }
+
+    /** @return the destination number of the given destination ordinal. */
+    public int destination(int ordinal) {
+        return destinations[ordinal];
+    }
+
+    /**
+     * @param destination destination number.
+     * @return the ordinal of the destination, or -1 if no lane has this destination.
+     */
+    public int destinationOrdinal(int destination) {
+        return destination >= 0 && destination < destinationOrdinals.length ? destinationOrdinals[destination] : -1;
+    }
+
+    /**
+     * @param lane        lane ordinal.
+     * @param destination destination ordinal.
+     * @return the number of lane changes, or -1 if the destination can not be reached from the lane.
+     */
+    public int laneChanges(int lane, int destination) {
+        return laneChanges[lane * destinations.length + destination];
+    }
+
+    /**
+     * @param lane        lane ordinal.
+     * @param destination destination ordinal.
+     * @return the distance [m] within which the lane changes have to be performed.
+     */
+    public double endpoint(int lane, int destination) {
+        return endpoints[lane * destinations.length + destination];
+    }
+
+    /**
+     * @param lane        lane ordinal.
+     * @param destination destination number.
+     * @return whether the destination can be reached from the lane.
+     */
+    public boolean leadsTo(int lane, int destination) {
+        int d = destinationOrdinal(destination);
+        return d >= 0 && laneChanges[lane * destinations.length + d] >= 0;
+    }
+}
@@ -1,17 +1,31 @@
 package microModel.core.road.device;
 
-import microModel.core.driver.jDriver;
 import microModel.core.observation.jObservable;
 import microModel.core.road.LatDirection;
 import microModel.core.road.jLane;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
 /**
- * Convenience class that makes one RSU valid on multiple lanes. It does so by
- * creating helper RSUs on all lanes at a cross section that forward everything
- * to the common RSU. The common RSU itself is located at one of the lanes, this
- * lane will therefore not have a helper RSU.
+ * Convenience class that makes one RSU valid on multiple lanes. The RSU is
+ * registered at all lanes of a cross section, with a position per lane, such that
+ * each lane informs it directly of passing vehicles. The RSU is owned by one of
+ * the lanes, {@link #lane}, which initializes and runs it. Passing vehicles are
+ * counted per lane.
  */
 public abstract class AbstractMultiRSU extends AbstractRSU {
+
+    /** Lanes where the RSU is located, starting with {@link #lane}. */
+    private volatile jLane[] lanes;
+
+    /** Position [m] of the RSU on each lane. */
+    private double[] xs;
+
+    /** Number of passed vehicles per lane. */
+    private AtomicIntegerArray counts;
     
     /**
      * Constructor using the control every time step. The RSU is linked to the 
@@ -52,7 +66,7 @@ public abstract class AbstractMultiRSU extends AbstractRSU {
     public AbstractMultiRSU(jLane lane, double x, double period, double start, boolean passable, boolean noticeable) {
         // Add this RSU to the first lane
         super(lane, x, period, start, passable, noticeable);
-        addSingleLaneRSUs(null); // null means all in cross section
+        addLanes(null); // null means all in cross section
     }
     
     /**
@@ -93,72 +107,151 @@ public abstract class AbstractMultiRSU extends AbstractRSU {
     public AbstractMultiRSU(jLane[] lanes, double x, double period, double start, boolean passable, boolean noticeable) {
         // Add this RSU to the first lane
         super(lanes[0], x, period, start, passable, noticeable);
-        addSingleLaneRSUs(lanes);
+        addLanes(lanes);
     }
     
     /**
-     * Adds a RSU to be used as part of this multiRSU to all given lanes. The 
-     * lane that is directly linked to the mutliRSU is skipped (as it has a RSU,
-     * the mutliRSU) and all lanes need to be in the same cross section. If the
-     * given lanes are <tt>null</tt>, all lanes in the cross section get a RSU.
-     * @param lanes Lanes that this mutliRSU should be connected to.
+     * Registers this RSU at all given lanes in the cross section of the lane of this RSU.
+     * The lane of this RSU already has it registered. Positions on the other lanes are
+     * derived from adjacent lanes. If the given lanes are <tt>null</tt>, all lanes in the
+     * cross section are used.
+     * @param only Lanes that this multiRSU should be located at, or <tt>null</tt>.
+     */
+    private void addLanes(jLane[] only) {
+        List<jLane> laneList = new ArrayList<jLane>();
+        List<Double> xList = new ArrayList<Double>();
+        laneList.add(lane);
+        xList.add(getX());
+        crossSection(LatDirection.LEFT, only, laneList, xList);
+        crossSection(LatDirection.RIGHT, only, laneList, xList);
+        jLane[] lanes = laneList.toArray(new jLane[laneList.size()]);
+        double[] xs = new double[lanes.length];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = xList.get(i);
+        }
+        this.xs = xs;
+        this.counts = new AtomicIntegerArray(lanes.length);
+        this.lanes = lanes;
+        for (int i = 1; i < lanes.length; i++) {
+            lanes[i].addRSU(this);
+        }
+    }
+
+    /**
+     * Walks the cross section in the given direction and gathers the lanes and the
+     * positions on those lanes.
+     * @param dir Direction to walk.
+     * @param only Lanes to gather, or <tt>null</tt> for all.
+     * @param laneList List to add lanes to.
+     * @param xList List to add positions to.
      */
-    private void addSingleLaneRSUs(jLane[] lanes) {
-        // Add a SingleLaneRSU on every other lane
-        // move to left lanes
-        jLane curLane = lane.getLeft();
-        double curX = lane.getAdjacentX(getX(), LatDirection.LEFT);
-        while (curLane!=null) {
-            if (lanes==null || java.util.Arrays.asList(lanes).contains(curLane)) {
-                SingleLaneRSU tmp = new SingleLaneRSU(curLane, curX, passable, noticeable);
+    private void crossSection(LatDirection dir, jLane[] only, List<jLane> laneList, List<Double> xList) {
+        jLane prevLane = lane;
+        jLane curLane = dir == LatDirection.LEFT ? lane.getLeft() : lane.getRight();
+        double curX = getX();
+        while (curLane != null) {
+            curX = prevLane.getAdjacentX(curX, dir);
+            if (only == null || Arrays.asList(only).contains(curLane)) {
+                laneList.add(curLane);
+                xList.add(curX);
             }
-            curX = curLane.getAdjacentX(curX, LatDirection.LEFT);
+            prevLane = curLane;
+            curLane = dir == LatDirection.LEFT ? curLane.getLeft() : curLane.getRight();
         }
-        // move to the right lanes
-        curLane = lane.getRight();
-        curX = lane.getAdjacentX(getX(), LatDirection.RIGHT);
-        while (curLane!=null) {
-            if (lanes==null || java.util.Arrays.asList(lanes).contains(curLane)) {
-                SingleLaneRSU tmp = new SingleLaneRSU(curLane, curX, passable, noticeable);
+    }
+
+    /**
+     * Returns the index of a lane in {@link #lanes}. The number of lanes in a cross
+     * section is small, so this is a short scan.
+     * @param lane Lane.
+     * @return Index of the lane, -1 if this RSU is not located at the lane.
+     */
+    private int indexOf(jLane lane) {
+        jLane[] lanes = this.lanes;
+        if (lanes == null) {
+            // during construction
+            return lane == this.lane ? 0 : -1;
+        }
+        for (int i = 0; i < lanes.length; i++) {
+            if (lanes[i] == lane) {
+                return i;
             }
-            curX = curLane.getAdjacentX(curX, LatDirection.RIGHT);
         }
+        return -1;
     }
-    
+
+    @Override
+    public double getX(jLane lane) {
+        int i = indexOf(lane);
+        return i > 0 ? xs[i] : getX();
+    }
+
+    @Override
+    public boolean isAt(jLane lane) {
+        return indexOf(lane) >= 0;
+    }
+
+    /**
+     * Moves the RSU on all lanes. Positions on other lanes than {@link #lane} are derived
+     * from adjacent lanes again.
+     * @param x Position [m] of the RSU on its lane.
+     */
+    @Override
+    public void setX(double x) {
+        super.setX(x);
+        if (lanes == null) {
+            return;
+        }
+        List<jLane> laneList = new ArrayList<jLane>();
+        List<Double> xList = new ArrayList<Double>();
+        crossSection(LatDirection.LEFT, lanes, laneList, xList);
+        crossSection(LatDirection.RIGHT, lanes, laneList, xList);
+        for (int i = 0; i < laneList.size(); i++) {
+            xs[indexOf(laneList.get(i))] = xList.get(i);
+            laneList.get(i).updateRSU(this);
+        }
+    }
+
     /**
-     * Private inner class which adds a single-lane (regular) RSU to all but the 
-     * first lanes in a multiRSU. This class has empty control and forwards 
-     * verhicle passing and noticing by drivers to the outer multiRSU class.
+     * Counts the passing vehicle for the lane and forwards it to {@link #see(jObservable)}.
+     * Counting does not lock, vehicles on different lanes may pass concurrently.
+     * @param lane Lane at which the vehicle passed.
+     * @param vehicle Passing vehicle.
      */
-    private final class SingleLaneRSU extends AbstractRSU {
-        
-        /**
-         * Constructor which links the RSU to the lane and vice versa.
-         * @param lane LaneType where the RSU is located.
-         * @param x Position [m] of the RSU on the lane.
-         * @param passable Whether the RSU is passable.
-         * @param noticeable Whether the RSU is noticeable.
-         */
-        public SingleLaneRSU(jLane lane, double x, boolean passable, boolean noticeable) {
-            super(lane, x, passable, noticeable);
+    @Override
+    public void passed(jLane lane, jObservable vehicle) {
+        int i = indexOf(lane);
+        if (i >= 0) {
+            counts.incrementAndGet(i);
         }
-        
-        /** Empty, needs to be implemented.  */
-        public void init() {}
-        
-        /** Empty, must be implemented.  */
-        public void control() {}
-        
-        /** Empty, must be implemented.  */
-        public void noControl() {}
-        
-        /**
-         * Vehicle passing method which forwards the passing to the outer 
-         * mutliRSU.
-         * @param observable Passing vehicle.
-         */
-        public void see(jObservable observable) {
-            AbstractMultiRSU.this.see(observable);
+        see(vehicle);
+    }
+
+    /**
+     * @return Lanes where the RSU is located, starting with {@link #lane}.
+     */
+    public jLane[] getLanes() {
+        return lanes.clone();
+    }
+
+    /**
+     * Returns the number of vehicles that passed the RSU at a lane.
+     * @param lane Lane.
+     * @return Number of passed vehicles, 0 if the RSU is not located at the lane.
+     */
+    public int getCount(jLane lane) {
+        int i = indexOf(lane);
+        return i >= 0 ? counts.get(i) : 0;
+    }
+
+    /**
+     * @return Number of vehicles that passed the RSU at all lanes.
+     */
+    public int getCount() {
+        int sum = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            sum += counts.get(i);
         }
+        return sum;
     }
-}
\ No newline at end of file
+}
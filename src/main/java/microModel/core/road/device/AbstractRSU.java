@@ -99,7 +99,45 @@ public abstract class AbstractRSU extends AbstractController implements jObserve
         return x;
     }
 
+    /**
+     * Returns the position of the RSU on a lane it is located at. Only RSUs that are
+     * valid on multiple lanes, see {@link AbstractMultiRSU}, are located at other lanes
+     * than {@link #lane}.
+     * @param lane Lane where the RSU is located.
+     * @return Position [m] of the RSU on the lane.
+     */
+    public double getX(jLane lane) {
+        return x;
+    }
+
+    /**
+     * Returns whether the RSU is located at the given lane.
+     * @param lane Lane.
+     * @return Whether the RSU is located at the lane.
+     */
+    public boolean isAt(jLane lane) {
+        return lane == this.lane;
+    }
+
+    /**
+     * Called by a lane when a vehicle passes the RSU, see
+     * {@link jLane#passRSUs(microModel.core.vehicle.AbstractVehicle, double, double)}.
+     * By default this is forwarded to {@link #see(jObservable)}.
+     * @param lane Lane at which the vehicle passed.
+     * @param vehicle Passing vehicle.
+     */
+    public void passed(jLane lane, jObservable vehicle) {
+        see(vehicle);
+    }
+
+    /**
+     * Sets the position of the RSU. The RSUs of the lane are kept ordered by position.
+     * @param x Position [m] of the RSU on the lane.
+     */
     public void setX(double x) {
         this.x = x;
+        if (lane != null) {
+            lane.updateRSU(this);
+        }
     }
 }
\ No newline at end of file
@@ -5,12 +5,11 @@ import microModel.core.observation.jObservable;
 import microModel.core.road.jLane;
 import microModel.core.vehicle.AbstractVehicle;
 import microModel.jModel;
-import microModel.settings.BuiltInSettings;
-import microModel.settings.jSettings;
+import microModel.output.DetectorHistory;
+import microModel.output.DetectorStatistics;
 import org.apache.log4j.Logger;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
 
 /**
  * Respresents a dual-loop induction detector that registers vehicles including
@@ -26,14 +25,11 @@ public class jDetector extends AbstractRSU {
     /** Average vehicle speed within the current duration. */
     protected double vCur;
 
-    /** History of flow measurements. */
-    public List<Integer> qHist = new ArrayList<Integer>();
+    /** History of flow and speed measurements and their times. */
+    public final DetectorHistory history = new DetectorHistory();
 
-    /** History of speed measuerments. */
-    public List<Double> vHist = new ArrayList<Double>();
-
-    /** History of measured duration starting times. */
-    public List<Double> tHist = new ArrayList<Double>();
+    /** Streaming statistics of the passing vehicles. */
+    public final DetectorStatistics statistics = new DetectorStatistics();
 
     /** ID of real-life detector / user recognizable number. */
     protected int id;
@@ -58,13 +54,15 @@ public class jDetector extends AbstractRSU {
     public void control() {
 
         jModel model = jModel.getInstance();
-        jSettings settings = jSettings.getInstance();
 
         // data is aggregated this time step
-        if (settings.get(BuiltInSettings.DEBUG_DETECTOR)) {
-            qHist.add(qCur);
-            vHist.add(vCur);
-            tHist.add(model.getT());
+        if (model.getSettings().debugDetector) {
+            try {
+                history.add(model.getT(), qCur, vCur);
+            } catch (IOException e) {
+                logger.error("Could not write history of detector " + id, e);
+            }
+            statistics.endPeriod(duration);
         }
         // reset count
         qCur = 0;
@@ -74,12 +72,20 @@ public class jDetector extends AbstractRSU {
     public void noControl() { /* empty */}
 
     /**
-     * Updates the current measurement with an additional vehicle.
+     * @return <tt>false</tt>, the detector only needs to run at the end of each period.
+     */
+    @Override
+    public boolean pollsNoControl() {
+        return false;
+    }
+
+    /**
+     * Updates the current measurement with an additional vehicle. This is called by
+     * the lane when a vehicle passes the detector.
      * @param observable Passing vehicle.
      */
     public void see(jObservable observable) {
-        jSettings settings = jSettings.getInstance();
-        if (!settings.get(BuiltInSettings.DEBUG_DETECTOR)) {
+        if (!jModel.getInstance().getSettings().debugDetector) {
             return;
         }
         if (!(observable instanceof AbstractVehicle)) {
@@ -87,26 +93,15 @@ public class jDetector extends AbstractRSU {
             throw new IllegalArgumentException("Non-Movable Object Detected!");
         }
         AbstractVehicle vehicle = (AbstractVehicle) observable;
-        if ( passable &&
-             (
-             /** Vehicle passed the detector.*/
-             (getX() >= vehicle.getX() && getX() <= vehicle.getX() + vehicle.getDx())
-             ||
-             /** Vehicle was on the upstream lane but the movement in previous round made it
-              * land on next lane and during that it also passed this detector.
-              */
-             (getX() <= vehicle.getX() && vehicle.isJustExceededLane())
-             )
-           ) {
-            //Vehicle just passed this detector.
-            if (qCur == 0) {
-                vCur = vehicle.getSpeed();
-            } else {
-                // add velocity to average
-                vCur = ((vCur*qCur)+ vehicle.getSpeed())/(qCur+1);
-            }
-            qCur++;
+        //Vehicle just passed this detector.
+        if (qCur == 0) {
+            vCur = vehicle.getSpeed();
+        } else {
+            // add velocity to average
+            vCur = ((vCur*qCur)+ vehicle.getSpeed())/(qCur+1);
         }
+        qCur++;
+        statistics.vehiclePassed(vehicle.getSpeed(), vehicle.getLength());
     }
 
     /**
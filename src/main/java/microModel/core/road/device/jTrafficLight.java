@@ -75,6 +75,14 @@ public class jTrafficLight extends AbstractRSU {
     /** Empty, needs to be implemented.  */
     public void noControl() {}
 
+    /**
+     * @return <tt>false</tt>, {@link #noControl()} is empty.
+     */
+    @Override
+    public boolean pollsNoControl() {
+        return false;
+    }
+
     /** Enumeration for traffic light colors. */
     protected enum lightColor {
         /** Light is red. */
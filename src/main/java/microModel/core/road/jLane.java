@@ -37,6 +37,9 @@ public class jLane implements jObserver, jObservable {
     /** Array of y-coordinates defining the lane curvature. */
     private double[] y;
 
+    /** Cumulative length [m] at each coordinate, set by {@link #calculateLength()}. */
+    private double[] cumLength;
+
     /** ID of lane for user recognition. */
     private final Integer id;
 
@@ -67,6 +70,15 @@ public class jLane implements jObserver, jObservable {
     /** Set of RSUs, ordered by position. */
     private List<AbstractRSU> RSUs = new ArrayList<AbstractRSU>();
 
+    /** Index of noticeable RSUs of the chain this lane is part of, created when first needed. */
+    RSUIndex rsuIndex;
+
+    /** Number of times RSUs were added to or removed from this lane. */
+    private int rsuVersion;
+
+    /** Position [m] of the start of this lane in the chain of {@link #rsuIndex}. */
+    double rsuOffset;
+
     /** All movables on this lane, in sorted order of position. */
     private List<AbstractVehicle> vehicles = new ArrayList<AbstractVehicle>(0);
 
@@ -77,18 +89,13 @@ public class jLane implements jObserver, jObservable {
     private double vLim = 120;
 
     /**
-     * Number of lane changes to be performed from this lane towards a certain
-     * destination number. This is automatichally filled with the model
-     * initialization.
+     * Lane change information towards all destinations of the network. This is
+     * automatically computed with the model initialization.
      */
-    private Map<Integer, Integer> lanechanges = new HashMap<Integer, Integer>();
+    private RoutingTable routing;
 
-    /**
-     * Distance [m] in which lane changes have to be performed towards a certain
-     * destination number. This is automatichally filled with the model
-     * initialization.
-     */
-    private Map<Integer, Double> endpoints = new HashMap<Integer, Double>();
+    /** Ordinal of this lane in the routing table, -1 if not yet numbered. */
+    private int ordinal = -1;
 
     /** Vehicle generator, if any. */
     private AbstractQueuedTrafficGenerator generator;
@@ -192,23 +199,22 @@ public class jLane implements jObserver, jObservable {
      */
     public void calculateLength() {
         // compute and set length
-        double cumLength = 0;
+        cumLength = new double[x.length];
         double dx;
         double dy;
         for (int i=1; i<=x.length-1; i++) {
             dx = this.x[i]-this.x[i-1];
             dy = this.y[i]-this.y[i-1];
-            cumLength = cumLength + Math.sqrt(dx*dx + dy*dy);
+            cumLength[i] = cumLength[i-1] + Math.sqrt(dx*dx + dy*dy);
         }
-        l = cumLength;
+        l = cumLength[x.length-1];
     }
 
     /**
-     * Initializes lane change info, taper presence, vehicle generation, RSUs.
+     * Initializes taper presence, vehicle generation, RSUs. The lane change info
+     * is computed for the whole network beforehand, see {@link RoutingTable}.
      */
     public void init() {
-
-        initLaneChangeInfo();
         if (taper==this) {
             jLane upLane = up;
             while (upLane!=null && upLane.left!=null) {
@@ -220,105 +226,34 @@ public class jLane implements jObserver, jObservable {
             generator.init();
         }
         for (int i=0; i<RSUs.size(); i++) {
-            RSUs.get(i).init();
-        }
-    }
-    
-    /**
-     * Initializes the lane change info throughout the network for a possible 
-     * destination of this lane.
-     */
-    public void initLaneChangeInfo() {
-        if (destination>0 && !leadsTo(destination)) {
-            // find all lanes in cross section with same destination and set initial info
-            ArrayList<jLane> curlanes = new ArrayList();
-            curlanes.add(this);
-            lanechanges.put(destination, 0);
-            endpoints.put(destination, l);
-            jLane lane = left;
-            while (lane!=null && lane.destination==destination) {
-                curlanes.add(lane);
-                lane.lanechanges.put(destination, 0);
-                lane.endpoints.put(destination, lane.l);
-                lane = lane.left;
-            }
-            lane = right;
-            while (lane!=null && lane.destination==destination) {
-                curlanes.add(lane);
-                lane.lanechanges.put(destination, 0);
-                lane.endpoints.put(destination, lane.l);
-                lane = lane.right;
-            }
-            // move through network and set lane change information
-            while (!curlanes.isEmpty()) {
-                // move left
-                int n = curlanes.size();
-                for (int i=0; i<n; i++) {
-                    jLane curlane = curlanes.get(i);
-                    Integer lcs = 0;
-                    while (curlane.left!=null && curlane.left.goRight && 
-                            !curlanes.contains(curlane.left) &&
-                            !curlane.left.lanechanges.containsKey(destination)) {
-                        // left lane is not in current set and has not been covered yet
-                        lcs = lcs+1; // additional lane change required
-                        curlanes.add(curlane.left); // add to current set
-                        curlane.left.lanechanges.put(destination, lcs); // set # of lane changes
-                        curlane.left.endpoints.put(destination, curlane.left.l);
-                        curlane = curlane.left; // next left lane
-                    }
-                }
-                // move right
-                for (int i=0; i<n; i++) {
-                    jLane curlane = curlanes.get(i);
-                    Integer lcs = 0;
-                    while (curlane.right!=null && curlane.right.goLeft && 
-                            !curlanes.contains(curlane.right) &&
-                            !curlane.right.lanechanges.containsKey(destination)) {
-                        // right lane is not in current set and has not been covered yet
-                        lcs = lcs+1; // additional lane change required
-                        curlanes.add(curlane.right); // add to current set
-                        curlane.right.lanechanges.put(destination, lcs); // set # of lane changes
-                        curlane.right.endpoints.put(destination, curlane.right.l);
-                        curlane = curlane.right; // next right lane
-                    }
-                }
-                // move upstream
-                ArrayList<jLane> uplanes = new ArrayList<jLane>();
-                for (int i=0; i<curlanes.size(); i++) {
-                    jLane curlane = curlanes.get(i);
-                    if (curlane.up!=null && (!curlane.up.lanechanges.containsKey(destination) 
-                            || curlane.up.lanechanges.get(destination)>curlane.lanechanges.get(destination)) ) {
-                        // upstream lane is not covered yet or can be used with less lane changes
-                        uplanes.add(curlane.up); // add to uplanes
-                        // copy number of lane changes
-                        curlane.up.lanechanges.put(destination, curlane.lanechanges.get(destination));
-                        // increase with own length
-                        curlane.up.endpoints.put(destination, curlane.endpoints.get(destination)+curlane.up.l);
-                    }
-                }
-                // set curlanes for next loop
-                curlanes = uplanes;
+            // RSUs on multiple lanes are initialized by their own lane
+            if (RSUs.get(i).lane == this) {
+                RSUs.get(i).init();
             }
         }
     }
-
+    
     /**
-     * Add RSU to lane. RSUs are ordered by position.
+     * Add RSU to lane. RSUs are ordered by position, the RSU is inserted after RSUs
+     * at the same position. An RSU that is already at this lane is not added again.
      * @param rsu
      */
     public void addRSU(AbstractRSU rsu) {
-        RSUs.add(rsu);
-        Collections.sort(RSUs, new Comparator<AbstractRSU>() {
-            @Override
-            public int compare(AbstractRSU o1, AbstractRSU o2) {
-                if (o1.getX() < o2.getX())
-                    return -1;
-                else if (o1.getX() == o2.getX())
-                    return 0;
-                else
-                    return 1;
+        if (RSUs.contains(rsu)) {
+            return;
+        }
+        int lo = 0;
+        int hi = RSUs.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (RSUs.get(mid).getX(this) <= rsu.getX(this)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
             }
-        });
+        }
+        RSUs.add(lo, rsu);
+        rsusChanged();
     }
 
     /**
@@ -326,7 +261,39 @@ public class jLane implements jObserver, jObservable {
      * @param rsu RSU to remove.
      */
     public void removeRSU(AbstractRSU rsu) {
-        RSUs.remove(rsu);
+        if (RSUs.remove(rsu)) {
+            rsusChanged();
+        }
+    }
+
+    /**
+     * Invalidates the RSU index and counts the change of the RSUs of this lane.
+     */
+    private void rsusChanged() {
+        if (rsuIndex != null) {
+            rsuIndex.invalidate();
+        }
+        rsuVersion++;
+    }
+
+    /**
+     * Returns the number of times RSUs were added to or removed from this lane. This only
+     * increases, so the model can detect changes by comparing the sum over all lanes.
+     * @return Number of changes of the RSUs of this lane.
+     */
+    public int getRSUVersion() {
+        return rsuVersion;
+    }
+
+    /**
+     * Restores the order of the RSUs after the position of an RSU on this lane has
+     * changed, see {@link AbstractRSU#setX(double)}.
+     * @param rsu RSU that has moved.
+     */
+    public void updateRSU(AbstractRSU rsu) {
+        if (RSUs.remove(rsu)) {
+            addRSU(rsu);
+        }
     }
 
     /**
@@ -419,33 +386,17 @@ public class jLane implements jObserver, jObservable {
 
     /**
      * Finds the first noticeable RSU downstream of a location within a certain
-     * range.
+     * range. The RSUs of this lane and its downstream lanes are looked up in an
+     * {@link RSUIndex}, which is created on the first search.
      * @param x Start location of search [m].
      * @param range Range of search [m].
      * @return Next noticeable RSU.
      */
     public AbstractRSU findNoticeableRSU(double x, double range) {
-        jLane atLane = this;
-        double searchRange = 0;
-        while (atLane!=null && searchRange<=range) {
-            // Loop all RSUs on this lane
-            for (int i=0; i<atLane.RSUcount(); i++) {
-                if (atLane.getRSU(i).noticeable && xAdj(atLane)+ atLane.getRSU(i).getX() >x
-                        && xAdj(atLane)+ atLane.getRSU(i).getX() -x<=range) {
-                    return atLane.getRSU(i);
-                }
-                // Update search range and quit if possible
-                searchRange = xAdj(atLane)+ atLane.getRSU(i).getX() -x;
-                if (searchRange>range) {
-                    return null;
-                }
-            }
-            // If no noticable RSUs, move to next lane
-            atLane = atLane.down;
-            // Update searchrange at start of new lane
-            searchRange = xAdj(atLane)-x;
+        if (rsuIndex == null) {
+            RSUIndex.create(this);
         }
-        return null;
+        return rsuIndex.find(rsuOffset + x, range);
     }
 
     /**
@@ -623,32 +574,49 @@ public class jLane implements jObserver, jObservable {
      * @return Point with x and y coordinates.
      */
     public Point2D.Double XY(double pos) {
-        double cumlength[] = new double[x.length];
-        cumlength[0] = 0;
-        double dx; // section distance in x
-        double dy; // section distance in y
-        int section = -1; // current section of vehicle
-        // calculate cumulative lengths untill x of vehicle is passed
-        for (int i=1; i<x.length; i++) {
-            dx = x[i] - x[i-1];
-            dy = y[i] - y[i-1];
-            cumlength[i] = cumlength[i-1] + java.lang.Math.sqrt(dx*dx + dy*dy);
-            if (section==-1 && cumlength[i]>pos) {
-                section = i;
-                i = x.length; // stop loop
-            }
-        }
-        if (section==-1) {
-            // the vehicle is probably beyond the lane, extrapolate from last section
-            section = x.length-1;
-        }
+        return XY(pos, new Point2D.Double());
+    }
+
+    /**
+     * Sets the global x and y at the lane centre in the given point.
+     * @param pos Position [m] on the lane.
+     * @param point Point to set, e.g. a buffer that is reused.
+     * @return The given point.
+     */
+    public Point2D.Double XY(double pos, Point2D.Double point) {
+        int section = section(pos);
         double x0 = x[section-1]; // start of current section
         double y0 = y[section-1];
         double x1 = x[section]; // end of current section
         double y1 = y[section];
-        double res = pos-cumlength[section-1]; // distance within section
-        double sec = cumlength[section] - cumlength[section-1]; // section length
-        return new Point2D.Double(x0 + (x1-x0)*(res/sec), y0 + (y1-y0)*(res/sec));
+        double res = pos-cumLength[section-1]; // distance within section
+        double sec = cumLength[section] - cumLength[section-1]; // section length
+        point.setLocation(x0 + (x1-x0)*(res/sec), y0 + (y1-y0)*(res/sec));
+        return point;
+    }
+
+    /**
+     * Returns the section of the lane at a position, given by the index of the
+     * coordinate at the end of the section.
+     * @param pos Position [m] on the lane.
+     * @return Index of the first coordinate beyond the position, or of the last coordinate.
+     */
+    private int section(double pos) {
+        int hi = x.length-1;
+        if (!(cumLength[hi]>pos)) {
+            // the vehicle is probably beyond the lane, extrapolate from last section
+            return hi;
+        }
+        int lo = 1;
+        while (lo<hi) {
+            int mid = (lo+hi) >>> 1;
+            if (cumLength[mid]>pos) {
+                hi = mid;
+            } else {
+                lo = mid+1;
+            }
+        }
+        return lo;
     }
     
     /**
@@ -665,29 +633,23 @@ public class jLane implements jObserver, jObservable {
      * @return Point where x and y are the x and y headings.
      */
     public Point2D.Double heading(double pos) {
-        double cumlength[] = new double[x.length];
-        cumlength[0] = 0;
-        double dx; // section distance in x
-        double dy; // section distance in y
-        int section = -1; // current section of vehicle
-        // calculate cumulative lengths untill x of vehicle is passed
-        for (int i=1; i<x.length; i++) {
-            dx = x[i] - x[i-1];
-            dy = y[i] - y[i-1];
-            cumlength[i] = cumlength[i-1] + java.lang.Math.sqrt(dx*dx + dy*dy);
-            if (section==-1 && cumlength[i]>pos) {
-                section = i;
-                i = x.length; // stop loop
-            }
-        }
-        if (section==-1) {
-            // the vehicle is probably beyond the lane, extrapolate from last section
-            section = x.length-1;
-        }
-        dx = x[section] - x[section-1];
-        dy = y[section] - y[section-1];
+        return heading(pos, new Point2D.Double());
+    }
+
+    /**
+     * Sets the heading on the lane at the given position in the given point.
+     * @param pos Position [m] on the lane.
+     * @param heading Point to set, e.g. a buffer that is reused.
+     * @return The given point.
+     * @see #heading(double)
+     */
+    public Point2D.Double heading(double pos, Point2D.Double heading) {
+        int section = section(pos);
+        double dx = x[section] - x[section-1]; // section distance in x
+        double dy = y[section] - y[section-1]; // section distance in y
         double f = 1/Math.sqrt(dx*dx + dy*dy);
-        return new Point2D.Double(dx*f, dy*f);
+        heading.setLocation(dx*f, dy*f);
+        return heading;
     }
     
     /**
@@ -696,16 +658,17 @@ public class jLane implements jObserver, jObservable {
      * @return Whether this lane leads to the given destination.
      */
     public boolean leadsTo(int destination) {
-        return lanechanges.containsKey(destination);
+        return routing != null && routing.leadsTo(ordinal, destination);
     }
     
     /**
      * Returns the number of lane changes required to go to the given destination.
      * @param destination Destination of interest.
      * @return The number of lane changes for the destination.
+     * @throws IllegalArgumentException If no lane in the network has the destination.
      */
     public int nLaneChanges(int destination) {
-        return lanechanges.get(destination);
+        return routing.laneChanges(ordinal, destinationOrdinal(destination));
     }
     
     /**
@@ -713,9 +676,18 @@ public class jLane implements jObserver, jObservable {
      * the destination from this lane.
      * @param destination Destination of interest.
      * @return Number of lane changes that needs to be performed for this destination.
+     * @throws IllegalArgumentException If no lane in the network has the destination.
      */
     public double xLaneChanges(int destination) {
-        return endpoints.get(destination);
+        return routing.endpoint(ordinal, destinationOrdinal(destination));
+    }
+
+    private int destinationOrdinal(int destination) {
+        int d = routing.destinationOrdinal(destination);
+        if (d < 0) {
+            throw new IllegalArgumentException("Destination " + destination + " is not in the routing table of lane " + id);
+        }
+        return d;
     }
 
     public LaneType getType() {
@@ -813,12 +785,23 @@ public class jLane implements jObserver, jObservable {
         vLim = limit;
     }
 
-    public Map<Integer, Integer> getLanechanges() {
-        return lanechanges;
+    /**
+     * @return The routing table of the network, null before the model is initialized.
+     */
+    public RoutingTable getRouting() {
+        return routing;
+    }
+
+    /**
+     * @return Ordinal of this lane in the routing table, -1 if not yet numbered.
+     */
+    public int ordinal() {
+        return ordinal;
     }
 
-    public Map<Integer, Double> getEndpoints() {
-        return endpoints;
+    void setRouting(RoutingTable routing, int ordinal) {
+        this.routing = routing;
+        this.ordinal = ordinal;
     }
 
     public AbstractQueuedTrafficGenerator getGenerator() {
@@ -876,15 +859,42 @@ public class jLane implements jObserver, jObservable {
         addVehicleSorted(vehicle);
         vehicle.addObserver(this);
 
+        passRSUs(vehicle, fromX, atX);
         for (jObserver observer: observers) {
-            if (observer instanceof AbstractRSU) {
-                AbstractRSU rsu = (AbstractRSU) observer;
-                if (rsu.getX() >= fromX && rsu.getX() <= atX) {
-                    rsu.see(vehicle);
-                }
+            observer.see(vehicle);
+        }
+    }
+
+    /**
+     * Informs the passable RSUs in [<tt>fromX</tt>, <tt>toX</tt>) that a vehicle has
+     * passed them. As RSUs are ordered by position, the first RSU is found by a
+     * binary search and only the RSUs that are actually passed are visited.
+     * @param vehicle The passing vehicle.
+     * @param fromX Position [m] on this lane the vehicle came from.
+     * @param toX Position [m] on this lane the vehicle moved to.
+     */
+    public void passRSUs(AbstractVehicle vehicle, double fromX, double toX) {
+        if (!(fromX < toX)) {
+            return;
+        }
+        int n = RSUs.size();
+        int lo = 0;
+        int hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (RSUs.get(mid).getX(this) < fromX) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
             }
-            else {
-                observer.see(vehicle);
+        }
+        for (int i = lo; i < n; i++) {
+            AbstractRSU rsu = RSUs.get(i);
+            if (rsu.getX(this) >= toX) {
+                break;
+            }
+            if (rsu.passable) {
+                rsu.passed(this, vehicle);
             }
         }
     }
@@ -1,18 +1,32 @@
 package microModel.core.traffic;
 
 import apl.jSimEnvironment;
-import com.google.common.collect.Range;
+import microModel.core.driver.model.IDMPlus;
+import microModel.core.road.LongDirection;
 import microModel.core.road.jLane;
 import microModel.core.vehicle.AbstractVehicle;
+import microModel.core.vehicle.jVehicle;
 import microModel.jModel;
 import microModel.random.ProbabilityDistribution;
 import microModel.settings.BuiltInSettings;
 import microModel.settings.jSettings;
 import microModel.util.TableData;
 
-import java.util.LinkedList;
-import java.util.Queue;
-
+/**
+ * <p>
+ * Generator that releases vehicles on a lane according to a demand time series. For
+ * each demand interval, a {@link HeadwayProcess} generates the release times one at a
+ * time, in order, as simulation time passes. Vehicles are only generated when they are
+ * released, and all vehicles with a release time in the past time step are released, at
+ * the distance they would have travelled since their release time.
+ * </p><p>
+ * A vehicle is kept at least the stopping distance behind the most upstream vehicle on the
+ * lane, at no more than its speed. If there is no room at the start of the lane, the
+ * release is counted as waiting until there is. Only the first waiting vehicle is generated,
+ * as the room it needs depends on its length and driver; the others are generated when
+ * they are placed.
+ * </p>
+ */
 public abstract class AbstractDynamicDemandGenerator extends AbstractQueuedTrafficGenerator {
 
     /** Column number in which the timestamp is stored */
@@ -28,65 +42,52 @@ public abstract class AbstractDynamicDemandGenerator extends AbstractQueuedTraff
     /** Current mean speed level [m/s] */
     protected double meanSpeed = 0;
     /**
-     * Queue containing time stamp values for releasing queued vehicles.
-     * This is filled up depending on the demand value and the distribution specified as the headway distribution.
+     * Generates the release times of the vehicles of the current interval, in order.
+     * This depends on the demand value and the distribution specified as the headway distribution.
      */
-    private Queue<Double> vehicleReleaseTimes = new LinkedList<Double>();
-    /** The current time stamp used from data to generate demand. */
-    private Long currentTimeStamp = null;
+    private final HeadwayProcess headwayProcess;
     /** The demand data. This is a timeseries indicating the demand at specific simulation times. */
-    private TableData<Long> demandData;
-    private Distribution headwayDistribution = Distribution.UNIFORM;
+    private final DemandSchedule demandSchedule;
+    /** Number of released vehicles waiting for room at the start of the lane. */
+    private int waiting;
+    /** First waiting vehicle, if it was generated already. */
+    private AbstractVehicle next;
 
 
     protected AbstractDynamicDemandGenerator(jLane lane, DriverGenerator generator, TableData<Long> demandData, Distribution headwayDistribution) {
         super(lane);
         this.generator = generator;
-        this.demandData = demandData;
-        this.headwayDistribution = headwayDistribution;
+        this.demandSchedule = new DemandSchedule(demandData, DATA_TIME_COLUMN_INDEX, DATA_DEMAND_COLUMN_INDEX, DATA_SPEED_COLUMN_INDEX);
+        this.headwayProcess = new HeadwayProcess(headwayDistribution == null ? Distribution.UNIFORM : headwayDistribution,
+                ProbabilityDistribution.RANDOM);
     }
 
     @Override
     public void init() {
         jModel model = jModel.getInstance();
-        TableData<Long> futureData = demandData.filter(DATA_TIME_COLUMN_INDEX, Range.atMost(model.getAbsoluteT().longValue()));
-        int lastRow = futureData.rowSize() - 1;
-        currentTimeStamp = futureData.get(lastRow, DATA_TIME_COLUMN_INDEX);
-        demand = futureData.get(lastRow, DATA_DEMAND_COLUMN_INDEX);
-        meanSpeed = futureData.get(lastRow, DATA_SPEED_COLUMN_INDEX) * 1000 / 3600;
-        queueVehicles();
+        if (demandSchedule.advanceTo(model.getAbsoluteT().longValue())) {
+            updateDemand();
+        }
     }
 
     /**
-     * Adds vehicles to the queue to be released on the lane
-     * based on the current demand.
+     * Takes over the demand and mean speed of the current interval
+     * and schedules the corresponding vehicles.
      */
-    private void queueVehicles() {
-        for (int i = 0; i < demand; i++) {
-            AbstractVehicle vehicle = generator.generate(getLane(), 0, jSimEnvironment.VEHICLE_COUNTER++);
-            vehicle.setSpeed(meanSpeed);
-            queue.add(vehicle);
-        }
+    private void updateDemand() {
+        demand = demandSchedule.demand();
+        meanSpeed = demandSchedule.speed() * 1000 / 3600;
         distributeVehicles();
     }
 
     /**
-     * Generates release times for newly queued vehicles according to the
-     * headway distribution specified for this generator.
+     * Starts generating release times for the vehicles of the current interval
+     * according to the headway distribution specified for this generator.
      */
     private void distributeVehicles() {
         jModel model = jModel.getInstance();
-        long interval = interval();
-
-        if (Distribution.UNIFORM == headwayDistribution) {
-            for (int i = 0; i < demand; i++) {
-                vehicleReleaseTimes.add(model.getT() + i * (interval / demand));
-            }
-        } else if (Distribution.EXPONENTIAL == headwayDistribution) {
-            //TODO
-        } else if (Distribution.POISSON == headwayDistribution) {
-            //TODO
-        }
+        double start = model.getT();
+        headwayProcess.reset(start, start + demandSchedule.interval(), demand, demandSchedule.nextDemand());
     }
 
     @Override
@@ -94,85 +95,91 @@ public abstract class AbstractDynamicDemandGenerator extends AbstractQueuedTraff
         jModel model = jModel.getInstance();
         if (model.getT() < model.getSimulationLength()) {
 
-            /* Find the most recent time stamp in the data */
-
-            TableData<Long> futureData = demandData.filter(DATA_TIME_COLUMN_INDEX, Range.atMost(model.getAbsoluteT().longValue()));
-            int lastRow = futureData.rowSize() - 1;
-            Long mostRecentTimeStamp = futureData.get(lastRow, DATA_TIME_COLUMN_INDEX);
-
             /* Determine if a new timestamp has been encountered. */
 
-            if (currentTimeStamp != mostRecentTimeStamp) {
+            if (demandSchedule.advanceTo(model.getAbsoluteT().longValue())) {
                 /* New interval has started.
                    Need to use the new demand value and generate new series of cars.*/
-                currentTimeStamp = mostRecentTimeStamp;
-                demand = futureData.get(lastRow, DATA_DEMAND_COLUMN_INDEX);
-                meanSpeed = futureData.get(lastRow, DATA_SPEED_COLUMN_INDEX) * 1000 / 3600;
-                queueVehicles();
+                updateDemand();
             }
 
-            /* Release queued vehicles according to headway distribution. */
+            /* Release waiting vehicles and all vehicles that are due according to headway distribution. */
 
-            if (!queue.isEmpty()) {
-                AbstractVehicle vehicle = queue.peek();
-                Double releaseTime = vehicleReleaseTimes.peek();
-                if (model.getT() >= releaseTime) {
-                    generator.addToSimulation(vehicle);
-                    register(vehicle);
-                    queue.remove();
-                    vehicleReleaseTimes.remove();
+            while (waiting > 0 && release(0)) {
+                waiting--;
+            }
+            double now = model.getT();
+            while (headwayProcess.peek() <= now) {
+                double elapsed = now - headwayProcess.poll();
+                if (waiting > 0 || !release(elapsed * meanSpeed)) {
+                    waiting++;
                 }
             }
         }
     }
 
-    @Override
-    public void noControl() {
-        // Do Nothing.
-    }
-
-    protected abstract void register(AbstractVehicle vehicle);
-
     /**
-     * <p> Determines the data sampling rate. This is the time
-     * difference between the timestamps at which detector data
-     * is aggregated.
-     * </p><p>
-     * It assumes that the interval size remains constant in the data.
-     * </p>
-     *
-     * @return the data sample rate [s].
+     * Generates the next vehicle, unless it is waiting already, and places it on the lane.
+     * @param x Position [m] on the lane if there is no vehicle in front.
+     * @return Whether the vehicle was placed, <tt>false</tt> if there is no room.
      */
-    private Long interval() {
-        Long timeStamp1 = demandData.get(0, DATA_TIME_COLUMN_INDEX);
-        Long timeStamp2 = demandData.get(1, DATA_TIME_COLUMN_INDEX);
-        return timeStamp2 - timeStamp1;
+    private boolean release(double x) {
+        if (next == null) {
+            next = generator.generate(getLane(), 0, jSimEnvironment.VEHICLE_COUNTER++);
+        }
+        if (!place(next, x)) {
+            return false;
+        }
+        next = null;
+        return true;
     }
 
     /**
-     * Determines a headway value based on generator settings.
-     *
-     * @return Headway [s].
+     * Places a vehicle on the lane, but not closer to the most upstream vehicle on the lane
+     * than the stopping distance of the driver. The vehicle is released at the mean speed,
+     * or at the speed of that vehicle if it is placed behind it.
+     * @param vehicle Generated vehicle.
+     * @param x Position [m] on the lane if there is no vehicle in front.
+     * @return Whether the vehicle was placed, <tt>false</tt> if there is no room.
      */
-    //TODO: remove this is no longer needed
-    private double headway() {
-        double headway = 0;
-        if (demand > 0) {
-            double dt = 60 / demand; // average headway
-            if (headwayDistribution == Distribution.UNIFORM) {
-                // always the average headway
-                headway = dt;
-            } else if (headwayDistribution == Distribution.EXPONENTIAL) {
-                // note: r = -log(uniform)/gamma & mean = 1/gamma
-                headway = -Math.log(ProbabilityDistribution.RANDOM.nextDouble()) * dt;
+    private boolean place(AbstractVehicle vehicle, double x) {
+        jLane lane = getLane();
+        x = Math.min(x, lane.getL());
+        double speed = meanSpeed;
+        jVehicle last = lane.findVehicle(0, LongDirection.DOWN);
+        if (last != null && last.getLane() == lane) {
+            // the collision check of a vehicle compares with its own length, see AbstractVehicle.sense()
+            double max = last.getX() - Math.max(last.getLength(), vehicle.getLength())
+                    - vehicle.getDriver().getDouble(IDMPlus.S0);
+            if (max < 0) {
+                return false;
+            }
+            if (x > max) {
+                x = max;
+                speed = Math.min(speed, last.getSpeed());
             }
-        } else {
-            // no demand
-            headway = Double.POSITIVE_INFINITY;
         }
-        return headway;
+        vehicle.setSpeed(speed);
+        generator.addToSimulation(vehicle, x);
+        register(vehicle);
+        return true;
+    }
+
+    /**
+     * @return Number of vehicles waiting for room at the start of the lane plus the number of
+     * vehicles still to be released in the current interval, see {@link HeadwayProcess#remaining()}.
+     */
+    @Override
+    public int getQueue() {
+        return waiting + (int) Math.round(headwayProcess.remaining());
+    }
+
+    @Override
+    public void noControl() {
+        // Do Nothing.
     }
 
+    protected abstract void register(AbstractVehicle vehicle);
 
     /** Enumeration of possible headway distributions. */
     public enum Distribution {
@@ -184,6 +191,10 @@ public abstract class AbstractDynamicDemandGenerator extends AbstractQueuedTraff
         EXPONENTIAL,
         /** Vehicles are uniformely spread over time (fixed headway). */
         UNIFORM,
+        /**
+         * Exponential headways of which the rate changes linearly towards the demand of
+         * the next interval, see {@link HeadwayProcess}.
+         */
         POISSON;
     }
 
@@ -208,8 +219,7 @@ public abstract class AbstractDynamicDemandGenerator extends AbstractQueuedTraff
         }
 
         public Builder setHeadwayDistribution(Distribution headwayDistribution) {
-            this.headwayDistribution = headwayDistribution;
-            return this;
+                return this;
         }
 
         public abstract AbstractDynamicDemandGenerator build();
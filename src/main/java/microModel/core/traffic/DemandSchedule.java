@@ -0,0 +1,125 @@
+package microModel.core.traffic;
+
+import microModel.util.TableData;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * <p>
+ * Time-indexed view over a demand time series. The timestamp, demand and speed
+ * columns of a {@link TableData} are copied once into sorted primitive arrays and
+ * a cursor is advanced monotonically as simulation time progresses.
+ * </p><p>
+ * Looking up the demand of the current interval is O(1) amortised and does not
+ * allocate, which makes it suitable for use in {@link microModel.core.device.jController#control()}
+ * which is called every time step.
+ * </p>
+ */
+public class DemandSchedule {
+
+    /** Sorted interval start times [s]. */
+    private final long[] times;
+    /** Demand level per interval [veh/interval]. */
+    private final long[] demand;
+    /** Mean speed per interval [km/h]. */
+    private final long[] speed;
+    /** Index of the interval that is currently active, -1 before the first interval. */
+    private int cursor = -1;
+
+    /**
+     * Creates a schedule from the given table.
+     *
+     * @param data         demand data, rows need not be sorted.
+     * @param timeColumn   column holding the interval start time [s].
+     * @param demandColumn column holding the demand value.
+     * @param speedColumn  column holding the mean speed [km/h].
+     */
+    public DemandSchedule(final TableData<Long> data, final int timeColumn, int demandColumn, int speedColumn) {
+        int n = data.rowSize();
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer r1, Integer r2) {
+                return data.get(r1, timeColumn).compareTo(data.get(r2, timeColumn));
+            }
+        });
+
+        times = new long[n];
+        demand = new long[n];
+        speed = new long[n];
+        for (int i = 0; i < n; i++) {
+            int row = order[i];
+            times[i] = data.get(row, timeColumn);
+            demand[i] = data.get(row, demandColumn);
+            speed[i] = data.get(row, speedColumn);
+        }
+    }
+
+    /**
+     * Moves the cursor to the most recent interval that started at or before
+     * the given time. The cursor never moves backwards.
+     *
+     * @param t absolute time [s].
+     * @return true if a new interval has been entered.
+     */
+    public boolean advanceTo(long t) {
+        int previous = cursor;
+        while (cursor + 1 < times.length && times[cursor + 1] <= t) {
+            cursor++;
+        }
+        return cursor != previous;
+    }
+
+    /** @return true if the cursor points at an interval. */
+    public boolean isActive() {
+        return cursor >= 0;
+    }
+
+    /** @return start time of the current interval [s]. */
+    public long time() {
+        return times[cursor];
+    }
+
+    /** @return demand of the current interval, 0 before the first interval. */
+    public long demand() {
+        return cursor < 0 ? 0 : demand[cursor];
+    }
+
+    /**
+     * @return demand of the next interval, that of the current interval if it is the last,
+     * 0 before the first interval.
+     */
+    public long nextDemand() {
+        if (cursor < 0) {
+            return 0;
+        }
+        return cursor + 1 < times.length ? demand[cursor + 1] : demand[cursor];
+    }
+
+    /** @return mean speed of the current interval [km/h], 0 before the first interval. */
+    public long speed() {
+        return cursor < 0 ? 0 : speed[cursor];
+    }
+
+    /**
+     * <p> Determines the data sampling rate. This is the time
+     * difference between the first two timestamps.
+     * </p><p>
+     * It assumes that the interval size remains constant in the data.
+     * </p>
+     *
+     * @return the data sample rate [s], 0 if there are fewer than two intervals.
+     */
+    public long interval() {
+        return times.length < 2 ? 0 : times[1] - times[0];
+    }
+
+    /** @return number of intervals in the schedule. */
+    public int size() {
+        return times.length;
+    }
+}
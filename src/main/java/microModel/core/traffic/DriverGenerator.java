@@ -25,11 +25,20 @@ public abstract class DriverGenerator {
     }
 
     public void addToSimulation(AbstractVehicle vehicle) {
+        addToSimulation(vehicle, 0);
+    }
+
+    /**
+     * Adds a vehicle to the simulation at a position on its lane.
+     * @param vehicle Vehicle.
+     * @param atX Position [m] on the lane of the vehicle.
+     */
+    public void addToSimulation(AbstractVehicle vehicle, double atX) {
         if (vehicle.getLane() == null) {
             return;
         }
         jModel model = jModel.getInstance();
         model.addVehicle(vehicle);
-        vehicleClass.putOnLane(vehicle.getLane(), vehicle);
+        vehicleClass.putOnLane(vehicle.getLane(), vehicle, atX);
     }
 }
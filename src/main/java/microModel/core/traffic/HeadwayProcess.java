@@ -0,0 +1,163 @@
+package microModel.core.traffic;
+
+import microModel.core.traffic.AbstractDynamicDemandGenerator.Distribution;
+
+import java.util.Random;
+
+/**
+ * <p>
+ * Generates the release times of vehicles within a demand interval one at a time, so
+ * the release times of an interval are not all held in memory.
+ * </p><p>
+ * <ul>
+ * <li>{@link Distribution#UNIFORM}: fixed headways of the interval length over the demand.</li>
+ * <li>{@link Distribution#EXPONENTIAL}: exponential headways with a constant rate over the
+ * interval, i.e. a homogeneous Poisson process. Headways are sampled with the inverse of
+ * the cumulative distribution function.</li>
+ * <li>{@link Distribution#POISSON}: a non-homogeneous Poisson process of which the rate
+ * changes linearly from the demand of the interval to the demand of the next interval.
+ * Release times are sampled by thinning: candidates are generated at the maximum rate and
+ * accepted with the ratio of the rate at the candidate time and the maximum rate.</li>
+ * </ul>
+ * </p><p>
+ * Random numbers are taken from the given generator, so a seeded generator gives
+ * repeatable release times. Sampling does not allocate.
+ * </p>
+ */
+public final class HeadwayProcess {
+
+    private final Distribution distribution;
+
+    private final Random random;
+
+    /** Start time [s] of the interval. */
+    private double start;
+
+    /** End time [s] of the interval. */
+    private double end;
+
+    /** Rate [veh/s] at the start of the interval. */
+    private double rateStart;
+
+    /** Rate [veh/s] at the end of the interval. */
+    private double rateEnd;
+
+    /** Maximum rate [veh/s] within the interval. */
+    private double rateMax;
+
+    /** Number of vehicles in the interval, for uniform headways. */
+    private long count;
+
+    /** Number of release times generated in the interval. */
+    private long generated;
+
+    /** Next release time [s], infinite if there are no more in the interval. */
+    private double next = Double.POSITIVE_INFINITY;
+
+    /**
+     * @param distribution Headway distribution.
+     * @param random Random number generator.
+     */
+    public HeadwayProcess(Distribution distribution, Random random) {
+        this.distribution = distribution;
+        this.random = random;
+    }
+
+    /**
+     * Starts a new interval. Release times of the previous interval that were not taken
+     * are dropped.
+     * @param start Start time [s] of the interval.
+     * @param end End time [s] of the interval.
+     * @param demand Number of vehicles in the interval.
+     * @param nextDemand Number of vehicles in the next interval, only used for {@link Distribution#POISSON}.
+     */
+    public void reset(double start, double end, long demand, long nextDemand) {
+        this.start = start;
+        this.end = end;
+        double length = end - start;
+        count = demand;
+        generated = 0;
+        rateStart = length > 0 ? demand / length : 0;
+        rateEnd = length > 0 ? nextDemand / length : 0;
+        if (distribution != Distribution.POISSON) {
+            rateEnd = rateStart;
+        }
+        rateMax = Math.max(rateStart, rateEnd);
+        next = start;
+        advance();
+    }
+
+    /**
+     * @return Next release time [s], infinite if there are no more in the interval.
+     */
+    public double peek() {
+        return next;
+    }
+
+    /**
+     * @return Number of release times left in the interval, including {@link #peek()}. For
+     * random headways, the release times after {@link #peek()} are the expected number.
+     */
+    public double remaining() {
+        if (next == Double.POSITIVE_INFINITY) {
+            return 0;
+        }
+        if (distribution == Distribution.UNIFORM) {
+            return count - generated + 1;
+        }
+        return 1 + (rate(next) + rateEnd) / 2 * (end - next);
+    }
+
+    /**
+     * Takes the next release time and generates the one after it.
+     * @return Next release time [s], infinite if there are no more in the interval.
+     */
+    public double poll() {
+        double t = next;
+        if (t < end) {
+            advance();
+        }
+        return t;
+    }
+
+    /** Sets {@link #next} to the release time following the current {@link #next}. */
+    private void advance() {
+        if (!(rateMax > 0)) {
+            next = Double.POSITIVE_INFINITY;
+            return;
+        }
+        double t;
+        if (distribution == Distribution.UNIFORM) {
+            t = generated < count ? start + generated * ((end - start) / count) : Double.POSITIVE_INFINITY;
+        } else if (distribution == Distribution.EXPONENTIAL) {
+            t = next + exponential(random, rateMax);
+        } else {
+            t = next;
+            do {
+                t = t + exponential(random, rateMax);
+            } while (t < end && random.nextDouble() * rateMax > rate(t));
+        }
+        generated++;
+        next = t < end ? t : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @param t Time [s] within the interval.
+     * @return Rate [veh/s] at the given time.
+     */
+    private double rate(double t) {
+        return rateStart + (rateEnd - rateStart) * (t - start) / (end - start);
+    }
+
+    /**
+     * Samples an exponentially distributed headway by inverting the cumulative
+     * distribution function <tt>F(h) = 1 - exp(-rate * h)</tt>.
+     * @param random Random number generator.
+     * @param rate Rate [veh/s].
+     * @return Headway [s].
+     */
+    public static double exponential(Random random, double rate) {
+        // 1 - u is in (0, 1], so the logarithm is finite
+        return -Math.log(1 - random.nextDouble()) / rate;
+    }
+}
@@ -24,11 +24,11 @@ public abstract class AbstractVehicle extends Movable implements jVehicle{
 
     protected boolean crashed;
 
-    /** LaneType where the movable is at. */
-    private jLane lane;
+    /** LaneType where the movable is at. Only written by the simulation thread. */
+    private volatile jLane lane;
 
-    /** Position on the lane. */
-    private double x;
+    /** Position on the lane. Only written by the simulation thread. */
+    private volatile double x;
 
     /** Used for keeping track of moving objects in the surroundings of this vehicle. */
     private Map<Enclosure, jVehicle> surroundings = new HashMap<Enclosure, jVehicle>();
@@ -54,7 +54,7 @@ public abstract class AbstractVehicle extends Movable implements jVehicle{
     }
 
     @Override
-    public synchronized jLane getLane() {
+    public jLane getLane() {
         return lane;
     }
 
@@ -71,8 +71,10 @@ public abstract class AbstractVehicle extends Movable implements jVehicle{
     };
 
 
-    protected synchronized void setLane(jLane lane){
+    protected void setLane(jLane lane){
+        beginUpdate();
         this.lane = lane;
+        endUpdate();
     }
 
     /**
@@ -87,12 +89,17 @@ public abstract class AbstractVehicle extends Movable implements jVehicle{
      * @param atX The X position on which the vehicle should be after this function call. This
      *            should be in the coordinate system of the {@code newLane}.
      */
-    protected synchronized void updateLane(jLane newLane, double fromX, double atX) {
-        if (lane != null) {
-            lane.removeVehicle(this);
+    protected void updateLane(jLane newLane, double fromX, double atX) {
+        beginUpdate();
+        try {
+            if (lane != null) {
+                lane.removeVehicle(this);
+            }
+            lane = newLane;
+            lane.addVehicle(this, fromX, atX);
+        } finally {
+            endUpdate();
         }
-        lane = newLane;
-        lane.addVehicle(this, fromX, atX);
     }
 
     @Override
@@ -101,7 +108,9 @@ public abstract class AbstractVehicle extends Movable implements jVehicle{
     }
 
     public void setX(double x) {
+        beginUpdate();
         this.x = x;
+        endUpdate();
     }
 
     @Override
@@ -270,11 +279,13 @@ public abstract class AbstractVehicle extends Movable implements jVehicle{
         final jModel model = jModel.getInstance();
         model.removeVehicle(this);
         getLane().getVehicles().remove(this);
+        // the driver may be reused before the entity is deleted
+        final int driverID = getDriver().getID();
         jModel.APL_UPDATE_THREAD_POOL.execute(new Runnable() {
             @Override
             public void run() {
                 try {
-                    model.getEnvironment().deleteEntity("driver" + getDriver().getID());
+                    model.getEnvironment().deleteEntity("driver" + driverID);
                 } catch (EntityException e) {
                     e.printStackTrace();
                 } catch (RelationException e) {
@@ -286,26 +297,45 @@ public abstract class AbstractVehicle extends Movable implements jVehicle{
 
     /**
      * Places a vehicle on a lane, sets new neighbours and sets this vehicle as
-     * neighbour of surrounding vehicles.
+     * neighbour of surrounding vehicles. The vehicle is considered to have entered
+     * the lane at its start, i.e. it passes the RSUs upstream of <tt>atX</tt>.
      *
      * @param atLane LaneType where the vehicle needs to be placed at.
      * @param atX    Location where the vehicle needs to be placed at.
      */
     @Override
     public void paste(jLane atLane, double atX) {
-        // In case the lane is exceeded, change the lane to search on. This
-        // could occur when searching for neighbours when ending a lane change
-        // within the same time step a lane is exceeded.
-        setJustExceededLane(true);
-        if (atX > atLane.getL() && atLane.getDown() != null) {
-            paste(atLane.getDown(), atX - atLane.getL());
-            //also notify the lanes that have already been passed so they can notify their observers.
-            updateLane(atLane, 0, atLane.getL());
-            return;
+        paste(atLane, 0, atX);
+    }
+
+    /**
+     * Places a vehicle on a lane, passing the RSUs in [<tt>fromX</tt>, <tt>atX</tt>).
+     * For a lateral move, e.g. at the end of a lane change, <tt>fromX</tt> equals
+     * <tt>atX</tt>.
+     *
+     * @param atLane LaneType where the vehicle needs to be placed at.
+     * @param fromX  Location the vehicle comes from, in the coordinate system of <tt>atLane</tt>.
+     * @param atX    Location where the vehicle needs to be placed at.
+     */
+    protected void paste(jLane atLane, double fromX, double atX) {
+        beginUpdate();
+        try {
+            // In case the lane is exceeded, change the lane to search on. This
+            // could occur when searching for neighbours when ending a lane change
+            // within the same time step a lane is exceeded.
+            setJustExceededLane(true);
+            if (atX > atLane.getL() && atLane.getDown() != null) {
+                //notify the RSUs of the lane that is passed and continue on the downstream lane.
+                atLane.passRSUs(this, fromX, atX);
+                paste(atLane.getDown(), fromX - atLane.getL(), atX - atLane.getL());
+                return;
+            }
+            // set properties
+            setX(atX);
+            updateLane(atLane, fromX, atX);
+        } finally {
+            endUpdate();
         }
-        // set properties
-        setX(atX);
-        updateLane(atLane, 0, atX);
     }
 
     /**
@@ -327,6 +357,22 @@ public abstract class AbstractVehicle extends Movable implements jVehicle{
         updateSurrounding(Enclosure.RIGHT_DOWNSTREAM, null);
     }
 
+    @Override
+    protected void reset() {
+        super.reset();
+        crashed = false;
+        lane = null;
+        x = 0;
+        surroundings.clear();
+        surroundings.put(Enclosure.CURRENT_LOCATION, this);
+        leftIndicator = false;
+        rightIndicator = false;
+        justExceededLane = false;
+        maxDeceleration = 0;
+        maxAcceleration = 0;
+        accelerations.clear();
+    }
+
     public boolean isJustExceededLane() {
         return justExceededLane;
     }
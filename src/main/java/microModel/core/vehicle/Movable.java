@@ -11,6 +11,17 @@ import java.util.List;
  * lane change vehicles. This is the position on the network and relative to
  * neighbouring movables. Common methods are related to position, neighbours and
  * visualisation.
+ * <p>
+ * The state of a movable is only written by the simulation thread, which may read any of it
+ * without locking. Other threads (GUI, EIS) may read single values through the getters of
+ * volatile fields, e.g. {@link #getSpeed()}, but values from several getters may belong to
+ * different time steps. Readers that need the position, speed, acceleration and lane of a
+ * vehicle together use {@link Vehicle#readState(VehicleState)}. The simulation thread
+ * brackets every change of that state with {@link #beginUpdate()} and {@link #endUpdate()},
+ * which makes the version odd while it changes, so that readers can retry until they read
+ * the same even version before and after (a sequence lock). Other state, such as the
+ * neighbours, is for the simulation thread only.
+ * </p>
  */
 
 public abstract class Movable implements jMovable {
@@ -20,56 +31,166 @@ public abstract class Movable implements jMovable {
      * information to detectors.
      */
     protected List<jObserver> observers = new ArrayList<jObserver>();
-    /** Normalized heading of the vehicle. */
-    public Point2D.Double heading = new Point2D.Double();
+    /** Normalized heading of the vehicle, updated in place. */
+    private final Point2D.Double heading = new Point2D.Double();
     /** Speed of the movable [m/s]. */
-    protected double v;
+    protected volatile double v;
     /** Acceleration of the movable [m/s^2]. */
-    protected double a;
+    protected volatile double a;
     /** Movable length [m]. */
     protected double l;
-    /** Global x and y coordinates. */
-    private Point2D.Double coordinates;
+    /** Global x and y coordinates, updated in place. */
+    private final Point2D.Double coordinates = new Point2D.Double();
+    /** Whether the coordinates and heading correspond to the current position. */
+    private volatile boolean coordinatesValid;
+    /** Copies of the coordinates and heading for readers on other threads, see {@link #copyCoordinates}. */
+    private volatile double coordinateX, coordinateY, headingX, headingY;
+    /**
+     * Version of the state, odd while the simulation thread is changing it. The fields read
+     * under it are volatile too, so their reads are not reordered around reading the version.
+     */
+    private volatile int version;
+    /** Depth of nested updates, only used by the simulation thread. */
+    private int updates;
+
+    /**
+     * Marks the start of a change of the state by the simulation thread. Updates may be
+     * nested, the version changes at the outermost update only.
+     */
+    protected final void beginUpdate() {
+        if (updates++ == 0) {
+            version++;
+        }
+    }
+
+    /**
+     * Marks the end of a change of the state by the simulation thread.
+     * @see #beginUpdate()
+     */
+    protected final void endUpdate() {
+        if (--updates == 0) {
+            version++;
+        }
+    }
+
+    /**
+     * Waits until the simulation thread is not changing the state.
+     * @return Version of the state to pass to {@link #isVersion(int)} after reading it.
+     */
+    protected final int awaitVersion() {
+        int version;
+        while (((version = this.version) & 1) != 0) {
+            Thread.yield();
+        }
+        return version;
+    }
+
+    /**
+     * Whether the state has not changed since {@link #awaitVersion()} returned the given version.
+     */
+    protected final boolean isVersion(int version) {
+        return this.version == version;
+    }
 
+    /**
+     * Returns the global coordinates. The returned point is updated in place as the
+     * movable moves, copy it to keep a position. While there are consumers of coordinates
+     * the simulation thread keeps the coordinates valid, so readers on other threads never
+     * calculate them.
+     */
     @Override
     public Point2D.Double getCoordinates() {
+        if (!coordinatesValid) {
+            updateCoordinates();
+        }
         return this.coordinates;
     }
 
-    /** Sets the global x and y positions, as implemented by a subclass. */
-    protected void setCoordinates(Point2D.Double coordinates) {
-        this.coordinates = coordinates;
+    /**
+     * Updates the coordinates and heading after the position has changed. They are
+     * calculated right away if there are consumers of coordinates, and are otherwise
+     * marked as outdated and calculated when requested.
+     * @param consumers Whether there are consumers of coordinates, see
+     * {@link microModel.jModel#hasCoordinateConsumers()}.
+     */
+    protected void positionChanged(boolean consumers) {
+        if (consumers) {
+            updateCoordinates();
+        } else {
+            coordinatesValid = false;
+        }
+    }
+
+    private void updateCoordinates() {
+        calculateCoordinates(coordinates, heading);
+        coordinateX = coordinates.x;
+        coordinateY = coordinates.y;
+        headingX = heading.x;
+        headingY = heading.y;
+        coordinatesValid = true;
+    }
+
+    /**
+     * Copies the coordinates and heading as calculated by the simulation thread, if they
+     * correspond to the current position. This is read under the version of the state,
+     * see {@link #awaitVersion()}.
+     * @param coordinates Point to set the global x and y coordinates in.
+     * @param heading Point to set the normalized heading in.
+     * @return Whether the coordinates and heading were copied.
+     */
+    protected final boolean copyCoordinates(Point2D.Double coordinates, Point2D.Double heading) {
+        if (!coordinatesValid) {
+            return false;
+        }
+        coordinates.setLocation(coordinateX, coordinateY);
+        heading.setLocation(headingX, headingY);
+        return true;
     }
 
+    /**
+     * Calculates the global coordinates and heading from the position, as implemented by
+     * a subclass.
+     * @param coordinates Point to set the global x and y coordinates in.
+     * @param heading Point to set the normalized heading in.
+     */
+    protected abstract void calculateCoordinates(Point2D.Double coordinates, Point2D.Double heading);
+
     @Override
     public Point2D.Double getHeading() {
+        if (!coordinatesValid) {
+            updateCoordinates();
+        }
         return this.heading;
     }
 
     @Override
     public void setHeading(final Point2D.Double heading) {
-        double normalizationFactor = Math.sqrt(Math.pow(heading.x, 2) + Math.pow(heading.y, 2));
-        this.heading = new Point2D.Double(heading.x / normalizationFactor, heading.y / normalizationFactor);
+        double normalizationFactor = Math.sqrt(heading.x * heading.x + heading.y * heading.y);
+        this.heading.setLocation(heading.x / normalizationFactor, heading.y / normalizationFactor);
     }
 
     @Override
-    public synchronized double getSpeed() {
+    public double getSpeed() {
         return this.v;
     }
 
     @Override
-    public synchronized void setSpeed(double v) {
+    public void setSpeed(double v) {
+        beginUpdate();
         this.v = v;
+        endUpdate();
     }
 
     @Override
-    public synchronized double getAcceleration() {
+    public double getAcceleration() {
         return this.a;
     }
 
     @Override
-    public synchronized void setAcceleration(double a) {
+    public void setAcceleration(double a) {
+        beginUpdate();
         this.a = a;
+        endUpdate();
     }
 
     @Override
@@ -92,6 +213,18 @@ public abstract class Movable implements jMovable {
         observers.clear();
     }
 
+    /**
+     * Resets the state of the movable to that of a newly created movable, such that the
+     * instance can be reused. Subclasses that add state should extend this method.
+     */
+    protected void reset() {
+        observers.clear();
+        v = 0;
+        a = 0;
+        l = 0;
+        coordinatesValid = false;
+    }
+
     /**
      * Moves the moveable object according to acceleration, speed and heading.
      * @param dt The time delta for calculating the movement of the object.
@@ -7,8 +7,6 @@ import microModel.core.road.device.AbstractRSU;
 import microModel.core.road.LatDirection;
 import microModel.core.road.jLane;
 import microModel.jModel;
-import microModel.settings.BuiltInSettings;
-import microModel.settings.jSettings;
 import org.apache.log4j.Logger;
 
 import java.awt.geom.Point2D;
@@ -27,8 +25,8 @@ public class Vehicle extends AbstractVehicle {
     /** Current lateral speed in 'amount of lane per time step' [0...1]. */
     public double dy;
 
-    /** Total progress of a lane change in 'amount of lane' [0...1]. */
-    public double laneChangeProgress;
+    /** Total progress of a lane change in 'amount of lane' [0...1]. Only written by the simulation thread. */
+    public volatile double laneChangeProgress;
 
     /** Lane change direction. */
     public LatDirection lcDirection;
@@ -39,6 +37,9 @@ public class Vehicle extends AbstractVehicle {
     /** Vehicle class ID. */
     public int classID;
 
+    /** Class to which the vehicle is returned for reuse when deleted, <tt>null</tt> if not pooled. */
+    jClass pool;
+
     @Override
     public boolean isChangingLane() {
         return laneChangeProgress > 0 ;
@@ -74,25 +75,33 @@ public class Vehicle extends AbstractVehicle {
          */
 
         if (!crashed) {
-            if (jSettings.getInstance().get(BuiltInSettings.DEBUG_MODEL)) {
-                accelerations.put(jModel.getInstance().getT(), a);
-            }
-            // lateral
-            setJustExceededLane(false);
-            laneChangeProgress = laneChangeProgress + dy;
-            // longitudinal
-            double dx = dt * v + .5 * a * dt * dt;
-            dx = dx >= 0 ? dx : 0;
-            v = v + dt * a;
-            v = v >= 0 ? v : 0;
-            //Notifies the lane that this vehicle is moving.
-            for (jObserver observer: observers) {
-                observer.see(this);
-            }
-            translate(dx, dy);
-            setXY();
-            if ((dy != 0) && (laneChangeProgress >=1)) {
-                endLaneChange();
+            beginUpdate();
+            try {
+                double a = this.a;
+                double v = this.v;
+                jModel model = jModel.getInstance();
+                if (model.getSettings().debugModel) {
+                    accelerations.put(model.getT(), a);
+                }
+                // lateral
+                setJustExceededLane(false);
+                laneChangeProgress = laneChangeProgress + dy;
+                // longitudinal
+                double dx = dt * v + .5 * a * dt * dt;
+                dx = dx >= 0 ? dx : 0;
+                v = v + dt * a;
+                this.v = v >= 0 ? v : 0;
+                //Notifies the lane that this vehicle is moving.
+                for (jObserver observer: observers) {
+                    observer.see(this);
+                }
+                translate(dx, dy);
+                if ((dy != 0) && (laneChangeProgress >=1)) {
+                    endLaneChange();
+                }
+                positionChanged(model.hasCoordinateConsumers());
+            } finally {
+                endUpdate();
             }
         }
     }
@@ -107,14 +116,18 @@ public class Vehicle extends AbstractVehicle {
     private void translate(double dx, double dy) {
 
         jModel model = jModel.getInstance();
-        jSettings settings = jSettings.getInstance();
 
         // Move movable downstream
-        setX(getX() + dx);
+        double fromX = getX();
+        setX(fromX + dx);
+        getLane().passRSUs(this, fromX, getX());
+        if (model.getAggregation() != null) {
+            model.getAggregation().moved(getLane(), fromX, getX(), model.getStepSize());
+        }
         setJustExceededLane(false);
         if (getX() > getLane().getL()) {
             setJustExceededLane(true);
-            if (getLane().getDestination() == this.driver.getRoute().destinations()[0]) {
+            if (getLane().getDestination() == this.driver.getRoute().destination(0)) {
                 logger.debug("Vehicle reached destination " + getLane().getDestination());
                 delete();
             } else if (getLane().getDown() == null && getLane().getDestination() == 0) {
@@ -163,15 +176,77 @@ public class Vehicle extends AbstractVehicle {
             toggleRightIndicator();
         }
         cut();
-        paste(targetLane, targetX);
+        paste(targetLane, targetX, targetX);
         laneChangeProgress = 0;
         dy = 0;
     }
 
+    /**
+     * Deletes the vehicle and returns it to its class for reuse, if pooling is enabled.
+     */
+    @Override
+    public void delete() {
+        super.delete();
+        if (pool != null) {
+            jClass c = pool;
+            pool = null;
+            c.release(this);
+        }
+    }
+
+    @Override
+    protected void reset() {
+        beginUpdate();
+        try {
+            super.reset();
+            OBU = null;
+            driver = null;
+            dy = 0;
+            laneChangeProgress = 0;
+            lcDirection = null;
+            vMax = 0;
+            classID = 0;
+            pool = null;
+        } finally {
+            endUpdate();
+        }
+    }
+
     public void abortLaneChange() {
         // instantaneous abort of lane change
+        beginUpdate();
         laneChangeProgress = 0;
         dy = 0;
+        endUpdate();
+    }
+
+    /**
+     * Reads the position, speed, acceleration, lane, lane change progress, coordinates and
+     * heading of this vehicle as they were at one moment, also while the simulation thread
+     * is moving it. The coordinates and heading are copied if the simulation thread keeps
+     * them for consumers of coordinates, see {@link jModel#addCoordinateConsumer(Object)},
+     * and are calculated from the position otherwise.
+     * @param state State to read into, which may be reused.
+     * @return The given state.
+     */
+    public VehicleState readState(VehicleState state) {
+        int version;
+        boolean copied;
+        do {
+            version = awaitVersion();
+            state.lane = getLane();
+            state.x = getX();
+            state.v = v;
+            state.a = a;
+            state.laneChangeProgress = laneChangeProgress;
+            copied = copyCoordinates(state.coordinates, state.heading);
+        } while (!isVersion(version));
+        state.length = l;
+        if (!copied && state.lane != null) {
+            state.lane.XY(state.x, state.coordinates);
+            state.lane.heading(state.x, state.heading);
+        }
+        return state;
     }
 
 
@@ -190,10 +265,10 @@ public class Vehicle extends AbstractVehicle {
      * Sets global x and y coordinates. This may be in between two lanes in case
      * of a lane change.
      */
-    private void setXY() {
-        Point2D.Double coord = atLaneXY();
-        setCoordinates(new Point2D.Double(coord.x, coord.y));
-        heading = getLane().heading(getX());
+    @Override
+    protected void calculateCoordinates(Point2D.Double coordinates, Point2D.Double heading) {
+        getLane().XY(getX(), coordinates);
+        getLane().heading(getX(), heading);
     }
 
     /**
@@ -213,7 +288,8 @@ public class Vehicle extends AbstractVehicle {
      * @return Distance [m] between vehicle and RSU.
      */
     public double getDistanceToRSU(AbstractRSU rsu) {
-        return rsu.getX() + getLane().xAdj(rsu.lane) - getX();
+        jLane rsuLane = rsu.isAt(getLane()) ? getLane() : rsu.lane;
+        return rsu.getX(rsuLane) + getLane().xAdj(rsuLane) - getX();
     }
 
     /**
@@ -278,13 +354,23 @@ public class Vehicle extends AbstractVehicle {
         }
 
         public Vehicle build() {
-            Vehicle vehicle = new Vehicle();
+            return build(new Vehicle());
+        }
+
+        /**
+         * Initializes a new or reset vehicle with the values of this builder.
+         * @param vehicle Vehicle.
+         * @return The given vehicle.
+         */
+        Vehicle build(Vehicle vehicle) {
             vehicle.vMax = vMax;
             vehicle.maxDeceleration = maxDeceleraion;
             vehicle.maxAcceleration = maxAcceleration;
+            vehicle.beginUpdate();
             vehicle.l = l;
             vehicle.setLane(lane);
-            vehicle.setXY();
+            vehicle.positionChanged(jModel.getInstance().hasCoordinateConsumers());
+            vehicle.endUpdate();
             return vehicle;
         }
 
@@ -0,0 +1,70 @@
+package microModel.core.vehicle;
+
+import microModel.core.road.jLane;
+
+import java.awt.geom.Point2D;
+
+/**
+ * State of a vehicle at one moment, for readers on threads other than the simulation
+ * thread. It is filled by {@link Vehicle#readState(VehicleState)} and may be reused
+ * by a single reader.
+ */
+public final class VehicleState {
+
+    /** Lane of the vehicle. */
+    jLane lane;
+    /** Position on the lane [m]. */
+    double x;
+    /** Speed [m/s]. */
+    double v;
+    /** Acceleration [m/s^2]. */
+    double a;
+    /** Lane change progress [0...1]. */
+    double laneChangeProgress;
+    /** Vehicle length [m]. */
+    double length;
+    /** Global x and y coordinates. */
+    final Point2D.Double coordinates = new Point2D.Double();
+    /** Normalized heading. */
+    final Point2D.Double heading = new Point2D.Double();
+
+    /** @return {@link #lane} */
+    public jLane getLane() {
+        return lane;
+    }
+
+    /** @return {@link #x} */
+    public double getX() {
+        return x;
+    }
+
+    /** @return {@link #v} */
+    public double getSpeed() {
+        return v;
+    }
+
+    /** @return {@link #a} */
+    public double getAcceleration() {
+        return a;
+    }
+
+    /** @return {@link #laneChangeProgress} */
+    public double getLaneChangeProgress() {
+        return laneChangeProgress;
+    }
+
+    /** @return {@link #length} */
+    public double getLength() {
+        return length;
+    }
+
+    /** @return {@link #coordinates} */
+    public Point2D.Double getCoordinates() {
+        return coordinates;
+    }
+
+    /** @return {@link #heading} */
+    public Point2D.Double getHeading() {
+        return heading;
+    }
+}
@@ -5,8 +5,11 @@ import microModel.core.driver.model.IDMPlus;
 import microModel.core.road.jLane;
 import microModel.jModel;
 import microModel.random.ProbabilityDistribution;
+import microModel.settings.SettingsSnapshot;
 import org.apache.log4j.Logger;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -32,6 +35,14 @@ import java.util.Map;
  * then be adapted. Note that both the OBU and the driver also belong to the
  * vehicle, including all their attributes (modelParameters).
  * </p>
+ * <p>
+ * If {@link microModel.settings.BuiltInSettings#VEHICLE_POOL_SIZE} is positive, deleted
+ * vehicles of this class are kept and reset, together with their drivers, to generate new
+ * vehicles instead of building new vehicles. Pooling is only used if the driver builder is a
+ * {@link jDriver.ReusableBuilder}, as other drivers, e.g. agents, may still act on their
+ * vehicle after it is deleted. Pooling is also not used while trajectories or model actions
+ * are logged, as these logs are kept by vehicle instance.
+ * </p>
  */
 public class jClass {
 
@@ -52,6 +63,9 @@ public class jClass {
     private Map<String, ProbabilityDistribution<Double>> stochasticDriverParameters =
             new HashMap<String, ProbabilityDistribution<Double>>();
 
+    /** Deleted vehicles that can be reused. */
+    private final Deque<Vehicle> pool = new ArrayDeque<Vehicle>();
+
     public jClass(Vehicle.Builder vehicleBuilder, jDriver.Builder driverBuilder){
         this.id = classCounter++;
         this.vehicleBuilder = vehicleBuilder;
@@ -76,15 +90,23 @@ public class jClass {
         // start of with the default vehicle
         Vehicle veh;
         jDriver d;
-        if (onLane == null) {
+        if (onLane != null) {
+            vehicleBuilder.onLane(onLane);
+        }
+        Vehicle reused = pool.poll();
+        if (reused == null) {
             veh = vehicleBuilder.build();
+            d = driverBuilder.build();
         }
         else {
-            veh = vehicleBuilder.onLane(onLane).build();
+            jDriver driver = reused.driver;
+            reused.reset();
+            veh = vehicleBuilder.build(reused);
+            // only vehicles with a reusable driver are pooled
+            d = ((jDriver.ReusableBuilder) driverBuilder).rebuild(driver);
         }
 //        logger.debug("Generated Vehicle " + veh);
 
-        d = driverBuilder.build();
         d.setVehicle(veh);
         veh.getDriver().setID(id);
 
@@ -97,11 +119,48 @@ public class jClass {
             veh.OBU.init();
         }
         veh.setSpeed(withSpeed);
+        SettingsSnapshot settings = jModel.getInstance().getSettings();
+        if (settings.vehiclePoolSize > 0 && !settings.debugTrajectory && !settings.debugModel
+                && driverBuilder instanceof jDriver.ReusableBuilder) {
+            veh.pool = this;
+        }
         return veh;
     }
 
+    /**
+     * Keeps a deleted vehicle of this class for reuse, if the pool is not full. The vehicle
+     * is reset when it is reused, as it may still be in use during the time step in which
+     * it is deleted. Vehicles of which the driver cannot be reused are not kept.
+     * @param vehicle Deleted vehicle.
+     */
+    void release(Vehicle vehicle) {
+        if (driverBuilder instanceof jDriver.ReusableBuilder
+                && pool.size() < jModel.getInstance().getSettings().vehiclePoolSize) {
+            pool.push(vehicle);
+        }
+    }
+
+    /**
+     * @return Number of deleted vehicles kept for reuse.
+     */
+    public int getPoolSize() {
+        return pool.size();
+    }
+
     public void putOnLane(jLane onLane, AbstractVehicle vehicle) {
-        vehicle.updateLane(onLane, 0, 0);
+        putOnLane(onLane, vehicle, 0);
+    }
+
+    /**
+     * Places a vehicle on a lane at a position downstream of the start of the lane, as
+     * if it entered the lane at the start.
+     * @param onLane Lane.
+     * @param vehicle Vehicle.
+     * @param atX Position [m] on the lane.
+     */
+    public void putOnLane(jLane onLane, AbstractVehicle vehicle, double atX) {
+        vehicle.setX(atX);
+        vehicle.updateLane(onLane, 0, atX);
     }
 
 
@@ -160,7 +219,7 @@ public class jClass {
         // Set correlated modelParameters
         //veh.correlateParameters();
         // This is essentially what the correlateParameters() method of the driver used to do. I removed the method.
-        veh.getDriver().set(IDMPlus.T, veh.getDriver().get(IDMPlus.T_MAX));;
+        veh.getDriver().setDouble(IDMPlus.T, veh.getDriver().getDouble(IDMPlus.T_MAX));
     }
     
     /**
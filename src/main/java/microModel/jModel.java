@@ -7,14 +7,21 @@ import com.google.common.collect.Lists;
 
 import eis.eis2java.environment.AbstractEnvironment;
 import microModel.core.driver.jDriver;
+import microModel.core.driver.model.CarFollowingKernel;
 import microModel.core.road.device.AbstractRSU;
+import microModel.core.device.ControllerScheduler;
 import microModel.core.device.jController;
 import microModel.core.road.device.jDetector;
+import microModel.core.road.RoutingTable;
 import microModel.core.road.jLane;
 import microModel.core.vehicle.*;
+import microModel.output.DetectorHistory;
+import microModel.output.SpaceTimeGrid;
+import microModel.output.TrafficAggregation;
 import microModel.output.VehicleLogBuffer;
 import microModel.output.jDetectorData;
 import microModel.settings.BuiltInSettings;
+import microModel.settings.SettingsSnapshot;
 import microModel.settings.jSettings;
 
 import org.apache.log4j.Logger;
@@ -24,6 +31,7 @@ import java.util.*;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 
 /**
@@ -91,8 +99,13 @@ public class jModel {
     /** Time step number. Always starts as 0. */
     private int step;
 
-    /** Current simulation time of the model [s]. Always starts at 0. */
-    private double t;
+    /**
+     * Current simulation time of the model [s]. Always starts at 0. This is written
+     * last in each time step. It does not make the state of vehicles consistent for
+     * other threads, as the next step may already be running; those threads use
+     * {@link microModel.core.vehicle.Vehicle#readState(microModel.core.vehicle.VehicleState)}.
+     */
+    private volatile double t;
 
     /** Time step size of the execution cycle in [s] */
     private double dt;
@@ -114,11 +127,32 @@ public class jModel {
 
     /** Set of controllers, both local and regional. */
     private List<jController> controllers = new ArrayList<jController>();
+
+    /** Runs the RSUs, in network and lane order. */
+    private ControllerScheduler rsuScheduler;
+
+    /** Sum of the RSU versions of the lanes when the RSUs were last scheduled, see {@link jLane#getRSUVersion()}. */
+    private long rsuVersion;
+
+    /** Runs the controllers, in the order in which they were added. */
+    private ControllerScheduler controllerScheduler;
+
+    /** Car following of IDM+ vehicles, if {@link BuiltInSettings#CAR_FOLLOWING_KERNEL} is set. */
+    private final CarFollowingKernel kernel = new CarFollowingKernel(64);
     
     private jModelGUI gui;
 
     private Map<jVehicle, VehicleLogBuffer> vehicleLogs = new HashMap<jVehicle, VehicleLogBuffer>();
 
+    /** Registered consumers of vehicle coordinates. */
+    private final Set<Object> coordinateConsumers = new CopyOnWriteArraySet<Object>();
+
+    /** Online aggregation of lane statistics, <tt>null</tt> if not enabled. */
+    private TrafficAggregation aggregation;
+
+    /** Settings read on every time step, frozen at initialization. */
+    private volatile SettingsSnapshot settings;
+
     private jModel(jLane[] network) {
         this.network = network;
         jSettings settings = jSettings.getInstance();
@@ -127,18 +161,25 @@ public class jModel {
         t = 0;
         dt = settings.get(BuiltInSettings.SIMULATION_STEP_SIZE);
         length = settings.get(BuiltInSettings.SIMULATION_DURATION);
+        this.settings = new SettingsSnapshot(settings);
 
         vehicles = new ArrayList<Vehicle>();
+        scheduleRSUs();
+        scheduleControllers();
     }
 
     /**
      * Initializes the model. This includes setting the lane change info per
      * lane and destination, initializing the vehicle generation and RSUs of the
      * lanes and initializing controllers. This method needs to be called before
-     * running the model.
+     * running the model. The settings used during the simulation are frozen here,
+     * see {@link #refreshSettings()}.
      */
     public void init() {
-        // Initialize lanes
+        refreshSettings();
+
+        // Initialize lane change info and lanes
+        RoutingTable.forNetwork(network);
         for (jLane lane : network) {
             lane.init();
         }
@@ -147,8 +188,61 @@ public class jModel {
         for (jController controller : controllers) {
             controller.init();
         }
+        scheduleRSUs();
+        scheduleControllers();
+
+        jSettings settings = jSettings.getInstance();
+        boolean grid = settings.get(BuiltInSettings.DEBUG_SPACE_TIME_GRID);
+        if (settings.get(BuiltInSettings.DEBUG_AGGREGATION) || grid) {
+            aggregation = new TrafficAggregation(network, settings.get(BuiltInSettings.AGGREGATION_PERIOD), t);
+            if (grid) {
+                aggregation.addSpaceTimeGrids(settings.get(BuiltInSettings.SPACE_TIME_GRID_DX),
+                        settings.get(BuiltInSettings.SPACE_TIME_GRID_DT), length - t);
+            }
+        }
+    }
+
+
+    /**
+     * Schedules the RSUs of all lanes, in network and lane order. RSUs that are due in a
+     * time step run in that order, see {@link ControllerScheduler}.
+     */
+    private void scheduleRSUs() {
+        rsuScheduler = new ControllerScheduler(dt, step);
+        for (jLane lane : network) {
+            for (int j = 0; j < lane.RSUcount(); j++) {
+                // RSUs on multiple lanes are run by their own lane
+                AbstractRSU rsu = lane.getRSU(j);
+                if (rsu.lane == lane) {
+                    rsuScheduler.add(rsu);
+                }
+            }
+        }
+        rsuVersion = rsuVersion();
+    }
+
+    /**
+     * @return Sum of the RSU versions of the lanes, which changes whenever RSUs are added
+     * to or removed from a lane.
+     */
+    private long rsuVersion() {
+        long version = 0;
+        for (jLane lane : network) {
+            version += lane.getRSUVersion();
+        }
+        return version;
     }
 
+    /**
+     * Schedules the controllers, in the order in which they were added, see
+     * {@link ControllerScheduler}.
+     */
+    private void scheduleControllers() {
+        controllerScheduler = new ControllerScheduler(dt, step);
+        for (jController controller : controllers) {
+            controllerScheduler.add(controller);
+        }
+    }
 
     /**
      * Performs the main model loop. This entails the RSUs, OBUs, controllers,
@@ -202,6 +296,9 @@ public class jModel {
             }
             // Update time
             step = step + 1; // time step number
+            if (aggregation != null) {
+                aggregation.update(step * dt);
+            }
             t = step * dt; // time [s]
             nn++;
         }
@@ -225,11 +322,10 @@ public class jModel {
 
     private void executionCycle() {
         // Run road-side units
-        for (jLane lane : network) {
-            for (int j = 0; j < lane.RSUcount(); j++) {
-                lane.getRSU(j).run();
-            }
+        if (rsuVersion() != rsuVersion) {
+            scheduleRSUs();
         }
+        rsuScheduler.run(step, t);
         // Run on-board units
         for (int i = 0; i < vehicles.size(); i++) {
             if (vehicles.get(i).isEquipped()) {
@@ -237,9 +333,7 @@ public class jModel {
             }
         }
         // Run controllers
-        for (int i = 0; i < controllers.size(); i++) {
-            controllers.get(i).run();
-        }
+        controllerScheduler.run(step, t);
 
         // Vehicle generation
         for (jLane lane : network) {
@@ -249,8 +343,12 @@ public class jModel {
         }
 
         // Drive (set acceleration and lane change decisions)
-        for (int i = 0; i < vehicles.size(); i++) {
-            vehicles.get(i).driver.drive(); // sets a and dy
+        if (settings.carFollowingKernel) {
+            kernel.drive(vehicles); // sets a only
+        } else {
+            for (int i = 0; i < vehicles.size(); i++) {
+                vehicles.get(i).driver.drive(); // sets a and dy
+            }
         }
         //Move
         for (int i = 0; i < vehicles.size(); i++) {
@@ -258,8 +356,7 @@ public class jModel {
         }
 
         // Check for collisions
-        jSettings settings = jSettings.getInstance();
-        if (settings.get(BuiltInSettings.DEBUG)) {
+        if (settings.debug) {
             Iterator<Vehicle> vehicleIterator = getVehicles().iterator();
             while(vehicleIterator.hasNext()) {
                 Vehicle vehicle = vehicleIterator.next();
@@ -275,15 +372,15 @@ public class jModel {
         logger.debug("<<--jSim -->> Density/Flow ");
         for (int i=0; i<1; i++) {
             for(jLane lane: network) {
-                String debug = "";
+                StringBuilder debug = new StringBuilder();
                 if (lane.getGenerator() != null) {
                     if (lane.getGenerator() instanceof DensityGenerator) {
                         DensityGenerator densityGenerator = (DensityGenerator) lane.getGenerator();
-                        debug += densityGenerator.getDensity();
+                        debug.append(densityGenerator.getDensity());
                         if (lane.getRSU(i) instanceof jDetector) {
-                            jDetector detector = (jDetector) lane.getRSU(i);
-                            for (Integer flow: detector.qHist) {
-                                debug += " " + flow;
+                            DetectorHistory history = ((jDetector) lane.getRSU(i)).history;
+                            for (int j = 0; j < history.size(); j++) {
+                                debug.append(' ').append(history.flow(j));
                             }
                         }
                         logger.debug(debug);
@@ -296,15 +393,15 @@ public class jModel {
         logger.debug("<<--jSim -->> Density/Speed ");
         for (int i=0; i<1; i++) {
             for(jLane lane: network) {
-                String debug = "";
+                StringBuilder debug = new StringBuilder();
                 if (lane.getGenerator() != null) {
                     if (lane.getGenerator() instanceof DensityGenerator) {
                         DensityGenerator densityGenerator = (DensityGenerator) lane.getGenerator();
-                        debug += densityGenerator.getDensity();
+                        debug.append(densityGenerator.getDensity());
                         if (lane.getRSU(i) instanceof jDetector) {
-                            jDetector detector = (jDetector) lane.getRSU(i);
-                            for (double flow: detector.vHist) {
-                                debug += " " + flow;
+                            DetectorHistory history = ((jDetector) lane.getRSU(i)).history;
+                            for (int j = 0; j < history.size(); j++) {
+                                debug.append(' ').append(history.speed(j));
                             }
                         }
                         logger.debug(debug);
@@ -469,6 +566,7 @@ public class jModel {
      */
     public void addController(jController controller) {
         controllers.add(controller);
+        controllerScheduler.add(controller);
     }
 
     /**
@@ -523,6 +621,11 @@ public class jModel {
                         }
                     }
                 }
+                if (aggregation != null) {
+                    for (SpaceTimeGrid grid : aggregation.getSpaceTimeGrids()) {
+                        saveSpaceTimeGrid(grid);
+                    }
+                }
 
             }
         });
@@ -555,6 +658,23 @@ public class jModel {
         }
     }
 
+    /**
+     * Saves a space-time grid to disk in a file with the id of the first lane of the
+     * grid in the name, see {@link SpaceTimeGrid#write(File)}.
+     *
+     * @param grid Space-time grid.
+     */
+    public void saveSpaceTimeGrid(SpaceTimeGrid grid) {
+        try {
+            jSettings settings = jSettings.getInstance();
+            File f = new File(settings.get(BuiltInSettings.OUTPUT_PATH), "grids");
+            f.mkdir();
+            grid.write(new File(f, "grid" + grid.getLanes()[0].getId() + ".bin"));
+        } catch (Exception e) {
+            System.err.println("Unable to write to file: " + e.getMessage());
+        }
+    }
+
     /**
      * @return Current simulation time [s].
      */
@@ -589,6 +709,59 @@ public class jModel {
         return dt;
     }
 
+    /**
+     * @return Online aggregation of lane statistics, <tt>null</tt> if not enabled.
+     */
+    public TrafficAggregation getAggregation() {
+        return aggregation;
+    }
+
+    /**
+     * Registers a consumer of vehicle coordinates, e.g. the GUI. While there are
+     * consumers, the global coordinates and heading of vehicles are calculated by the
+     * simulation thread whenever they move, and {@link Vehicle#readState} copies them.
+     * Otherwise they are only calculated when requested. Registering a consumer again
+     * has no effect.
+     * @param consumer Consumer of coordinates.
+     */
+    public void addCoordinateConsumer(Object consumer) {
+        coordinateConsumers.add(consumer);
+    }
+
+    /**
+     * Removes a consumer of vehicle coordinates. Removing a consumer that is not
+     * registered has no effect.
+     * @param consumer Consumer of coordinates.
+     * @see #addCoordinateConsumer(Object)
+     */
+    public void removeCoordinateConsumer(Object consumer) {
+        coordinateConsumers.remove(consumer);
+    }
+
+    /**
+     * @return Whether there are consumers of vehicle coordinates.
+     */
+    public boolean hasCoordinateConsumers() {
+        return !coordinateConsumers.isEmpty();
+    }
+
+    /**
+     * Returns the settings that are read on every time step. These are taken from
+     * {@link jSettings} when the model is initialized.
+     * @return Snapshot of the settings.
+     */
+    public SettingsSnapshot getSettings() {
+        return settings;
+    }
+
+    /**
+     * Takes a new snapshot of the settings, such that changes made in {@link jSettings}
+     * while the model is running take effect.
+     */
+    public void refreshSettings() {
+        settings = new SettingsSnapshot(jSettings.getInstance());
+    }
+
     /**
      * @return Returns a copy of the current array of lanes (The network)
      */
@@ -0,0 +1,260 @@
+package microModel.map;
+
+import microModel.core.road.LaneType;
+import microModel.core.road.RoutingTable;
+import microModel.core.road.device.AbstractRSU;
+import microModel.core.road.device.jDetector;
+import microModel.core.road.jLane;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Compact binary format for a fully built lane network.
+ * </p><p>
+ * Importing a network from KML converts spherical coordinates, computes parallel lane
+ * offsets, connects the lanes and computes the lane change information towards each
+ * destination. A compiled network stores the result of all of these steps: the lane
+ * geometry, the up/down/left/right/taper links, lane change permissions, destinations,
+ * speed limits, the {@link RoutingTable} and the detectors on each lane. Loading it only has
+ * to create the lanes and restore these fields.
+ * </p><p>
+ * A compiled network records the checksum and length of the source it was compiled from, so that
+ * a stale file is not loaded after the source has changed.
+ * </p><p>
+ * Only {@link jDetector}s are stored. A network with other RSUs is not written (see
+ * {@link #isStorable(List)}); such RSUs have to be added after loading.
+ * </p>
+ */
+public final class CompiledNetwork {
+
+    private static final Logger logger = Logger.getLogger(CompiledNetwork.class);
+    /** "JSNW" */
+    private static final int MAGIC = 0x4a534e57;
+    /** Increment whenever the layout or the meaning of the stored fields changes. */
+    private static final int VERSION = 4;
+
+    private CompiledNetwork() {/* Should not be instantiated */}
+
+    /**
+     * Writes a network to a file.
+     *
+     * @param lanes    the connected lanes of the network.
+     * @param checksum checksum and length of the source the network was built from.
+     * @param file     the file to write.
+     * @throws IOException if the file can not be written.
+     * @throws IllegalArgumentException if the network has RSUs that can not be stored.
+     */
+    public static void write(List<jLane> lanes, long[] checksum, File file) throws IOException {
+        if (!isStorable(lanes)) {
+            throw new IllegalArgumentException("Network has RSUs other than detectors, which can not be stored.");
+        }
+        RoutingTable routing = RoutingTable.forNetwork(lanes.toArray(new jLane[lanes.size()]));
+        Map<jLane, Integer> index = new IdentityHashMap<jLane, Integer>();
+        for (int i = 0; i < lanes.size(); i++) {
+            index.put(lanes.get(i), i);
+        }
+
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create directory " + directory);
+        }
+        File tmp = new File(directory, file.getName() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 64 * 1024));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(checksum[0]);
+            out.writeLong(checksum[1]);
+            out.writeInt(lanes.size());
+            for (jLane lane : lanes) {
+                out.writeInt(lane.getId());
+                out.writeByte(lane.getType().ordinal());
+                double[] x = lane.getX();
+                double[] y = lane.getY();
+                out.writeInt(x.length);
+                for (int i = 0; i < x.length; i++) {
+                    out.writeDouble(x[i]);
+                    out.writeDouble(y[i]);
+                }
+                out.writeInt(indexOf(index, lane.getUp()));
+                out.writeInt(indexOf(index, lane.getDown()));
+                out.writeInt(indexOf(index, lane.getLeft()));
+                out.writeInt(indexOf(index, lane.getRight()));
+                out.writeInt(indexOf(index, lane.getTaper()));
+                out.writeBoolean(lane.isGoLeft());
+                out.writeBoolean(lane.isGoRight());
+                out.writeInt(lane.getDestination());
+                out.writeDouble(lane.getvLim());
+
+                List<AbstractRSU> detectors = lane.getRSUs();
+                out.writeInt(detectors.size());
+                for (AbstractRSU rsu : detectors) {
+                    jDetector detector = (jDetector) rsu;
+                    out.writeDouble(detector.getX());
+                    out.writeDouble(detector.getDuration());
+                    out.writeInt(detector.id());
+                }
+            }
+
+            int destinations = routing.destinationCount();
+            out.writeInt(destinations);
+            for (int d = 0; d < destinations; d++) {
+                out.writeInt(routing.destination(d));
+            }
+            for (int i = 0; i < lanes.size(); i++) {
+                for (int d = 0; d < destinations; d++) {
+                    out.writeInt(routing.laneChanges(i, d));
+                    out.writeDouble(routing.endpoint(i, d));
+                }
+            }
+        } finally {
+            out.close();
+        }
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Could not replace " + file);
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Could not move " + tmp + " to " + file);
+        }
+    }
+
+    /**
+     * Reads a network from a file.
+     *
+     * @param file     the file to read.
+     * @param checksum checksum and length of the source the network should have been built from.
+     * @return the lanes in the order in which they were written, or null if the file
+     * was written by another version or for another source.
+     * @throws IOException if the file can not be read.
+     */
+    public static jLane[] read(File file, long[] checksum) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION
+                    || in.readLong() != checksum[0] || in.readLong() != checksum[1]) {
+                return null;
+            }
+            LaneType[] types = LaneType.values();
+            int n = in.readInt();
+            jLane[] lanes = new jLane[n];
+            int[][] links = new int[n][];
+            boolean[][] permissions = new boolean[n][];
+            for (int i = 0; i < n; i++) {
+                int id = in.readInt();
+                LaneType type = types[in.readByte()];
+                int points = in.readInt();
+                double[] x = new double[points];
+                double[] y = new double[points];
+                for (int p = 0; p < points; p++) {
+                    x[p] = in.readDouble();
+                    y[p] = in.readDouble();
+                }
+                jLane lane = new jLane.Builder().withType(type).withID(id).withX(x).withY(y).build();
+                links[i] = new int[] {in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt()};
+                permissions[i] = new boolean[] {in.readBoolean(), in.readBoolean()};
+                lane.setDestination(in.readInt());
+                lane.setvLim(in.readDouble());
+
+                int detectors = in.readInt();
+                for (int d = 0; d < detectors; d++) {
+                    double position = in.readDouble();
+                    double period = in.readDouble();
+                    int detectorId = in.readInt();
+                    // the detector adds itself to the lane
+                    new jDetector(lane, position, period, detectorId);
+                }
+                lanes[i] = lane;
+            }
+
+            int[] destinations = new int[in.readInt()];
+            for (int d = 0; d < destinations.length; d++) {
+                destinations[d] = in.readInt();
+            }
+            int[] laneChanges = new int[n * destinations.length];
+            double[] endpoints = new double[laneChanges.length];
+            for (int i = 0; i < laneChanges.length; i++) {
+                laneChanges[i] = in.readInt();
+                endpoints[i] = in.readDouble();
+            }
+            RoutingTable.build(lanes, destinations, laneChanges, endpoints);
+
+            for (int i = 0; i < n; i++) {
+                jLane lane = lanes[i];
+                lane.setUp(laneAt(lanes, links[i][0]));
+                lane.setDown(laneAt(lanes, links[i][1]));
+                jLane right = laneAt(lanes, links[i][3]);
+                if (right != null) {
+                    lane.connectLat(right);
+                }
+                lane.setTaper(laneAt(lanes, links[i][4]));
+                lane.setGoLeft(permissions[i][0]);
+                lane.setGoRight(permissions[i][1]);
+            }
+            return lanes;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Reads a network from a file if it exists and is up to date, logging instead of failing otherwise.
+     *
+     * @return the lanes, or null if there is no usable compiled network.
+     */
+    public static jLane[] readIfValid(File file, long[] checksum) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            jLane[] lanes = read(file, checksum);
+            if (lanes == null) {
+                logger.info("Compiled network " + file + " is out of date.");
+            }
+            return lanes;
+        } catch (IOException e) {
+            logger.warn("Could not read compiled network " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Whether a network can be written, i.e. all of its RSUs are {@link jDetector}s.
+     */
+    public static boolean isStorable(List<jLane> lanes) {
+        for (jLane lane : lanes) {
+            for (AbstractRSU rsu : lane.getRSUs()) {
+                if (rsu.getClass() != jDetector.class) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(Map<jLane, Integer> index, jLane lane) {
+        if (lane == null) {
+            return -1;
+        }
+        Integer i = index.get(lane);
+        if (i == null) {
+            throw new IllegalArgumentException("Lane " + lane.getId() + " is linked to, but not part of the network.");
+        }
+        return i;
+    }
+
+    private static jLane laneAt(jLane[] lanes, int index) {
+        return index < 0 ? null : lanes[index];
+    }
+}
@@ -0,0 +1,151 @@
+package microModel.map;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.LineString;
+import microModel.core.road.device.jDetector;
+import microModel.core.road.jLane;
+import microModel.map.road.RoadSegment;
+import microModel.util.DetectorInfoUtilities;
+import microModel.util.LongColumnTable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>
+ * Places Regio-Lab detectors on the lanes of road segments.
+ * </p><p>
+ * The detector info is hash indexed on the detector ID once, and the JTS geometry of
+ * each lane is built once and reused for all detectors on that lane. The positions of
+ * the detectors of different segments are computed in parallel. The detectors themselves
+ * are created afterwards on the calling thread, because creating a detector links it to
+ * its lane.
+ * </p>
+ */
+public class DetectorPlacer {
+
+    /** Detector info, see {@link DetectorInfoUtilities} for the columns. */
+    private final LongColumnTable info;
+    /** Row of each detector ID in the detector info. */
+    private final Map<Long, Integer> index;
+    /** Lane geometry, built on first use. */
+    private final Map<jLane, LineString> laneGeometry = new ConcurrentHashMap<jLane, LineString>();
+
+    /**
+     * A detector position that has been determined but not yet created.
+     */
+    public static class Placement {
+        public final jLane lane;
+        public final double x;
+        public final int id;
+
+        public Placement(jLane lane, double x, int id) {
+            this.lane = lane;
+            this.x = x;
+            this.id = id;
+        }
+    }
+
+    /**
+     * @param info detector info, see {@link DetectorInfoUtilities} for the columns.
+     */
+    public DetectorPlacer(LongColumnTable info) {
+        this.info = info;
+        this.index = new HashMap<Long, Integer>(info.rowSize() * 2);
+        long[] ids = info.column(DetectorInfoUtilities.ID_COLUMN);
+        for (int r = info.rowSize() - 1; r >= 0; r--) {
+            index.put(ids[r], r);
+        }
+    }
+
+    /**
+     * @param id detector ID.
+     * @return whether there is info on the detector.
+     */
+    public boolean contains(long id) {
+        return index.containsKey(id);
+    }
+
+    /**
+     * Determines the position of a detector along a lane.
+     *
+     * @param lane             lane where the detector is located.
+     * @param id               detector ID.
+     * @param coordinateOrigin origin of the cartesian coordinates of the network.
+     * @return the position [m] on the lane.
+     */
+    public double position(jLane lane, long id, Coordinate coordinateOrigin) {
+        Integer row = index.get(id);
+        if (row == null) {
+            throw new IllegalArgumentException("No detector info for detector " + id);
+        }
+        Coordinate dc = new Coordinate(DetectorInfoUtilities.latitude(info, row), DetectorInfoUtilities.longitude(info, row), 0);
+        dc = CoordinateUtilities.convertSphericalCoordinateToCartesian(dc, coordinateOrigin);
+        dc = CoordinateUtilities.mirror(dc);
+        return DetectorUtilities.detectorPositionOnLane(geometry(lane), dc);
+    }
+
+    private LineString geometry(jLane lane) {
+        LineString line = laneGeometry.get(lane);
+        if (line == null) {
+            line = DetectorUtilities.laneGeometry(lane.getCoordinates());
+            laneGeometry.put(lane, line);
+        }
+        return line;
+    }
+
+    /**
+     * Determines the detector positions of all segments, in parallel.
+     *
+     * @param segments the road segments.
+     * @return the detector placements, in the order of the segments.
+     */
+    public List<Placement> place(Collection<RoadSegment> segments) {
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), segments.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<Placement>>> parts = new ArrayList<Future<List<Placement>>>();
+            for (final RoadSegment segment : segments) {
+                parts.add(executor.submit(new Callable<List<Placement>>() {
+                    @Override
+                    public List<Placement> call() {
+                        return segment.detectorPlacements(DetectorPlacer.this);
+                    }
+                }));
+            }
+            List<Placement> placements = new ArrayList<Placement>();
+            for (Future<List<Placement>> part : parts) {
+                placements.addAll(part.get());
+            }
+            return placements;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while placing detectors", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to place detectors", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates the detectors for the given placements and adds them to their lanes.
+     *
+     * @param placements the detector placements.
+     */
+    public static void install(List<Placement> placements) {
+        for (Placement placement : placements) {
+            // the detector adds itself to the lane
+            new jDetector(placement.lane, placement.x, 60, placement.id);
+        }
+    }
+}
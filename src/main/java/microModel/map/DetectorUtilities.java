@@ -10,6 +10,8 @@ import java.util.List;
 
 public class DetectorUtilities {
 
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory(new PrecisionModel(PrecisionModel.FLOATING));
+
     /**
      * This class has been copied directly from the source code of the following class found
      * on the internet.
@@ -84,14 +86,26 @@ public class DetectorUtilities {
     }
 
     public static double detectorPositionOnLane(List<Coordinate> laneCoordinates, Coordinate detectorCoordinate) {
-        Coordinate[] cArray = new Coordinate[laneCoordinates.size()];
-        laneCoordinates.toArray(cArray);
-        GeometryFactory gf = new GeometryFactory(new PrecisionModel(PrecisionModel.FLOATING));
-        LineString line = gf.createLineString(cArray);
-        LengthToPoint lengthToPoint = new LengthToPoint(line, detectorCoordinate);
+        return detectorPositionOnLane(laneGeometry(laneCoordinates), detectorCoordinate);
+    }
 
+    /**
+     * Determines the position of a detector along a lane geometry created with {@link #laneGeometry(java.util.List)}.
+     * Use this when placing several detectors on the same lane.
+     */
+    public static double detectorPositionOnLane(LineString lane, Coordinate detectorCoordinate) {
+        LengthToPoint lengthToPoint = new LengthToPoint(lane, detectorCoordinate);
         return lengthToPoint.getLength();
     }
 
+    /**
+     * Creates the line geometry of a lane.
+     */
+    public static LineString laneGeometry(List<Coordinate> laneCoordinates) {
+        Coordinate[] cArray = new Coordinate[laneCoordinates.size()];
+        laneCoordinates.toArray(cArray);
+        return GEOMETRY_FACTORY.createLineString(cArray);
+    }
+
 
 }
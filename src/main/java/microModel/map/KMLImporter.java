@@ -2,23 +2,29 @@ package microModel.map;
 
 import com.google.common.collect.Lists;
 import com.vividsolutions.jts.geom.Coordinate;
-import com.vividsolutions.jts.geom.Geometry;
-import com.vividsolutions.jts.geom.LineString;
 
 import microModel.core.road.LaneTransition;
 import microModel.core.road.LaneType;
+import microModel.core.road.jLane;
 import microModel.map.road.LaneInfo;
 import microModel.map.road.RoadSegment;
 import microModel.settings.BuiltInSettings;
+import microModel.settings.jSettings;
+import microModel.util.DetectorDataCache;
 import microModel.util.DetectorDataUtilities;
 import microModel.util.DetectorDataUtilities.DynamicDemandInfo;
 
-import org.opengis.feature.simple.SimpleFeature;
+import org.apache.log4j.Logger;
 
+import javax.xml.stream.XMLStreamException;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
 import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * This Class is ro replace the the Matlab kml2net.m file in the original jModel project.
@@ -26,6 +32,8 @@ import java.util.*;
  * make up the network in which the simulation is run.
  */
 public class KMLImporter {
+    private static final Logger logger = Logger.getLogger(KMLImporter.class);
+
     private InputStream kml;
     private Coordinate origin;
 
@@ -42,48 +50,53 @@ public class KMLImporter {
     public Map<Integer, RoadSegment> setupRoadSegments() {
         Map<Integer, RoadSegment.Builder> segmentBuilders = new HashMap<Integer, RoadSegment.Builder>();
 
-        List<SimpleFeature> placemarks = KMLUtilities.getPlacemarks(kml);
+        List<KMLReader.Placemark> placemarks;
+        try {
+            placemarks = KMLReader.getPlacemarks(kml);
+        } catch (XMLStreamException e) {
+            e.printStackTrace();
+            placemarks = new ArrayList<KMLReader.Placemark>();
+        }
 
         //Find a suitable coordinates to use as the (relative) origin point in the simulation.
         List<Coordinate> minimumCoordinates = new ArrayList<Coordinate>();
         List<Coordinate> maximumCoordinates = new ArrayList<Coordinate>();
-        for (SimpleFeature p : placemarks) {
-            String laneName = (String) p.getAttribute("name");
+        for (KMLReader.Placemark p : placemarks) {
+            String laneName = p.getName();
             int segmentId = Integer.parseInt(laneName);
 
             //Parse description of the placemark.
-            String desc = (String) p.getAttribute("description");
+            DescriptionParser desc = new DescriptionParser(p.getDescription());
             RoadSegment.Builder builder = new RoadSegment.Builder(segmentId);
 
-            Double speedLimit = DescriptionParser.getSpeedLimit(desc);
+            Double speedLimit = desc.getSpeedLimit();
             builder.setSpeedLimit(speedLimit);
 
-            List<Integer> downstreamSegments = DescriptionParser.getDownSegments(desc);
+            List<Integer> downstreamSegments = desc.getDownSegments();
             for(Integer segment: downstreamSegments) {
                 builder.addDownSegment(segment);
             }
 
-            List<Integer> upstreamSegments = DescriptionParser.getUpSegments(desc);
+            List<Integer> upstreamSegments = desc.getUpSegments();
             for(Integer segment: upstreamSegments) {
                 builder.addUpSegment(segment);
             }
 
-            List<LaneInfo> laneInfoList = DescriptionParser.getLanes(desc);
+            List<LaneInfo> laneInfoList = desc.getLanes();
             builder.addLaneInformation(laneInfoList);
 
             //TODO: parse destinations sections completely ... (missing the detector id equations)
-            List<Integer> destinations = DescriptionParser.getDestinations(desc);
+            List<Integer> destinations = desc.getDestinations();
             builder.setDestinations(destinations);
 
-            List<String> detectorIDs = DescriptionParser.getDetectors(desc);
+            List<String> detectorIDs = desc.getDetectors();
             builder.setDetectorIDs(detectorIDs);
 
             //TODO: parse origins sections
-            List<DetectorDataUtilities.DynamicDemandInfo> originDemands = DescriptionParser.getOriginDemands(desc);
+            List<DetectorDataUtilities.DynamicDemandInfo> originDemands = desc.getOriginDemands();
             builder.setOriginDemands(originDemands);
 
-            LineString ls = KMLUtilities.getLineString((Geometry) p.getDefaultGeometry());
-            List<Coordinate> segmentSphericalCoordinates = Arrays.asList(ls.getCoordinates());
+            List<Coordinate> segmentSphericalCoordinates = p.getCoordinates();
 
             builder.setCoordinates(segmentSphericalCoordinates);
 
@@ -111,62 +124,139 @@ public class KMLImporter {
         return network;
     }
 
+    /**
+     * Imports the connected lanes of a network, for scenarios that do not need the road
+     * segments themselves (i.e. no detectors or origins from the KML input).
+     * <p>
+     * If {@link BuiltInSettings#NETWORK_CACHE_PATH} is set, the compiled network of the KML
+     * file is loaded from there when it is up to date (see {@link CompiledNetwork}). Otherwise
+     * the KML file is imported and the compiled network is (re)written, unless the network
+     * has RSUs that a compiled network can not store. The cache is off unless a directory is configured.
+     * </p>
+     * @param path resource path of the KML file.
+     * @return the lanes of the network.
+     */
+    public static jLane[] importLanes(String path) {
+        String directory = jSettings.getInstance().get(BuiltInSettings.NETWORK_CACHE_PATH);
+        URL url = KMLImporter.class.getResource(path);
+        long[] checksum = null;
+        File file = null;
+        if (directory != null && !directory.isEmpty()) {
+            try {
+                checksum = DetectorDataCache.checksum(url);
+                file = new File(directory, path.replaceAll("^/+", "").replace('/', '_') + ".net");
+                jLane[] lanes = CompiledNetwork.readIfValid(file, checksum);
+                if (lanes != null) {
+                    return lanes;
+                }
+            } catch (IOException e) {
+                logger.warn("Could not read " + path, e);
+            }
+        }
+
+        Map<Integer, RoadSegment> network = new KMLImporter(path).setupRoadSegments();
+        for (RoadSegment rs : network.values()) {
+            rs.init(network);
+        }
+        List<jLane> lanes = new ArrayList<jLane>();
+        for (RoadSegment rs : network.values()) {
+            lanes.addAll(rs.getLanes());
+        }
 
+        if (file != null && !CompiledNetwork.isStorable(lanes)) {
+            logger.info("Not writing compiled network " + file + ", the network has RSUs other than detectors.");
+        } else if (file != null) {
+            try {
+                CompiledNetwork.write(lanes, checksum, file);
+            } catch (IOException e) {
+                logger.warn("Could not write compiled network " + file, e);
+            }
+        }
+        return lanes.toArray(new jLane[lanes.size()]);
+    }
+
+
+    /**
+     * Parses the description of a placemark. The description consists of lines starting
+     * with a header (e.g. <tt>lanes:</tt>) followed by a value. All headers are matched by a
+     * single precompiled pattern, so the description is scanned only once.
+     */
     private static class DescriptionParser {
 
         private static int DESTINATION_COUNTER = 1;
 
-        public static Double getSpeedLimit(String description) {
-            Double result = new Double(0);
-            String copy = description.toLowerCase();
-            if (copy.indexOf(BuiltInSettings.SPEED_LIMIT_HEADER.value()) >= 0) {
-                String[] tmpArray = copy.split(BuiltInSettings.SPEED_LIMIT_HEADER.value());
-                String speedLimit = tmpArray[1].split("\n")[0];
-                result = Double.parseDouble(speedLimit.trim());
-            }
-            return result;
-        }
+        private static final String[] HEADERS = {
+                BuiltInSettings.SPEED_LIMIT_HEADER.value(),
+                BuiltInSettings.LANE_HEADER.value(),
+                BuiltInSettings.DOWNSTREAM_SEGMENT_HEADER.value(),
+                BuiltInSettings.UPSTREAM_SEGMENT_HEADER.value(),
+                BuiltInSettings.DESTINATION_HEADER.value(),
+                BuiltInSettings.DETECTOR_HEADER.value(),
+                BuiltInSettings.ORIGIN_HEADER.value()
+        };
 
-        public static List<Integer> getUpSegments(String description) {
-            List<Integer> result = new ArrayList<Integer>();
+        private static final Pattern GRAMMAR = compileGrammar();
+
+        /** Value following each header, for the headers present in the description. */
+        private final Map<String, String> values = new HashMap<String, String>();
 
-            String copy = description.toLowerCase();
-            if (copy.indexOf(BuiltInSettings.UPSTREAM_SEGMENT_HEADER.value()) >= 0) {
-                String[] tmpArray = copy.split(BuiltInSettings.UPSTREAM_SEGMENT_HEADER.value());
-                String ups = tmpArray[1].split("\n")[0];
+        private List<LaneInfo> lanes;
 
-                for (String up : ups.split(",")) {
-                    result.add(Integer.parseInt(up.trim()));
+        private static Pattern compileGrammar() {
+            StringBuilder alternatives = new StringBuilder();
+            for (String header : HEADERS) {
+                if (alternatives.length() > 0) {
+                    alternatives.append('|');
                 }
+                alternatives.append(Pattern.quote(header));
+            }
+            return Pattern.compile("(" + alternatives + ")([^\\n]*)");
+        }
 
+        public DescriptionParser(String description) {
+            Matcher matcher = GRAMMAR.matcher(description.toLowerCase());
+            while (matcher.find()) {
+                if (!values.containsKey(matcher.group(1))) {
+                    values.put(matcher.group(1), matcher.group(2));
+                }
+            }
+        }
+
+        public Double getSpeedLimit() {
+            Double result = new Double(0);
+            String speedLimit = values.get(BuiltInSettings.SPEED_LIMIT_HEADER.value());
+            if (speedLimit != null) {
+                result = Double.parseDouble(speedLimit.trim());
             }
             return result;
         }
 
-        public static List<Integer> getDownSegments(String description) {
-            List<Integer> result = new ArrayList<Integer>();
+        public List<Integer> getUpSegments() {
+            return getSegments(values.get(BuiltInSettings.UPSTREAM_SEGMENT_HEADER.value()));
+        }
 
-            String copy = description.toLowerCase();
-            if (copy.indexOf(BuiltInSettings.DOWNSTREAM_SEGMENT_HEADER.value()) >= 0) {
-                String[] tmpArray = copy.split(BuiltInSettings.DOWNSTREAM_SEGMENT_HEADER.value());
-                String downs = tmpArray[1].split("\n")[0];
+        public List<Integer> getDownSegments() {
+            return getSegments(values.get(BuiltInSettings.DOWNSTREAM_SEGMENT_HEADER.value()));
+        }
 
-                for (String down : downs.split(",")) {
-                    result.add(Integer.parseInt(down.trim()));
+        private static List<Integer> getSegments(String segments) {
+            List<Integer> result = new ArrayList<Integer>();
+            if (segments != null) {
+                for (String segment : segments.split(",")) {
+                    result.add(Integer.parseInt(segment.trim()));
                 }
-
             }
             return result;
         }
 
-        public static List<LaneInfo> getLanes(String description) {
+        public List<LaneInfo> getLanes() {
+            if (lanes != null) {
+                return lanes;
+            }
             List<LaneInfo> result = new ArrayList<LaneInfo>();
 
-            String copy = description.toLowerCase();
-            if (copy.indexOf(BuiltInSettings.LANE_HEADER.value()) >= 0) {
-                String[] tmpArray = copy.split(BuiltInSettings.LANE_HEADER.value());
-                String lanes = tmpArray[1].split("\n")[0];
-
+            String lanes = values.get(BuiltInSettings.LANE_HEADER.value());
+            if (lanes != null) {
                 if (!lanes.startsWith(BuiltInSettings.LANE_TRANSITION_NOT_ALLOWED.value())) {
                     lanes = BuiltInSettings.LANE_TRANSITION_NOT_ALLOWED.value() + lanes;
                 }
@@ -183,14 +273,14 @@ public class KMLImporter {
                     result.add(new LaneInfo(LaneTransition.forType(leftTransition),LaneType.forType(laneType), LaneTransition.forType(rightTransition)));
                 }
             }
+            this.lanes = result;
             return result;
         }
 
-        public static List<Integer> getDestinations(String description) {
+        public List<Integer> getDestinations() {
             List<Integer> result = new ArrayList<Integer>();
-            int numberLanes = getLanes(description).size();
-            String copy = description.toLowerCase();
-            if (copy.indexOf(BuiltInSettings.DESTINATION_HEADER.value()) >= 0) {
+            int numberLanes = getLanes().size();
+            if (values.containsKey(BuiltInSettings.DESTINATION_HEADER.value())) {
                 for (int i=0; i<numberLanes; i++) {
                     result.add(new Integer(DESTINATION_COUNTER));
                 }
@@ -200,11 +290,9 @@ public class KMLImporter {
         }
 
 
-        public static List<String> getDetectors(String description) {
-            String copy = description.toLowerCase();
-            if (copy.indexOf(BuiltInSettings.DETECTOR_HEADER.value()) >=0 ) {
-                String[] tmpArray = copy.split(BuiltInSettings.DETECTOR_HEADER.value());
-                String detectorsDescription = tmpArray[1].split("\n")[0];
+        public List<String> getDetectors() {
+            String detectorsDescription = values.get(BuiltInSettings.DETECTOR_HEADER.value());
+            if (detectorsDescription != null) {
                 String[] detectors = detectorsDescription.split(",");
                 return Arrays.asList(detectors);
             }
@@ -227,11 +315,9 @@ public class KMLImporter {
                 return new DetectorDataUtilities.DynamicDemandInfo(adds, subtracts, true);
         }
 
-        public static List<DetectorDataUtilities.DynamicDemandInfo> getOriginDemands(String description) {
-            String copy = description.toLowerCase();
-            if (copy.indexOf(BuiltInSettings.ORIGIN_HEADER.value()) >=0 ) {
-                String[] tmpArray = copy.split(BuiltInSettings.ORIGIN_HEADER.value());
-                String originsDescription = tmpArray[1].split("\n")[0];
+        public List<DetectorDataUtilities.DynamicDemandInfo> getOriginDemands() {
+            String originsDescription = values.get(BuiltInSettings.ORIGIN_HEADER.value());
+            if (originsDescription != null) {
                 if (isEquationFormattedDemand(originsDescription)) {
                     return Lists.newArrayList(getDemandEquation(originsDescription));
                 }
@@ -247,6 +333,5 @@ public class KMLImporter {
             }
             return new ArrayList<DetectorDataUtilities.DynamicDemandInfo>();
         }
-
     }
 }
@@ -0,0 +1,156 @@
+package microModel.map;
+
+import com.vividsolutions.jts.geom.Coordinate;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Lightweight streaming reader for the KML files describing the road network.
+ * </p><p>
+ * The file is read once with StAX and only the information needed to build the network
+ * is kept: the name, description and LineString coordinates of each placemark. Styles and
+ * other KML elements are skipped without building an object model for them.
+ * </p>
+ */
+public final class KMLReader {
+
+    private static final XMLInputFactory FACTORY = XMLInputFactory.newInstance();
+
+    private KMLReader() {/* Should not be instantiated */}
+
+    /**
+     * A KML placemark with a LineString geometry.
+     */
+    public static class Placemark {
+        private final String name;
+        private final String description;
+        private final List<Coordinate> coordinates;
+
+        public Placemark(String name, String description, List<Coordinate> coordinates) {
+            this.name = name;
+            this.description = description;
+            this.coordinates = coordinates;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        /** @return the (longitude, latitude, altitude) coordinates of the LineString. */
+        public List<Coordinate> getCoordinates() {
+            return coordinates;
+        }
+    }
+
+    /**
+     * Reads all placemarks that have a LineString geometry, in document order.
+     * The stream is not closed.
+     *
+     * @param kml the KML document.
+     * @return the placemarks.
+     * @throws XMLStreamException if the document is not well-formed XML.
+     */
+    public static List<Placemark> getPlacemarks(InputStream kml) throws XMLStreamException {
+        List<Placemark> result = new ArrayList<Placemark>();
+        XMLStreamReader reader;
+        synchronized (FACTORY) {
+            reader = FACTORY.createXMLStreamReader(kml);
+        }
+        try {
+            /* Depth of the current element relative to the enclosing placemark, 0 outside placemarks. */
+            int depth = 0;
+            String name = null;
+            String description = null;
+            List<Coordinate> coordinates = null;
+            boolean inLineString = false;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String element = reader.getLocalName();
+                    if (depth == 0) {
+                        if ("Placemark".equals(element)) {
+                            depth = 1;
+                            name = null;
+                            description = null;
+                            coordinates = null;
+                            inLineString = false;
+                        }
+                        continue;
+                    }
+                    depth++;
+                    if (depth == 2 && "name".equals(element)) {
+                        name = reader.getElementText().trim();
+                        depth--;
+                    } else if (depth == 2 && "description".equals(element)) {
+                        description = reader.getElementText();
+                        depth--;
+                    } else if ("LineString".equals(element)) {
+                        inLineString = true;
+                    } else if (inLineString && coordinates == null && "coordinates".equals(element)) {
+                        coordinates = parseCoordinates(reader.getElementText());
+                        depth--;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && depth > 0) {
+                    String element = reader.getLocalName();
+                    if ("LineString".equals(element)) {
+                        inLineString = false;
+                    }
+                    depth--;
+                    if (depth == 0 && coordinates != null) {
+                        result.add(new Placemark(name, description == null ? "" : description, coordinates));
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return result;
+    }
+
+    /**
+     * Parses a KML coordinate list: whitespace separated tuples of comma separated
+     * longitude, latitude and optional altitude.
+     */
+    static List<Coordinate> parseCoordinates(String text) {
+        List<Coordinate> result = new ArrayList<Coordinate>();
+        int n = text.length();
+        int i = 0;
+        double[] tuple = new double[3];
+        while (i < n) {
+            while (i < n && Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            if (i == n) {
+                break;
+            }
+            int count = 0;
+            while (i < n && !Character.isWhitespace(text.charAt(i))) {
+                int end = i;
+                while (end < n && text.charAt(end) != ',' && !Character.isWhitespace(text.charAt(end))) {
+                    end++;
+                }
+                if (count < 3) {
+                    tuple[count++] = Double.parseDouble(text.substring(i, end));
+                }
+                i = end < n && text.charAt(end) == ',' ? end + 1 : end;
+            }
+            if (count < 2) {
+                throw new IllegalArgumentException("Invalid KML coordinate tuple in: " + text.trim());
+            }
+            result.add(new Coordinate(tuple[0], tuple[1], count == 3 ? tuple[2] : 0.0));
+        }
+        return result;
+    }
+}
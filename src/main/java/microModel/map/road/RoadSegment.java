@@ -1,21 +1,20 @@
 package microModel.map.road;
 
-import com.google.common.collect.Range;
 import com.vividsolutions.jts.geom.Coordinate;
 
 import microModel.core.road.LaneType;
-import microModel.core.road.device.jDetector;
 import microModel.core.road.jLane;
 import microModel.core.traffic.AbstractDynamicDemandGenerator;
 import microModel.jModel;
 import microModel.map.CoordinateUtilities;
-import microModel.map.DetectorUtilities;
+import microModel.map.DetectorPlacer;
 import microModel.settings.BuiltInSettings;
 import microModel.settings.jSettings;
+import microModel.util.DemandEquation;
+import microModel.util.DetectorDataCache;
 import microModel.util.DetectorDataUtilities;
 import microModel.util.DetectorDataUtilities.DynamicDemandInfo;
-import microModel.util.DetectorInfoUtilities;
-import microModel.util.TableData;
+import microModel.util.LongColumnTable;
 
 import org.apache.log4j.Logger;
 
@@ -26,8 +25,8 @@ import java.util.*;
 public class RoadSegment {
 
     private final Logger logger = Logger.getLogger(RoadSegment.class);
-    private static TableData<String> DETECTOR_INFO = null;
-    private static TableData<Long> DETECTOR_DATA = null;
+    private static DetectorPlacer DETECTOR_PLACER = null;
+    private static LongColumnTable DETECTOR_DATA = null;
     public static int GLOBAL_LANE_COUNTER = 0;
     private final Coordinate coordinateOrigin;
     private final Integer id;
@@ -113,34 +112,59 @@ public class RoadSegment {
      * Uses Regio-Lab detector info to setup the detectors on the lanes.
      */
     public void setupDetectors() {
-        if (DETECTOR_INFO == null) {
-            String path = jSettings.getInstance().get(BuiltInSettings.DETECTOR_INFO_FILE_PATH);
-            try {
-                DETECTOR_INFO = DetectorInfoUtilities.readDetectorInfoData(path);
-            } catch (IOException e) {
-                logger.error("Could not read Detector Info file @ " + path, e);
-            }
+        DetectorPlacer placer = detectorPlacer();
+        if (placer != null) {
+            DetectorPlacer.install(detectorPlacements(placer));
+        }
+    }
+
+    /**
+     * Uses Regio-Lab detector info to setup the detectors on the lanes of all given segments.
+     * The detector positions of the segments are determined in parallel.
+     */
+    public static void setupDetectors(Collection<RoadSegment> segments) {
+        DetectorPlacer placer = detectorPlacer();
+        if (placer != null) {
+            DetectorPlacer.install(placer.place(segments));
         }
+    }
 
+    /**
+     * Determines the positions of the detectors of this segment without creating them.
+     * This does not modify the segment or its lanes and may be called concurrently for different segments.
+     * @param placer Placement service holding the detector info.
+     * @return The detector placements, in the order of the detector IDs.
+     */
+    public List<DetectorPlacer.Placement> detectorPlacements(DetectorPlacer placer) {
+        List<DetectorPlacer.Placement> placements = new ArrayList<DetectorPlacer.Placement>();
         Iterator<String> dIter = this.detectorIDs.iterator();
         Iterator<jLane> lIter = lanes.iterator();
         while (dIter.hasNext()) {
             jLane lane = lIter.next();
             String ID = dIter.next();
             if ("0".compareTo(ID) != 0 ) {
-                List<String> row = DETECTOR_INFO.filter(DetectorInfoUtilities.ID_COLUMN, Range.singleton(ID)).getRow(0);
-                double lat = Double.parseDouble(row.get(DetectorInfoUtilities.LATITUDE_COLUMN));
-                double lon = Double.parseDouble(row.get(DetectorInfoUtilities.LONGITUDE_COLUMN));
-                Coordinate dc = new Coordinate(lat,lon,0);
-                dc = CoordinateUtilities.convertSphericalCoordinateToCartesian(dc, this.coordinateOrigin);
-                dc = CoordinateUtilities.mirror(dc);
-                double detectorPosistion = DetectorUtilities.detectorPositionOnLane(lane.getCoordinates(), dc);
-                lane.addObserver(new jDetector(lane, detectorPosistion, 60, Integer.parseInt(ID)));
+                double detectorPosistion = placer.position(lane, Long.parseLong(ID), this.coordinateOrigin);
+                placements.add(new DetectorPlacer.Placement(lane, detectorPosistion, Integer.parseInt(ID)));
             }
             if (!lIter.hasNext()) {
                 lIter = lanes.iterator();
             }
         }
+        return placements;
+    }
+
+    private static synchronized DetectorPlacer detectorPlacer() {
+        if (DETECTOR_PLACER == null) {
+            String path = jSettings.getInstance().get(BuiltInSettings.DETECTOR_INFO_FILE_PATH);
+            try {
+                DETECTOR_PLACER = new DetectorPlacer(DetectorDataCache.detectorInfo(path));
+            } catch (IOException e) {
+                Logger.getLogger(RoadSegment.class).error("Could not read Detector Info file @ " + path, e);
+            } catch (ParseException e) {
+                Logger.getLogger(RoadSegment.class).error("Could not parse Detector Info file @ " + path, e);
+            }
+        }
+        return DETECTOR_PLACER;
     }
 
     /**
@@ -150,7 +174,7 @@ public class RoadSegment {
         if(DETECTOR_DATA == null) {
             String path = jSettings.getInstance().get(BuiltInSettings.DETECTOR_DATA_FILE_PATH);
             try {
-                DETECTOR_DATA = DetectorDataUtilities.readDetectorData(path);
+                DETECTOR_DATA = DetectorDataCache.detectorData(path);
             } catch (ParseException e) {
                 e.printStackTrace();
             } catch (IOException e) {
@@ -162,70 +186,14 @@ public class RoadSegment {
         Iterator<jLane> lIter = lanes.iterator();
         while(oIter.hasNext()) {
             jLane lane = lIter.next();
-            DetectorDataUtilities.DynamicDemandInfo demand = oIter.next();
-            if (demand.isEquationFormat()) {
-                //Manipulate DETECTOR_DATA to fit equation and create appropriate generator
-                // Do the adds first
-
-                generatorBuilder.setLane(lane);
-                TableData<Long> detectorData = calculateDemand(demand);
-                generatorBuilder.setHeadwayDistribution(AbstractDynamicDemandGenerator.Distribution.UNIFORM);
-                generatorBuilder.setDemandData(detectorData);
-                generatorBuilder.build();
-            }
-            else {
-                generatorBuilder.setLane(lane);
-                generatorBuilder.setHeadwayDistribution(AbstractDynamicDemandGenerator.Distribution.UNIFORM);
-                Long detectorID = Long.parseLong(demand.getAdds().get(0));
-                TableData<Long> detectorData = DETECTOR_DATA.filter(DetectorDataUtilities.ID_COLUMN, Range.singleton(detectorID));
-                generatorBuilder.setDemandData(detectorData);
-                generatorBuilder.build();
-            }
+            DemandEquation demand = DemandEquation.compile(oIter.next());
+            generatorBuilder.setLane(lane);
+            generatorBuilder.setHeadwayDistribution(AbstractDynamicDemandGenerator.Distribution.UNIFORM);
+            generatorBuilder.setDemandData(demand.demandData(DETECTOR_DATA));
+            generatorBuilder.build();
         }
     }
 
-    /**
-     * Calculates the positive dynamic demand to be used for a generator based on an equation format parsed from the KML input file.
-     * @param demand The Dynamic demand equation parsed from input kml.
-     * @return The table containing the information for the dynamic demand of the generator.
-     */
-    private TableData<Long> calculateDemand(DetectorDataUtilities.DynamicDemandInfo demand) {
-        Iterator<String> adds = demand.getAdds().iterator();
-        String detectorID = adds.next();
-        long ID = Long.parseLong(detectorID);
-        TableData<Long> filter = DETECTOR_DATA.filter(DetectorDataUtilities.ID_COLUMN, Range.singleton(ID));
-        List<Long> totalDemand = filter.getColumn(DetectorDataUtilities.DEMAND_COLUMN);
-        while (adds.hasNext()) {
-            detectorID = adds.next();
-            ID = Long.parseLong(detectorID);
-            filter = DETECTOR_DATA.filter(DetectorDataUtilities.ID_COLUMN, Range.singleton(ID));
-            List<Long> toAdd = filter.getColumn(DetectorDataUtilities.DEMAND_COLUMN);
-            totalDemand = TableData.add(totalDemand, toAdd);
-        }
-
-        //Do the subs
-        Iterator<String> subs = demand.getSubtracts().iterator();
-        detectorID = subs.next();
-        ID = Long.parseLong(detectorID);
-        filter = DETECTOR_DATA.filter(DetectorDataUtilities.ID_COLUMN, Range.singleton(ID));
-        List<Long> toSub = filter.getColumn(DetectorDataUtilities.DEMAND_COLUMN);
-        totalDemand = TableData.subtract(totalDemand, toSub);
-        while (subs.hasNext()) {
-            detectorID = subs.next();
-            ID = Long.parseLong(detectorID);
-            filter = DETECTOR_DATA.filter(DetectorDataUtilities.ID_COLUMN, Range.singleton(ID));
-            toSub = filter.getColumn(DetectorDataUtilities.DEMAND_COLUMN);
-            totalDemand = TableData.subtract(totalDemand, toSub);
-        }
-
-        List<Long> totalPositiveDemand = DetectorDataUtilities.positiveDemand(totalDemand);
-        Long[] totalPositiveDemandArray = new Long[totalPositiveDemand.size()];
-        totalPositiveDemand.toArray(totalPositiveDemandArray);
-        TableData<Long> detectorData = filter;
-        detectorData.setColumn(DetectorDataUtilities.DEMAND_COLUMN, totalPositiveDemandArray);
-        return detectorData;
-    }
-
 
     /**
      * Returns an Iterator that iterates over the lanes of this RoadSegment instance.
@@ -0,0 +1,251 @@
+package microModel.output;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Time series of aggregated detector measurements: per aggregation period the start
+ * time, the vehicle count and the average speed.
+ * </p><p>
+ * Measurements are stored in fixed size chunks of primitive arrays, so appending does
+ * not box or copy earlier measurements. Optionally, full chunks are written to a
+ * {@link Sink} and released, such that long runs do not keep all measurements in memory.
+ * Indices of {@link #time(int)}, {@link #flow(int)} and {@link #speed(int)} are relative
+ * to the measurements that are still held.
+ * </p>
+ */
+public final class DetectorHistory {
+
+    /** Default number of measurements per chunk. */
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+
+    /**
+     * Receiver of measurements that are flushed from the history.
+     */
+    public interface Sink {
+        /**
+         * Writes a number of measurements. The arrays are reused after this call.
+         * @param t Start times [s] of the aggregation periods.
+         * @param q Vehicle counts.
+         * @param v Average speeds [m/s].
+         * @param n Number of measurements in the arrays.
+         * @throws IOException If the measurements could not be written.
+         */
+        void write(double[] t, int[] q, double[] v, int n) throws IOException;
+    }
+
+    private final int chunkSize;
+    private final List<double[]> t = new ArrayList<double[]>();
+    private final List<int[]> q = new ArrayList<int[]>();
+    private final List<double[]> v = new ArrayList<double[]>();
+
+    /** Number of measurements held. */
+    private int size;
+
+    /** Number of measurements written to the sink. */
+    private int flushed;
+
+    private Sink sink;
+
+    public DetectorHistory() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize Number of measurements per chunk.
+     */
+    public DetectorHistory(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size should be positive, got " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Sets the sink to which full chunks are written. Without sink all measurements
+     * are kept in memory.
+     * @param sink Sink, may be <tt>null</tt>.
+     */
+    public void setSink(Sink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Appends a measurement.
+     * @param time Start time [s] of the aggregation period.
+     * @param flow Vehicle count.
+     * @param speed Average speed [m/s].
+     * @throws IOException If a full chunk could not be written to the sink.
+     */
+    public void add(double time, int flow, double speed) throws IOException {
+        int i = size % chunkSize;
+        if (i == 0) {
+            t.add(new double[chunkSize]);
+            q.add(new int[chunkSize]);
+            v.add(new double[chunkSize]);
+        }
+        int c = size / chunkSize;
+        t.get(c)[i] = time;
+        q.get(c)[i] = flow;
+        v.get(c)[i] = speed;
+        size++;
+        if (sink != null && size >= chunkSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes all held measurements to the sink and releases them. Nothing happens if
+     * there is no sink.
+     * @throws IOException If the measurements could not be written.
+     */
+    public void flush() throws IOException {
+        if (sink == null) {
+            return;
+        }
+        for (int c = 0; c < t.size(); c++) {
+            int n = Math.min(chunkSize, size - c * chunkSize);
+            sink.write(t.get(c), q.get(c), v.get(c), n);
+        }
+        flushed += size;
+        size = 0;
+        t.clear();
+        q.clear();
+        v.clear();
+    }
+
+    /**
+     * @return Number of measurements held.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Number of measurements written to the sink.
+     */
+    public int flushed() {
+        return flushed;
+    }
+
+    public double time(int index) {
+        check(index);
+        return t.get(index / chunkSize)[index % chunkSize];
+    }
+
+    public int flow(int index) {
+        check(index);
+        return q.get(index / chunkSize)[index % chunkSize];
+    }
+
+    public double speed(int index) {
+        check(index);
+        return v.get(index / chunkSize)[index % chunkSize];
+    }
+
+    /**
+     * @return Start times [s] of the held measurements.
+     */
+    public double[] times() {
+        double[] out = new double[size];
+        for (int c = 0; c < t.size(); c++) {
+            System.arraycopy(t.get(c), 0, out, c * chunkSize, Math.min(chunkSize, size - c * chunkSize));
+        }
+        return out;
+    }
+
+    /**
+     * @return Vehicle counts of the held measurements.
+     */
+    public int[] flows() {
+        int[] out = new int[size];
+        for (int c = 0; c < q.size(); c++) {
+            System.arraycopy(q.get(c), 0, out, c * chunkSize, Math.min(chunkSize, size - c * chunkSize));
+        }
+        return out;
+    }
+
+    /**
+     * @return Average speeds [m/s] of the held measurements.
+     */
+    public double[] speeds() {
+        double[] out = new double[size];
+        for (int c = 0; c < v.size(); c++) {
+            System.arraycopy(v.get(c), 0, out, c * chunkSize, Math.min(chunkSize, size - c * chunkSize));
+        }
+        return out;
+    }
+
+    /**
+     * Returns the total vehicle count of the held measurements.
+     * @return Total vehicle count.
+     */
+    public long totalFlow() {
+        long sum = 0;
+        for (int c = 0; c < q.size(); c++) {
+            int[] chunk = q.get(c);
+            int n = Math.min(chunkSize, size - c * chunkSize);
+            for (int i = 0; i < n; i++) {
+                sum += chunk[i];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the harmonic mean of the speeds of all vehicles in the held measurements.
+     * Within an aggregation period all vehicles are attributed the average speed of the
+     * period. This is a better estimate of the space-mean speed than the arithmetic mean.
+     * @return Harmonic mean speed [m/s], NaN if no vehicles were counted.
+     */
+    public double harmonicMeanSpeed() {
+        double count = 0;
+        double inverseSum = 0;
+        for (int c = 0; c < q.size(); c++) {
+            int[] flows = q.get(c);
+            double[] speeds = v.get(c);
+            int n = Math.min(chunkSize, size - c * chunkSize);
+            for (int i = 0; i < n; i++) {
+                if (flows[i] > 0) {
+                    count += flows[i];
+                    inverseSum += flows[i] / speeds[i];
+                }
+            }
+        }
+        return count > 0 ? count / inverseSum : Double.NaN;
+    }
+
+    /**
+     * Returns a percentile of the average speeds of the held aggregation periods in
+     * which vehicles were counted, using the nearest rank.
+     * @param percentile Percentile in the range [0...100].
+     * @return Speed [m/s] at the percentile, NaN if no vehicles were counted.
+     */
+    public double speedPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile should be in [0...100], got " + percentile);
+        }
+        double[] speeds = new double[size];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (flow(i) > 0) {
+                speeds[n++] = speed(i);
+            }
+        }
+        if (n == 0) {
+            return Double.NaN;
+        }
+        Arrays.sort(speeds, 0, n);
+        int rank = (int) Math.ceil(percentile / 100 * n);
+        return speeds[Math.max(rank, 1) - 1];
+    }
+
+    private void check(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("History holds " + size + " measurements, requested " + index);
+        }
+    }
+}
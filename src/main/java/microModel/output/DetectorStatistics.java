@@ -0,0 +1,122 @@
+package microModel.output;
+
+/**
+ * <p>
+ * Streaming statistics of a point detector. Passing vehicles are added with
+ * {@link #vehiclePassed(double, double)} and {@link #endPeriod(double)} closes an
+ * aggregation period. Both are O(1) and the memory use is constant.
+ * </p><p>
+ * Per period the flow, time-mean speed, space-mean (harmonic mean) speed, occupancy and
+ * density are available. The density is estimated as flow divided by space-mean speed.
+ * Vehicles with zero speed are counted, but do not contribute to the harmonic mean and
+ * occupancy.
+ * </p>
+ */
+public final class DetectorStatistics {
+
+    // current period
+    private int count;
+    private double speedSum;
+    private double inverseSpeedSum;
+    private int inverseSpeedCount;
+    private double occupiedTime;
+
+    // last completed period
+    private double flow = Double.NaN;
+    private double timeMeanSpeed = Double.NaN;
+    private double spaceMeanSpeed = Double.NaN;
+    private double occupancy = Double.NaN;
+
+    // since start
+    private long totalCount;
+    private double totalDuration;
+
+    /**
+     * Adds a passing vehicle.
+     * @param speed Speed [m/s] of the vehicle.
+     * @param length Length [m] of the vehicle.
+     */
+    public void vehiclePassed(double speed, double length) {
+        count++;
+        speedSum += speed;
+        if (speed > 0) {
+            inverseSpeedSum += 1 / speed;
+            inverseSpeedCount++;
+            occupiedTime += length / speed;
+        }
+    }
+
+    /**
+     * Ends the current aggregation period.
+     * @param duration Duration [s] of the period.
+     */
+    public void endPeriod(double duration) {
+        flow = count / duration;
+        timeMeanSpeed = count > 0 ? speedSum / count : Double.NaN;
+        spaceMeanSpeed = inverseSpeedCount > 0 ? inverseSpeedCount / inverseSpeedSum : Double.NaN;
+        occupancy = Math.min(occupiedTime / duration, 1);
+        totalCount += count;
+        totalDuration += duration;
+        count = 0;
+        speedSum = 0;
+        inverseSpeedSum = 0;
+        inverseSpeedCount = 0;
+        occupiedTime = 0;
+    }
+
+    /**
+     * @return Number of vehicles in the current period.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return Flow [veh/s] of the last period.
+     */
+    public double getFlow() {
+        return flow;
+    }
+
+    /**
+     * @return Arithmetic mean speed [m/s] of the last period.
+     */
+    public double getTimeMeanSpeed() {
+        return timeMeanSpeed;
+    }
+
+    /**
+     * @return Harmonic mean speed [m/s] of the last period.
+     */
+    public double getSpaceMeanSpeed() {
+        return spaceMeanSpeed;
+    }
+
+    /**
+     * @return Fraction of time the detector was occupied in the last period.
+     */
+    public double getOccupancy() {
+        return occupancy;
+    }
+
+    /**
+     * @return Density [veh/m] of the last period, as flow over space-mean speed.
+     */
+    public double getDensity() {
+        return flow == 0 ? 0 : flow / spaceMeanSpeed;
+    }
+
+    /**
+     * @return Number of vehicles in all completed periods.
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @return Mean flow [veh/s] over all completed periods.
+     */
+    public double getMeanFlow() {
+        return totalDuration > 0 ? totalCount / totalDuration : Double.NaN;
+    }
+}
@@ -0,0 +1,115 @@
+package microModel.output;
+
+/**
+ * <p>
+ * Streaming traffic statistics of a road section according to Edie's generalised
+ * definitions. Over a space-time region of length <i>L</i> and duration <i>T</i>, with
+ * total distance travelled <i>TDT</i> and total time spent <i>TTS</i> by all vehicles:
+ * <pre>
+ * flow    q = TDT / (L*T)
+ * density k = TTS / (L*T)
+ * speed   v = TDT / TTS</pre>
+ * The vehicle movements are added with {@link #add(double, double)} and
+ * {@link #endPeriod(double)} closes an aggregation period. Both are O(1) and the memory use
+ * is constant.
+ * </p>
+ */
+public final class SectionStatistics {
+
+    /** Length [m] of the section. */
+    private final double length;
+
+    // current period
+    private double distance;
+    private double time;
+
+    // last completed period
+    private double flow = Double.NaN;
+    private double density = Double.NaN;
+
+    // since start
+    private double totalDistance;
+    private double totalTime;
+    private double totalDuration;
+
+    /**
+     * @param length Length [m] of the section.
+     */
+    public SectionStatistics(double length) {
+        if (!(length > 0)) {
+            throw new IllegalArgumentException("Section length should be positive, got " + length);
+        }
+        this.length = length;
+    }
+
+    /**
+     * Adds the movement of a vehicle within the section.
+     * @param distance Distance [m] travelled in the section.
+     * @param time Time [s] spent in the section.
+     */
+    public void add(double distance, double time) {
+        this.distance += distance;
+        this.time += time;
+    }
+
+    /**
+     * Ends the current aggregation period.
+     * @param duration Duration [s] of the period.
+     */
+    public void endPeriod(double duration) {
+        double area = length * duration;
+        flow = distance / area;
+        density = time / area;
+        totalDistance += distance;
+        totalTime += time;
+        totalDuration += duration;
+        distance = 0;
+        time = 0;
+    }
+
+    public double getLength() {
+        return length;
+    }
+
+    /**
+     * @return Flow [veh/s] of the last period.
+     */
+    public double getFlow() {
+        return flow;
+    }
+
+    /**
+     * @return Density [veh/m] of the last period.
+     */
+    public double getDensity() {
+        return density;
+    }
+
+    /**
+     * @return Space-mean speed [m/s] of the last period, NaN if the section was empty.
+     */
+    public double getSpeed() {
+        return density > 0 ? flow / density : Double.NaN;
+    }
+
+    /**
+     * @return Flow [veh/s] over all completed periods.
+     */
+    public double getMeanFlow() {
+        return totalDuration > 0 ? totalDistance / (length * totalDuration) : Double.NaN;
+    }
+
+    /**
+     * @return Density [veh/m] over all completed periods.
+     */
+    public double getMeanDensity() {
+        return totalDuration > 0 ? totalTime / (length * totalDuration) : Double.NaN;
+    }
+
+    /**
+     * @return Space-mean speed [m/s] over all completed periods.
+     */
+    public double getMeanSpeed() {
+        return totalTime > 0 ? totalDistance / totalTime : Double.NaN;
+    }
+}
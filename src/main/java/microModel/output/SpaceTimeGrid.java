@@ -0,0 +1,308 @@
+package microModel.output;
+
+import microModel.core.road.jLane;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>
+ * Space-time (x-t) grid over a chain of longitudinally connected lanes. For every cell of
+ * <tt>dx</tt> by <tt>dt</tt> the total distance travelled and the total time spent by
+ * vehicles are accumulated. By Edie's definitions, the flow of a cell is the distance over
+ * the cell area, the density is the time over the cell area and the speed is the distance
+ * over the time. This gives the same speed and flow contours as processing all vehicle
+ * trajectories.
+ * </p><p>
+ * The time cell of a movement is the cell of the start of the time step, so <tt>dt</tt>
+ * should be a multiple of the simulation step size.
+ * </p>
+ */
+public final class SpaceTimeGrid {
+
+    /** Identifies a grid file, "JXTG". */
+    private static final int MAGIC = 0x4a585447;
+
+    /** Version of the grid file format. */
+    private static final int VERSION = 1;
+
+    /** Lanes of the chain, from upstream to downstream. */
+    private final jLane[] lanes;
+
+    /** Position [m] of the start of each lane in the chain. */
+    private final double[] offsets;
+
+    /** Length [m] of the chain. */
+    private final double length;
+
+    private final double dx;
+    private final double dt;
+    private final double startTime;
+
+    /** Number of space cells. */
+    private final int nX;
+
+    /** Number of time cells with data. */
+    private int nT;
+
+    /** Distance travelled [m] per cell, by time cell and then space cell. */
+    private double[] distance;
+
+    /** Time spent [s] per cell, by time cell and then space cell. */
+    private double[] time;
+
+    /**
+     * @param lanes Lanes of the chain, from upstream to downstream.
+     * @param dx Cell length [m].
+     * @param dt Cell duration [s].
+     * @param startTime Start time [s] of the first time cell.
+     * @param duration Expected duration [s], the grid grows beyond it if required.
+     */
+    public SpaceTimeGrid(jLane[] lanes, double dx, double dt, double startTime, double duration) {
+        if (!(dx > 0) || !(dt > 0)) {
+            throw new IllegalArgumentException("Cell size should be positive, got " + dx + "m x " + dt + "s");
+        }
+        this.lanes = lanes.clone();
+        this.offsets = new double[lanes.length];
+        double l = 0;
+        for (int i = 0; i < lanes.length; i++) {
+            offsets[i] = l;
+            l += lanes[i].getL();
+        }
+        this.length = l;
+        this.dx = dx;
+        this.dt = dt;
+        this.startTime = startTime;
+        this.nX = Math.max(1, (int) Math.ceil(length / dx));
+        int capacity = Math.max(1, (int) Math.ceil(duration / dt));
+        distance = new double[capacity * nX];
+        time = new double[capacity * nX];
+    }
+
+    /**
+     * Divides the lanes of a network in chains of downstream lanes and creates a grid
+     * for each chain. A chain starts at a lane that is not downstream of any other lane.
+     * Where lanes merge, the downstream lane is part of the first chain that reaches it.
+     * @param network Lanes of the network.
+     * @param dx Cell length [m].
+     * @param dt Cell duration [s].
+     * @param startTime Start time [s] of the first time cell.
+     * @param duration Expected duration [s].
+     * @return Grids of the network.
+     */
+    public static List<SpaceTimeGrid> forNetwork(jLane[] network, double dx, double dt, double startTime, double duration) {
+        Set<jLane> downstream = new HashSet<jLane>();
+        for (jLane lane : network) {
+            if (lane.getDown() != null) {
+                downstream.add(lane.getDown());
+            }
+        }
+        List<jLane> heads = new ArrayList<jLane>();
+        for (jLane lane : network) {
+            if (!downstream.contains(lane)) {
+                heads.add(lane);
+            }
+        }
+        // lanes in a ring have no head, any lane of the ring is used
+        heads.addAll(Arrays.asList(network));
+
+        Set<jLane> assigned = new HashSet<jLane>();
+        List<SpaceTimeGrid> grids = new ArrayList<SpaceTimeGrid>();
+        for (jLane head : heads) {
+            List<jLane> chain = new ArrayList<jLane>();
+            jLane lane = head;
+            while (lane != null && !assigned.contains(lane)) {
+                assigned.add(lane);
+                chain.add(lane);
+                lane = lane.getDown();
+            }
+            if (!chain.isEmpty()) {
+                grids.add(new SpaceTimeGrid(chain.toArray(new jLane[chain.size()]), dx, dt, startTime, duration));
+            }
+        }
+        return grids;
+    }
+
+    /**
+     * @return Lanes of the chain, from upstream to downstream.
+     */
+    public jLane[] getLanes() {
+        return lanes.clone();
+    }
+
+    /**
+     * @param index Index of a lane in the chain.
+     * @return Position [m] of the start of the lane in the chain.
+     */
+    public double getOffset(int index) {
+        return offsets[index];
+    }
+
+    /**
+     * Adds the movement of a vehicle during a time step. Parts of the movement outside of
+     * the chain are ignored. The time is divided over the space cells in proportion to the
+     * distance in each cell.
+     * @param t Time [s] at the start of the time step.
+     * @param fromPos Position [m] in the chain at the start of the time step.
+     * @param toPos Position [m] in the chain at the end of the time step.
+     * @param stepTime Time step size [s].
+     */
+    public void add(double t, double fromPos, double toPos, double stepTime) {
+        int k = (int) Math.floor((t - startTime) / dt);
+        if (k < 0) {
+            return;
+        }
+        ensureTimeCells(k + 1);
+        int row = k * nX;
+        double dPos = toPos - fromPos;
+        if (!(dPos > 0)) {
+            if (fromPos >= 0 && fromPos < length) {
+                time[row + Math.min((int) (fromPos / dx), nX - 1)] += stepTime;
+            }
+            return;
+        }
+        double from = Math.max(fromPos, 0);
+        double to = Math.min(toPos, length);
+        int i = (int) (from / dx);
+        while (from < to && i < nX) {
+            double end = Math.min(to, (i + 1) * dx);
+            double d = end - from;
+            distance[row + i] += d;
+            time[row + i] += stepTime * d / dPos;
+            from = end;
+            i++;
+        }
+    }
+
+    private void ensureTimeCells(int n) {
+        if (n > nT) {
+            if (n * nX > distance.length) {
+                int capacity = Math.max(n, 2 * distance.length / nX) * nX;
+                distance = Arrays.copyOf(distance, capacity);
+                time = Arrays.copyOf(time, capacity);
+            }
+            nT = n;
+        }
+    }
+
+    /**
+     * @return Number of space cells.
+     */
+    public int getSpaceCells() {
+        return nX;
+    }
+
+    /**
+     * @return Number of time cells with data.
+     */
+    public int getTimeCells() {
+        return nT;
+    }
+
+    /**
+     * @param i Space cell.
+     * @param k Time cell.
+     * @return Total distance travelled [m] in the cell.
+     */
+    public double getDistance(int i, int k) {
+        return distance[index(i, k)];
+    }
+
+    /**
+     * @param i Space cell.
+     * @param k Time cell.
+     * @return Total time spent [s] in the cell.
+     */
+    public double getTime(int i, int k) {
+        return time[index(i, k)];
+    }
+
+    /**
+     * @param i Space cell.
+     * @param k Time cell.
+     * @return Flow [veh/s] in the cell.
+     */
+    public double getFlow(int i, int k) {
+        return distance[index(i, k)] / (cellLength(i) * dt);
+    }
+
+    /**
+     * @param i Space cell.
+     * @param k Time cell.
+     * @return Density [veh/m] in the cell.
+     */
+    public double getDensity(int i, int k) {
+        return time[index(i, k)] / (cellLength(i) * dt);
+    }
+
+    /**
+     * @param i Space cell.
+     * @param k Time cell.
+     * @return Space-mean speed [m/s] in the cell, NaN if the cell was empty.
+     */
+    public double getSpeed(int i, int k) {
+        int index = index(i, k);
+        return time[index] > 0 ? distance[index] / time[index] : Double.NaN;
+    }
+
+    /** The last space cell is shorter if the chain length is not a multiple of <tt>dx</tt>. */
+    private double cellLength(int i) {
+        return Math.min(dx, length - i * dx);
+    }
+
+    private int index(int i, int k) {
+        if (i < 0 || i >= nX || k < 0 || k >= nT) {
+            throw new IndexOutOfBoundsException("Grid has " + nX + "x" + nT + " cells, requested " + i + "x" + k);
+        }
+        return k * nX + i;
+    }
+
+    /**
+     * <p>
+     * Writes the grid in a binary format:
+     * </p>
+     * <pre>
+     * int magic, int version
+     * int number of lanes, per lane: int id, double offset [m]
+     * double length [m], double dx [m], double dt [s], double start time [s]
+     * int space cells, int time cells
+     * float distance [m] per cell, by time cell and then space cell
+     * float time [s] per cell, by time cell and then space cell</pre>
+     * @param file File to write.
+     * @throws IOException If the file could not be written.
+     */
+    public void write(File file) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(lanes.length);
+            for (int i = 0; i < lanes.length; i++) {
+                out.writeInt(lanes[i].getId());
+                out.writeDouble(offsets[i]);
+            }
+            out.writeDouble(length);
+            out.writeDouble(dx);
+            out.writeDouble(dt);
+            out.writeDouble(startTime);
+            out.writeInt(nX);
+            out.writeInt(nT);
+            for (int i = 0; i < nT * nX; i++) {
+                out.writeFloat((float) distance[i]);
+            }
+            for (int i = 0; i < nT * nX; i++) {
+                out.writeFloat((float) time[i]);
+            }
+        } finally {
+            out.close();
+        }
+    }
+}
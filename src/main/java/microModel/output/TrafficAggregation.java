@@ -0,0 +1,172 @@
+package microModel.output;
+
+import microModel.core.road.jLane;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * Online aggregation of macroscopic traffic measures over the lanes of a network. Each
+ * lane is a section with {@link SectionStatistics}, to which the model adds every vehicle
+ * movement in the move phase, see {@link #moved(jLane, double, double, double)}. Periods
+ * end at a fixed interval, see {@link #update(double)}.
+ * </p><p>
+ * Lanes are found by their ordinal in the routing table of the network, so updates are
+ * array accesses.
+ * </p><p>
+ * Optionally, the same movements are added to a {@link SpaceTimeGrid} per chain of lanes,
+ * see {@link #addSpaceTimeGrids(double, double, double)}.
+ * </p>
+ */
+public final class TrafficAggregation {
+
+    /** Section statistics by lane ordinal. */
+    private final SectionStatistics[] sections;
+
+    /** Aggregation period [s]. */
+    private final double period;
+
+    /** Start time [s] of the current period. */
+    private double periodStart;
+
+    /** Start time [s] of the current time step. */
+    private double time;
+
+    /** Lanes of the network. */
+    private final jLane[] network;
+
+    /** Space-time grids, empty if not enabled. */
+    private final List<SpaceTimeGrid> grids = new ArrayList<SpaceTimeGrid>();
+
+    /** Space-time grid by lane ordinal, <tt>null</tt> if not enabled. */
+    private SpaceTimeGrid[] gridByLane;
+
+    /** Position [m] of the start of the lane in its grid, by lane ordinal. */
+    private double[] gridOffset;
+
+    /**
+     * @param network Lanes of the network, with ordinals assigned by a routing table.
+     * @param period Aggregation period [s].
+     * @param startTime Start time [s] of the first period.
+     */
+    public TrafficAggregation(jLane[] network, double period, double startTime) {
+        if (!(period > 0)) {
+            throw new IllegalArgumentException("Aggregation period should be positive, got " + period);
+        }
+        this.period = period;
+        this.periodStart = startTime;
+        this.time = startTime;
+        this.network = network.clone();
+        sections = new SectionStatistics[network.length];
+        for (jLane lane : network) {
+            int ordinal = lane.ordinal();
+            if (ordinal < 0 || ordinal >= network.length) {
+                throw new IllegalArgumentException("Lane " + lane.getId() + " is not part of the routing table of the network");
+            }
+            sections[ordinal] = new SectionStatistics(lane.getL());
+        }
+    }
+
+    /**
+     * Adds a space-time grid for each chain of lanes in the network, see
+     * {@link SpaceTimeGrid#forNetwork(jLane[], double, double, double, double)}.
+     * @param dx Cell length [m].
+     * @param dt Cell duration [s].
+     * @param duration Expected duration [s].
+     */
+    public void addSpaceTimeGrids(double dx, double dt, double duration) {
+        grids.clear();
+        grids.addAll(SpaceTimeGrid.forNetwork(network, dx, dt, time, duration));
+        gridByLane = new SpaceTimeGrid[sections.length];
+        gridOffset = new double[sections.length];
+        for (SpaceTimeGrid grid : grids) {
+            jLane[] lanes = grid.getLanes();
+            for (int i = 0; i < lanes.length; i++) {
+                gridByLane[lanes[i].ordinal()] = grid;
+                gridOffset[lanes[i].ordinal()] = grid.getOffset(i);
+            }
+        }
+    }
+
+    /**
+     * @return Space-time grids, empty if not enabled.
+     */
+    public List<SpaceTimeGrid> getSpaceTimeGrids() {
+        return Collections.unmodifiableList(grids);
+    }
+
+    /**
+     * Adds the movement of a vehicle during a time step. If the vehicle moves beyond
+     * the end of the lane, the distance and time are divided over the lane and its
+     * downstream lanes, which may be part of another space-time grid.
+     * @param lane Lane the vehicle was on at the start of the time step.
+     * @param fromX Position [m] on the lane at the start of the time step.
+     * @param toX Position [m] on the lane at the end of the time step.
+     * @param dt Time step size [s].
+     */
+    public void moved(jLane lane, double fromX, double toX, double dt) {
+        double dx = toX - fromX;
+        if (!(dx > 0)) {
+            add(lane, fromX, fromX, dt);
+            return;
+        }
+        while (toX > lane.getL() && lane.getDown() != null) {
+            double from = Math.min(fromX, lane.getL());
+            add(lane, from, lane.getL(), dt * (lane.getL() - from) / dx);
+            fromX = Math.max(fromX - lane.getL(), 0);
+            toX = toX - lane.getL();
+            lane = lane.getDown();
+        }
+        add(lane, fromX, toX, dt * (toX - fromX) / dx);
+    }
+
+    /**
+     * Adds the part of a movement on a single lane, or beyond the end of the last lane.
+     * @param lane Lane.
+     * @param fromX Start position [m] on the lane.
+     * @param toX End position [m] on the lane.
+     * @param duration Time [s] of the movement.
+     */
+    private void add(jLane lane, double fromX, double toX, double duration) {
+        int ordinal = lane.ordinal();
+        if (ordinal < 0 || ordinal >= sections.length) {
+            return;
+        }
+        sections[ordinal].add(toX - fromX, duration);
+        if (gridByLane != null && gridByLane[ordinal] != null) {
+            double offset = gridOffset[ordinal];
+            gridByLane[ordinal].add(time, offset + fromX, offset + toX, duration);
+        }
+    }
+
+    /**
+     * Ends all periods that have passed.
+     * @param t Current simulation time [s].
+     */
+    public void update(double t) {
+        time = t;
+        while (t >= periodStart + period) {
+            for (SectionStatistics section : sections) {
+                section.endPeriod(period);
+            }
+            periodStart += period;
+        }
+    }
+
+    /**
+     * @param lane Lane of the network.
+     * @return Statistics of the lane.
+     */
+    public SectionStatistics getSection(jLane lane) {
+        return sections[lane.ordinal()];
+    }
+
+    /**
+     * @return Aggregation period [s].
+     */
+    public double getPeriod() {
+        return period;
+    }
+}
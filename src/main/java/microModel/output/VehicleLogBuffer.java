@@ -4,6 +4,7 @@ import microModel.core.road.jLane;
 import microModel.core.vehicle.Vehicle;
 import microModel.jModel;
 import microModel.settings.BuiltInSettings;
+import microModel.settings.SettingsSnapshot;
 import microModel.settings.jSettings;
 
 import java.io.*;
@@ -30,9 +31,8 @@ public class VehicleLogBuffer {
      */
     public VehicleLogBuffer(Vehicle vehicle) {
         jModel model = jModel.getInstance();
-        jSettings settings = jSettings.getInstance();
         this.vehicle = vehicle;
-        previousSnapshotTime = model.getT() - settings.get(BuiltInSettings.DEBUG_TRAJECTORY_SAMPLING_RATE);
+        previousSnapshotTime = model.getT() - model.getSettings().debugTrajectorySamplingRate;
     }
 
     /**
@@ -40,14 +40,14 @@ public class VehicleLogBuffer {
      */
     public synchronized void log() {
         jModel model = jModel.getInstance();
-        jSettings settings = jSettings.getInstance();
+        SettingsSnapshot settings = model.getSettings();
 
-        if (settings.get(BuiltInSettings.DEBUG_TRAJECTORY) &&
-                model.getT() - previousSnapshotTime >= settings.get(BuiltInSettings.DEBUG_TRAJECTORY_SAMPLING_RATE)) {
+        if (settings.debugTrajectory &&
+                model.getT() - previousSnapshotTime >= settings.debugTrajectorySamplingRate) {
             // create new VehicleSnapshot and add to vector
             vehicleSnapshots.add(new VehicleSnapshot(vehicle));
             // update last sampling time
-            previousSnapshotTime = previousSnapshotTime + settings.get(BuiltInSettings.DEBUG_TRAJECTORY_SAMPLING_RATE);
+            previousSnapshotTime = previousSnapshotTime + settings.debugTrajectorySamplingRate;
         }
     }
     
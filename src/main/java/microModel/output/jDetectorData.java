@@ -24,14 +24,8 @@ public class jDetectorData implements java.io.Serializable {
      * @param detector Detector of which the data needs to be stored.
      */
     public jDetectorData(jDetector detector) {
-        q = new int[detector.qHist.size()];
-        for (int i=0; i<detector.qHist.size(); i++) {
-            q[i] = detector.qHist.get(i);
-        }
-        v = new double[detector.vHist.size()];
-        for (int i=0; i<detector.vHist.size(); i++) {
-            v[i] = detector.vHist.get(i);
-        }
+        q = detector.history.flows();
+        v = detector.history.speeds();
         lane = detector.lane.getId();
         x = detector.getX();
     }
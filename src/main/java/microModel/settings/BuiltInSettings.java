@@ -61,6 +61,41 @@ public final class BuiltInSettings {
     public static final Parameter<Integer> DETECTOR_PERIOD = new Parameter<Integer>("detectorPeriod", 5);
     static { PARAMETERS.add(DETECTOR_PERIOD); }
 
+    /** Keep track of flow, density and speed per lane, see {@link microModel.output.TrafficAggregation}. */
+    public static final Parameter<Boolean> DEBUG_AGGREGATION = new Parameter<Boolean>("debugAggregation", false);
+    static { PARAMETERS.add(DEBUG_AGGREGATION); }
+
+    /** Aggregation period of lane statistics in seconds. */
+    public static final Parameter<Double> AGGREGATION_PERIOD = new Parameter<Double>("aggregationPeriod", 60.0);
+    static { PARAMETERS.add(AGGREGATION_PERIOD); }
+
+    /** Keep track of a space-time grid of speed and flow per lane chain, see {@link microModel.output.SpaceTimeGrid}. */
+    public static final Parameter<Boolean> DEBUG_SPACE_TIME_GRID = new Parameter<Boolean>("debugSpaceTimeGrid", false);
+    static { PARAMETERS.add(DEBUG_SPACE_TIME_GRID); }
+
+    /** Cell length of the space-time grid in meters. */
+    public static final Parameter<Double> SPACE_TIME_GRID_DX = new Parameter<Double>("spaceTimeGridDx", 100.0);
+    static { PARAMETERS.add(SPACE_TIME_GRID_DX); }
+
+    /** Cell duration of the space-time grid in seconds. */
+    public static final Parameter<Double> SPACE_TIME_GRID_DT = new Parameter<Double>("spaceTimeGridDt", 60.0);
+    static { PARAMETERS.add(SPACE_TIME_GRID_DT); }
+
+    /**
+     * Maximum number of deleted vehicles per vehicle class that are kept for reuse by the
+     * vehicle generation, see {@link microModel.core.vehicle.jClass}. 0 disables pooling.
+     */
+    public static final Parameter<Integer> VEHICLE_POOL_SIZE = new Parameter<Integer>("vehiclePoolSize", 0);
+    static { PARAMETERS.add(VEHICLE_POOL_SIZE); }
+
+    /**
+     * Computes the car following of vehicles with an IDM+ driver in a structure of arrays and
+     * skips their lane change decisions, see {@link microModel.core.driver.model.CarFollowingKernel}.
+     * Only valid for runs without lane changes.
+     */
+    public static final Parameter<Boolean> CAR_FOLLOWING_KERNEL = new Parameter<Boolean>("carFollowingKernel", false);
+    static { PARAMETERS.add(CAR_FOLLOWING_KERNEL); }
+
     /** Simulation logging Output Path */
     public static final Parameter<String> OUTPUT_PATH = new Parameter<String>("outputDir", "/tmp/jSim/output");
     static { PARAMETERS.add(OUTPUT_PATH); }
@@ -127,6 +162,14 @@ public final class BuiltInSettings {
     public static final Parameter<String> DETECTOR_DATA_FILE_PATH = new Parameter<String>("detectorDataFilePath", "/detector_data/detectors.data");
     static { PARAMETERS.add(DETECTOR_DATA_FILE_PATH); }
 
+    /** Directory for the binary cache of the detector data and info files, e.g. /tmp/jSim/cache. Empty (default) to disable the cache. */
+    public static final Parameter<String> DETECTOR_CACHE_PATH = new Parameter<String>("detectorCachePath", "");
+    static { PARAMETERS.add(DETECTOR_CACHE_PATH); }
+
+    /** Directory for compiled networks, see {@link microModel.map.CompiledNetwork}, e.g. /tmp/jSim/cache. Empty (default) to always import the KML file. */
+    public static final Parameter<String> NETWORK_CACHE_PATH = new Parameter<String>("networkCachePath", "");
+    static { PARAMETERS.add(NETWORK_CACHE_PATH); }
+
     //Detector data format
     public static final Parameter<String> DETECTOR_DATA_DELIMITER = new Parameter<String>("detectorDataDelimiter", ",");
     static { PARAMETERS.add(DETECTOR_DATA_DELIMITER); }
@@ -0,0 +1,51 @@
+package microModel.settings;
+
+/**
+ * <p>
+ * Immutable copy of the settings that are read on every simulation step.
+ * </p><p>
+ * {@link jSettings#get(microModel.core.Parameter)} is a map lookup followed by unboxing. The
+ * model takes a snapshot of the settings when it is initialized (see
+ * {@link microModel.jModel#init()}), after which the per-step checks, e.g. whether
+ * detector data needs to be recorded, are reads of final primitive fields. Settings that
+ * are changed while the model runs take effect once the snapshot is refreshed with
+ * {@link microModel.jModel#refreshSettings()}.
+ * </p>
+ */
+public final class SettingsSnapshot {
+
+    /** See {@link BuiltInSettings#DEBUG}. */
+    public final boolean debug;
+
+    /** See {@link BuiltInSettings#DEBUG_MODEL}. */
+    public final boolean debugModel;
+
+    /** See {@link BuiltInSettings#DEBUG_TRAJECTORY}. */
+    public final boolean debugTrajectory;
+
+    /** See {@link BuiltInSettings#DEBUG_TRAJECTORY_SAMPLING_RATE}. */
+    public final double debugTrajectorySamplingRate;
+
+    /** See {@link BuiltInSettings#DEBUG_DETECTOR}. */
+    public final boolean debugDetector;
+
+    /** See {@link BuiltInSettings#VEHICLE_POOL_SIZE}. */
+    public final int vehiclePoolSize;
+
+    /** See {@link BuiltInSettings#CAR_FOLLOWING_KERNEL}. */
+    public final boolean carFollowingKernel;
+
+    /**
+     * Takes a snapshot of the current settings.
+     * @param settings The settings.
+     */
+    public SettingsSnapshot(jSettings settings) {
+        debug = settings.get(BuiltInSettings.DEBUG);
+        debugModel = settings.get(BuiltInSettings.DEBUG_MODEL);
+        debugTrajectory = settings.get(BuiltInSettings.DEBUG_TRAJECTORY);
+        debugTrajectorySamplingRate = settings.get(BuiltInSettings.DEBUG_TRAJECTORY_SAMPLING_RATE);
+        debugDetector = settings.get(BuiltInSettings.DEBUG_DETECTOR);
+        vehiclePoolSize = settings.get(BuiltInSettings.VEHICLE_POOL_SIZE);
+        carFollowingKernel = settings.get(BuiltInSettings.CAR_FOLLOWING_KERNEL);
+    }
+}
@@ -0,0 +1,114 @@
+package microModel.util;
+
+import org.apache.log4j.Logger;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Compiled form of an origin demand as given in the KML input, e.g. <code>a+b-c+d</code>.
+ * The detector IDs of the terms are parsed once into primitive arrays.
+ * </p><p>
+ * Evaluation works directly on the column arrays of detector data that is indexed on the
+ * detector ID (see {@link LongColumnTable#indexBy(int)}), so each term costs one directory
+ * lookup plus one pass over the rows of that detector.
+ * </p>
+ */
+public class DemandEquation {
+
+    private static final Logger logger = Logger.getLogger(DemandEquation.class);
+
+    /** Detector IDs whose counts are added. */
+    private final long[] adds;
+    /** Detector IDs whose counts are subtracted. */
+    private final long[] subtracts;
+    private final boolean isEquationFormat;
+
+    private DemandEquation(long[] adds, long[] subtracts, boolean isEquationFormat) {
+        this.adds = adds;
+        this.subtracts = subtracts;
+        this.isEquationFormat = isEquationFormat;
+    }
+
+    /**
+     * Compiles the demand information parsed from the KML input.
+     * @param info demand information of an origin.
+     * @return the compiled equation.
+     */
+    public static DemandEquation compile(DetectorDataUtilities.DynamicDemandInfo info) {
+        return new DemandEquation(ids(info.getAdds()), ids(info.getSubtracts()), info.isEquationFormat());
+    }
+
+    private static long[] ids(List<String> terms) {
+        if (terms == null) {
+            return new long[0];
+        }
+        long[] ids = new long[terms.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = Long.parseLong(terms.get(i).trim());
+        }
+        return ids;
+    }
+
+    /**
+     * Evaluates the equation for each measurement interval.
+     * @param data detector data, indexed on the ID column.
+     * @return the (possibly negative) demand per interval.
+     */
+    public long[] evaluate(LongColumnTable data) {
+        int idColumn = DetectorDataUtilities.ID_COLUMN;
+        if (data.indexColumn() != idColumn) {
+            data.indexBy(idColumn);
+        }
+        long[] counts = data.column(DetectorDataUtilities.DEMAND_COLUMN);
+        long[] demand = new long[data.rowCount(idColumn, lastTerm())];
+        for (long id : adds) {
+            accumulate(data, counts, id, 1, demand);
+        }
+        for (long id : subtracts) {
+            accumulate(data, counts, id, -1, demand);
+        }
+        return demand;
+    }
+
+    /**
+     * Creates the demand data for a generator.
+     * <p>
+     * For equations the timestamps and speeds are those of the last detector in the
+     * equation and the demand column holds the evaluated demand, with negative values
+     * carried over to later intervals (see {@link DetectorDataUtilities#positiveDemand(long[])}).
+     * Otherwise the data of the single detector is returned as is.
+     * </p>
+     * @param data detector data, indexed on the ID column.
+     * @return the demand data for a generator.
+     */
+    public TableData<Long> demandData(LongColumnTable data) {
+        if (!isEquationFormat) {
+            return data.select(DetectorDataUtilities.ID_COLUMN, adds[0]);
+        }
+        long[] demand = DetectorDataUtilities.positiveDemand(evaluate(data));
+        TableData<Long> result = data.select(DetectorDataUtilities.ID_COLUMN, lastTerm());
+        Long[] column = new Long[demand.length];
+        for (int i = 0; i < demand.length; i++) {
+            column[i] = demand[i];
+        }
+        result.setColumn(DetectorDataUtilities.DEMAND_COLUMN, column);
+        return result;
+    }
+
+    private long lastTerm() {
+        return subtracts.length > 0 ? subtracts[subtracts.length - 1] : adds[adds.length - 1];
+    }
+
+    private static void accumulate(LongColumnTable data, long[] counts, long id, int sign, long[] demand) {
+        int from = data.firstRow(DetectorDataUtilities.ID_COLUMN, id);
+        int n = data.rowCount(DetectorDataUtilities.ID_COLUMN, id);
+        if (n != demand.length) {
+            logger.warn("Detector " + id + " has " + n + " intervals, expected " + demand.length);
+            n = Math.min(n, demand.length);
+        }
+        for (int i = 0; i < n; i++) {
+            demand[i] += sign * counts[from + i];
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package microModel.util;
+
+import com.google.common.io.Resources;
+import microModel.settings.BuiltInSettings;
+import microModel.settings.jSettings;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.ParseException;
+import java.util.TimeZone;
+import java.util.zip.CRC32;
+
+/**
+ * <p>
+ * Versioned binary cache for the Regio-Lab detector data and detector info files.
+ * </p><p>
+ * The first time a file is loaded it is parsed as text, indexed on its ID column and
+ * written to the cache directory ({@link BuiltInSettings#DETECTOR_CACHE_PATH}). Later loads
+ * memory-map the cache instead of parsing the text again. A cache file is only used if its
+ * version, the CRC32 checksum and length of the source file and the checksum of the parser
+ * options (see {@link Source#options()}) match; otherwise it is rebuilt. The cache is off
+ * unless a cache directory is configured.
+ * </p><p>
+ * Cache layout (big endian):
+ * <pre>
+ * int     magic
+ * int     version
+ * long    source checksum (CRC32)
+ * long    source length
+ * long    parser options checksum (CRC32)
+ * int     column size
+ * int     row size
+ * int     index column
+ * int     directory size
+ * long[]  directory keys   (directory size)
+ * int[]   directory starts (directory size)
+ * long[]  columns          (column size * row size, column after column)
+ * </pre>
+ * </p><p>
+ * The {@link #main(String...)} method can be used to (re)build the caches of the
+ * configured data files ahead of time.
+ * </p>
+ */
+public class DetectorDataCache {
+
+    private static final Logger logger = Logger.getLogger(DetectorDataCache.class);
+    /** "JSDC" */
+    private static final int MAGIC = 0x4a534443;
+    /** Increment whenever the layout or the content of the cached tables changes. */
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 48;
+
+    /** Produces the table from the source file if there is no valid cache. */
+    public interface Source {
+        LongColumnTable read() throws IOException, ParseException;
+
+        /**
+         * @return the settings that affect the content of the table, e.g. the delimiter,
+         * the timestamp pattern and the time zone used to parse timestamps.
+         */
+        String options();
+    }
+
+    private DetectorDataCache() {/* Should not be instantiated */}
+
+    /**
+     * Loads detector measurement data, indexed on the detector ID.
+     * @param path resource path of the detector data file.
+     * @return the data, see {@link DetectorDataUtilities} for the columns.
+     */
+    public static LongColumnTable detectorData(String path) throws IOException, ParseException {
+        return detectorData(path, false);
+    }
+
+    /**
+     * Loads detector info, indexed on the detector ID.
+     * @param path resource path of the detector info file.
+     * @return the info, see {@link DetectorInfoUtilities} for the columns.
+     */
+    public static LongColumnTable detectorInfo(String path) throws IOException, ParseException {
+        return detectorInfo(path, false);
+    }
+
+    private static LongColumnTable detectorData(final String path, boolean rebuild) throws IOException, ParseException {
+        return load(path, DetectorDataUtilities.ID_COLUMN, rebuild, new Source() {
+            @Override
+            public LongColumnTable read() throws IOException, ParseException {
+                return DetectorDataUtilities.readDetectorColumns(path);
+            }
+
+            @Override
+            public String options() {
+                return "data|" + DetectorDataUtilities.DELIMITER + "|" + DetectorDataUtilities.TIMESTAMP.toPattern()
+                        + "|" + TimeZone.getDefault().getID() + "|" + DetectorDataUtilities.COLUMN_SIZE
+                        + "|" + DetectorDataUtilities.ID_COLUMN + "|" + DetectorDataUtilities.TIMESTAMP_COLUMN
+                        + "|" + DetectorDataUtilities.LANE_COLUMN + "|" + DetectorDataUtilities.DEMAND_COLUMN
+                        + "|" + DetectorDataUtilities.SPEED_COLUMN;
+            }
+        });
+    }
+
+    private static LongColumnTable detectorInfo(final String path, boolean rebuild) throws IOException, ParseException {
+        return load(path, DetectorInfoUtilities.ID_COLUMN, rebuild, new Source() {
+            @Override
+            public LongColumnTable read() throws IOException {
+                return DetectorInfoUtilities.readDetectorInfoColumns(path);
+            }
+
+            @Override
+            public String options() {
+                return "info|" + DetectorInfoUtilities.DELIMITER + "|" + DetectorInfoUtilities.ID_COLUMN
+                        + "|" + DetectorInfoUtilities.LATITUDE_COLUMN + "|" + DetectorInfoUtilities.LONGITUDE_COLUMN;
+            }
+        });
+    }
+
+    /**
+     * Loads a table from the cache, or from its source if the cache is missing or stale.
+     *
+     * @param path        resource path of the source file.
+     * @param indexColumn column on which the table is indexed.
+     * @param rebuild     ignore an existing cache file.
+     * @param source      reads the source file.
+     * @return the table, indexed on the given column.
+     */
+    public static LongColumnTable load(String path, int indexColumn, boolean rebuild, Source source) throws IOException, ParseException {
+        URL url = Resources.getResource(DetectorDataCache.class, path);
+        String directory = jSettings.getInstance().get(BuiltInSettings.DETECTOR_CACHE_PATH);
+        if (directory == null || directory.isEmpty()) {
+            LongColumnTable table = source.read();
+            table.indexBy(indexColumn);
+            return table;
+        }
+
+        long start = System.nanoTime();
+        long[] checksum = checksum(url);
+        long options = checksum(source.options());
+        File cacheFile = new File(directory, path.replaceAll("^/+", "").replace('/', '_') + ".bin");
+        if (!rebuild && cacheFile.isFile()) {
+            try {
+                LongColumnTable table = read(cacheFile, checksum, options, indexColumn);
+                if (table != null) {
+                    logger.debug("Loaded " + path + " from cache in " + (System.nanoTime() - start) + " ns");
+                    return table;
+                }
+                logger.info("Cache " + cacheFile + " is out of date, rebuilding it.");
+            } catch (IOException e) {
+                logger.warn("Could not read cache " + cacheFile + ", rebuilding it.", e);
+            }
+        }
+
+        LongColumnTable table = source.read();
+        table.indexBy(indexColumn);
+        try {
+            write(table, checksum, options, cacheFile);
+        } catch (IOException e) {
+            logger.warn("Could not write cache " + cacheFile, e);
+        }
+        return table;
+    }
+
+    /**
+     * @return CRC32 checksum and length of the resource.
+     */
+    public static long[] checksum(URL url) throws IOException {
+        CRC32 crc = new CRC32();
+        long length = 0;
+        byte[] buffer = new byte[64 * 1024];
+        InputStream in = url.openStream();
+        try {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, n);
+                length += n;
+            }
+        } finally {
+            in.close();
+        }
+        return new long[] {crc.getValue(), length};
+    }
+
+    /**
+     * @return CRC32 checksum of the parser options.
+     */
+    private static long checksum(String options) {
+        CRC32 crc = new CRC32();
+        try {
+            crc.update(options.getBytes("UTF-8"));
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * @return the cached table, or null if the cache does not belong to the given source and options.
+     */
+    private static LongColumnTable read(File cacheFile, long[] checksum, long options, int indexColumn) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(cacheFile, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                return null;
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                    || buffer.getLong() != checksum[0] || buffer.getLong() != checksum[1]
+                    || buffer.getLong() != options) {
+                return null;
+            }
+            int columnSize = buffer.getInt();
+            int rowSize = buffer.getInt();
+            int cachedIndexColumn = buffer.getInt();
+            int directorySize = buffer.getInt();
+            if (cachedIndexColumn != indexColumn
+                    || size != HEADER_SIZE + directorySize * 12L + columnSize * (long) rowSize * 8) {
+                return null;
+            }
+
+            long[] keys = new long[directorySize];
+            buffer.asLongBuffer().get(keys);
+            buffer.position(buffer.position() + directorySize * 8);
+            int[] starts = new int[directorySize];
+            buffer.asIntBuffer().get(starts);
+            buffer.position(buffer.position() + directorySize * 4);
+            long[][] columns = new long[columnSize][rowSize];
+            for (int c = 0; c < columnSize; c++) {
+                buffer.asLongBuffer().get(columns[c]);
+                buffer.position(buffer.position() + rowSize * 8);
+            }
+            return new LongColumnTable(columns, rowSize, indexColumn, keys, starts);
+        } finally {
+            file.close();
+        }
+    }
+
+    private static void write(LongColumnTable table, long[] checksum, long options, File cacheFile) throws IOException {
+        File directory = cacheFile.getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create cache directory " + directory);
+        }
+        File tmp = new File(directory, cacheFile.getName() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 64 * 1024));
+        try {
+            long[] keys = table.directoryKeys();
+            int[] starts = table.directoryStarts();
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(checksum[0]);
+            out.writeLong(checksum[1]);
+            out.writeLong(options);
+            out.writeInt(table.columnSize());
+            out.writeInt(table.rowSize());
+            out.writeInt(table.indexColumn());
+            out.writeInt(keys.length);
+            for (long key : keys) {
+                out.writeLong(key);
+            }
+            for (int start : starts) {
+                out.writeInt(start);
+            }
+            for (int c = 0; c < table.columnSize(); c++) {
+                long[] column = table.column(c);
+                for (int r = 0; r < table.rowSize(); r++) {
+                    out.writeLong(column[r]);
+                }
+            }
+        } finally {
+            out.close();
+        }
+        if (cacheFile.exists() && !cacheFile.delete()) {
+            throw new IOException("Could not replace cache " + cacheFile);
+        }
+        if (!tmp.renameTo(cacheFile)) {
+            throw new IOException("Could not move " + tmp + " to " + cacheFile);
+        }
+    }
+
+    /**
+     * Converts the configured detector data and info files to their binary cache.
+     */
+    public static void main(String... args) throws IOException, ParseException {
+        LongColumnTable data = detectorData(jSettings.getInstance().get(BuiltInSettings.DETECTOR_DATA_FILE_PATH), true);
+        LongColumnTable info = detectorInfo(jSettings.getInstance().get(BuiltInSettings.DETECTOR_INFO_FILE_PATH), true);
+        System.out.println("Cached " + data.rowSize() + " detector data rows and " + info.rowSize() + " detector info rows in "
+                + jSettings.getInstance().get(BuiltInSettings.DETECTOR_CACHE_PATH));
+    }
+}
@@ -0,0 +1,331 @@
+package microModel.util;
+
+import com.google.common.io.ByteStreams;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>
+ * Streaming parser for delimited detector data files into a {@link LongColumnTable}.
+ * </p><p>
+ * Files are memory-mapped, other resources (e.g. inside a jar) are read into a single
+ * buffer. The bytes are tokenised directly, without creating a String per line or field.
+ * Large inputs are split at line boundaries into chunks which are parsed in parallel and
+ * appended in their original order.
+ * </p><p>
+ * Every field is parsed as a long, except for the timestamp column which is converted to
+ * seconds since the epoch. Timestamps in the default format <code>yyyy-MM-dd HH:mm:ss</code>
+ * are parsed from their fixed digit positions; other formats fall back to a
+ * {@link SimpleDateFormat} that is confined to the parsing thread.
+ * </p>
+ */
+public class DetectorDataParser {
+
+    /** Timestamp format for which the fast path is used. */
+    public static final String DEFAULT_TIMESTAMP_FORMAT = "yyyy-MM-dd HH:mm:ss";
+    /** Minimum number of bytes per parallel chunk. */
+    private static final int MIN_CHUNK_SIZE = 256 * 1024;
+
+    private final byte delimiter;
+    private final String timestampFormat;
+    private final int columnSize;
+    private final int timestampColumn;
+
+    /**
+     * @param delimiter       single character field delimiter.
+     * @param timestampFormat {@link SimpleDateFormat} pattern of the timestamp column.
+     * @param columnSize      number of fields per line.
+     * @param timestampColumn column that holds the timestamp.
+     */
+    public DetectorDataParser(String delimiter, String timestampFormat, int columnSize, int timestampColumn) {
+        if (delimiter.length() != 1 || delimiter.charAt(0) > 127) {
+            throw new IllegalArgumentException("Only single character delimiters are supported: " + delimiter);
+        }
+        this.delimiter = (byte) delimiter.charAt(0);
+        this.timestampFormat = timestampFormat;
+        this.columnSize = columnSize;
+        this.timestampColumn = timestampColumn;
+    }
+
+    /**
+     * Parses the data at the given location.
+     *
+     * @param url location of the data.
+     * @return the parsed data.
+     * @throws IOException    if the data can not be read.
+     * @throws ParseException if a line does not match the expected format.
+     */
+    public LongColumnTable parse(URL url) throws IOException, ParseException {
+        return parse(read(url));
+    }
+
+    /**
+     * Parses the given buffer, in parallel when it is large enough.
+     *
+     * @param buffer the data, from position to limit.
+     * @return the parsed data.
+     * @throws ParseException if a line does not match the expected format.
+     */
+    public LongColumnTable parse(ByteBuffer buffer) throws ParseException {
+        int chunks = Math.min(Runtime.getRuntime().availableProcessors(), buffer.remaining() / MIN_CHUNK_SIZE);
+        return parse(buffer, Math.max(chunks, 1));
+    }
+
+    /**
+     * Parses the given buffer using the given number of chunks.
+     *
+     * @param buffer the data, from position to limit.
+     * @param chunks number of chunks to parse in parallel.
+     * @return the parsed data.
+     * @throws ParseException if a line does not match the expected format.
+     */
+    public LongColumnTable parse(ByteBuffer buffer, int chunks) throws ParseException {
+        int[] bounds = chunkBounds(buffer, chunks);
+        if (bounds.length == 2) {
+            return new Chunk(buffer, bounds[0], bounds[1]).call();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(bounds.length - 1);
+        try {
+            List<Future<LongColumnTable>> parts = new ArrayList<Future<LongColumnTable>>();
+            for (int i = 0; i < bounds.length - 1; i++) {
+                parts.add(executor.submit(new Chunk(buffer, bounds[i], bounds[i + 1])));
+            }
+            LongColumnTable result = new LongColumnTable(columnSize, estimateRows(buffer.remaining()));
+            for (Future<LongColumnTable> part : parts) {
+                result.addRows(part.get());
+            }
+            result.trim();
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parsing detector data", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ParseException) {
+                throw (ParseException) e.getCause();
+            }
+            throw new IllegalStateException("Failed to parse detector data", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Splits the buffer in chunks that start at the beginning of a line.
+     *
+     * @return chunk boundaries, chunk i is [bounds[i], bounds[i+1]).
+     */
+    private int[] chunkBounds(ByteBuffer buffer, int chunks) {
+        int start = buffer.position();
+        int end = buffer.limit();
+        int size = (end - start) / chunks;
+        List<Integer> bounds = new ArrayList<Integer>();
+        bounds.add(start);
+        int pos = start;
+        for (int i = 1; i < chunks; i++) {
+            pos = Math.max(pos, start + i * size);
+            while (pos < end && buffer.get(pos) != '\n') {
+                pos++;
+            }
+            if (pos >= end) {
+                break;
+            }
+            pos++;
+            bounds.add(pos);
+        }
+        bounds.add(end);
+
+        int[] result = new int[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    private int estimateRows(int bytes) {
+        // a typical line such as "3189,2009-05-13 15:00:00,1,20,97" is about 32 bytes.
+        return bytes / 32 + 1;
+    }
+
+    /**
+     * Reads the data at the given location, memory-mapping it if it is a file.
+     */
+    private static ByteBuffer read(URL url) throws IOException {
+        if ("file".equals(url.getProtocol())) {
+            RandomAccessFile file;
+            try {
+                file = new RandomAccessFile(new File(url.toURI()), "r");
+            } catch (URISyntaxException e) {
+                file = new RandomAccessFile(url.getPath(), "r");
+            }
+            try {
+                FileChannel channel = file.getChannel();
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } finally {
+                file.close();
+            }
+        }
+        InputStream in = url.openStream();
+        try {
+            return ByteBuffer.wrap(ByteStreams.toByteArray(in));
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Parses the lines in a part of the buffer. Each chunk has its own state,
+     * so chunks can be parsed concurrently.
+     */
+    private class Chunk implements Callable<LongColumnTable> {
+        private final ByteBuffer buffer;
+        private final int start;
+        private final int end;
+        /** Epoch seconds of the start of an hour, keyed by yyyyMMddHH. */
+        private final Map<Integer, Long> hours = new HashMap<Integer, Long>();
+        private Calendar calendar;
+        private SimpleDateFormat format;
+
+        private Chunk(ByteBuffer buffer, int start, int end) {
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public LongColumnTable call() throws ParseException {
+            LongColumnTable table = new LongColumnTable(columnSize, estimateRows(end - start));
+            long[] row = new long[columnSize];
+            int pos = start;
+            while (pos < end) {
+                int lineEnd = pos;
+                while (lineEnd < end && buffer.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                int contentEnd = lineEnd;
+                while (contentEnd > pos && isWhitespace(buffer.get(contentEnd - 1))) {
+                    contentEnd--;
+                }
+                if (contentEnd > pos) {
+                    parseLine(pos, contentEnd, row);
+                    table.addRow(row);
+                }
+                pos = lineEnd + 1;
+            }
+            table.trim();
+            return table;
+        }
+
+        private void parseLine(int pos, int lineEnd, long[] row) throws ParseException {
+            int column = 0;
+            int fieldStart = pos;
+            for (int i = pos; i <= lineEnd; i++) {
+                if (i == lineEnd || buffer.get(i) == delimiter) {
+                    if (column < columnSize) {
+                        row[column] = column == timestampColumn ? parseTimestamp(fieldStart, i) : parseLong(fieldStart, i);
+                    }
+                    column++;
+                    fieldStart = i + 1;
+                }
+            }
+            if (column < columnSize) {
+                throw new ParseException("Expected " + columnSize + " fields but found " + column + ": " + text(pos, lineEnd), pos);
+            }
+        }
+
+        private long parseLong(int from, int to) throws ParseException {
+            boolean negative = false;
+            int i = from;
+            if (i < to && buffer.get(i) == '-') {
+                negative = true;
+                i++;
+            }
+            if (i == to) {
+                throw new ParseException("Empty number field", from);
+            }
+            long value = 0;
+            for (; i < to; i++) {
+                int digit = buffer.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new ParseException("Invalid number: " + text(from, to), i);
+                }
+                value = value * 10 + digit;
+            }
+            return negative ? -value : value;
+        }
+
+        private long parseTimestamp(int from, int to) throws ParseException {
+            if (!DEFAULT_TIMESTAMP_FORMAT.equals(timestampFormat)) {
+                if (format == null) {
+                    format = new SimpleDateFormat(timestampFormat);
+                }
+                return format.parse(text(from, to)).getTime() / 1000;
+            }
+            if (to - from != DEFAULT_TIMESTAMP_FORMAT.length()) {
+                throw new ParseException("Invalid timestamp: " + text(from, to), from);
+            }
+            int year = digits(from, 4);
+            int month = digits(from + 5, 2);
+            int day = digits(from + 8, 2);
+            int hour = digits(from + 11, 2);
+            int minute = digits(from + 14, 2);
+            int second = digits(from + 17, 2);
+
+            int key = ((year * 100 + month) * 100 + day) * 100 + hour;
+            Long hourStart = hours.get(key);
+            if (hourStart == null) {
+                if (calendar == null) {
+                    calendar = Calendar.getInstance();
+                }
+                calendar.clear();
+                calendar.set(year, month - 1, day, hour, 0, 0);
+                hourStart = calendar.getTimeInMillis() / 1000;
+                hours.put(key, hourStart);
+            }
+            return hourStart + minute * 60 + second;
+        }
+
+        private int digits(int from, int count) throws ParseException {
+            int value = 0;
+            for (int i = from; i < from + count; i++) {
+                int digit = buffer.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new ParseException("Invalid timestamp digit", i);
+                }
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+
+        private String text(int from, int to) {
+            byte[] bytes = new byte[to - from];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(from + i);
+            }
+            return new String(bytes);
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == '\r' || b == ' ' || b == '\t';
+    }
+}
@@ -6,15 +6,11 @@ import microModel.settings.BuiltInSettings;
 import microModel.settings.jSettings;
 import org.apache.log4j.Logger;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.URL;
-import java.nio.charset.Charset;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.*;
+import java.util.List;
 
 public class DetectorDataUtilities {
 
@@ -39,6 +35,8 @@ public class DetectorDataUtilities {
     public static final int LANE_COLUMN = jSettings.getInstance().get(BuiltInSettings.DETECTOR_DATA_LANE_COLUMN_INDEX);
     public static final int DEMAND_COLUMN = jSettings.getInstance().get(BuiltInSettings.DETECTOR_DATA_DEMAND_COLUMN_INDEX);
     public static final int SPEED_COLUMN = jSettings.getInstance().get(BuiltInSettings.DETECTOR_DATA_SPEED_COLUMN_INDEX);
+    /** Number of fields per line. */
+    public static final int COLUMN_SIZE = 5;
 
     /**
      * Reads a detector measurement data file.
@@ -48,60 +46,22 @@ public class DetectorDataUtilities {
      * @throws IOException
      */
     public final static TableData<Long> readDetectorData(String path) throws ParseException, IOException {
-        //cache parsing results for faster perfomance.
-        Map<String, Long> cache = new TreeMap<String, Long>();
-        TableData<Long> data = new TableData<Long>();
-        URL url = Resources.getResource(DetectorDataUtilities.class, path);
-        List<String> lines = Resources.readLines(url, Charset.defaultCharset());
+        return readDetectorColumns(path).toTableData();
+    }
 
+    /**
+     * Reads a detector measurement data file into primitive columns.
+     * This avoids boxing every value and is the preferred way to load large data files.
+     * @param path the path to the file
+     * @return A columnar table of the data with the described columns.
+     * @throws ParseException
+     * @throws IOException
+     */
+    public final static LongColumnTable readDetectorColumns(String path) throws ParseException, IOException {
+        URL url = Resources.getResource(DetectorDataUtilities.class, path);
         long start = System.nanoTime();
-
-        for (String line : lines) {
-            String[] columns = line.split(DELIMITER);
-            Long[] row = new Long[5];
-
-            if (cache.containsKey(columns[ID_COLUMN])) {
-                row[ID_COLUMN] = cache.get(columns[ID_COLUMN]);
-            }
-            else {
-                row[ID_COLUMN] = Long.parseLong(columns[ID_COLUMN]);
-                cache.put(columns[ID_COLUMN],row[ID_COLUMN]);
-            }
-
-            if (cache.containsKey(columns[TIMESTAMP_COLUMN])) {
-                row[TIMESTAMP_COLUMN] = cache.get(columns[TIMESTAMP_COLUMN]);
-            }
-            else {
-                row[TIMESTAMP_COLUMN] = TIMESTAMP.parse(columns[TIMESTAMP_COLUMN]).getTime()/1000;
-                cache.put(columns[TIMESTAMP_COLUMN], row[TIMESTAMP_COLUMN]);
-            }
-
-            if (cache.containsKey(columns[LANE_COLUMN])) {
-                row[LANE_COLUMN] = cache.get(columns[LANE_COLUMN]);
-            }
-            else {
-                row[LANE_COLUMN] = Long.parseLong(columns[LANE_COLUMN]);
-                cache.put(columns[LANE_COLUMN], row[LANE_COLUMN]);
-            }
-
-            if (cache.containsKey(columns[DEMAND_COLUMN])) {
-                row[DEMAND_COLUMN] = cache.get(columns[DEMAND_COLUMN]);
-            }
-            else {
-                row[DEMAND_COLUMN] = Long.parseLong(columns[DEMAND_COLUMN]);
-                cache.put(columns[DEMAND_COLUMN], row[DEMAND_COLUMN]);
-            }
-
-            if (cache.containsKey(columns[SPEED_COLUMN])) {
-                row[SPEED_COLUMN] = cache.get(columns[SPEED_COLUMN]);
-            }
-            else {
-                row[SPEED_COLUMN] = Long.parseLong(columns[SPEED_COLUMN]);
-                cache.put(columns[SPEED_COLUMN], row[SPEED_COLUMN]);
-            }
-
-            data.addRow(row);
-        }
+        DetectorDataParser parser = new DetectorDataParser(DELIMITER, TIMESTAMP.toPattern(), COLUMN_SIZE, TIMESTAMP_COLUMN);
+        LongColumnTable data = parser.parse(url);
         long end = System.nanoTime();
         long duration = end - start;
         logger.debug("File Import Duration: " + duration);
@@ -130,6 +90,27 @@ public class DetectorDataUtilities {
         return Lists.newArrayList(pDemand);
     }
 
+    /**
+     * Converts an array of demand values that may contain negative values to positive demand values
+     * in such a way that the total demand remains the same. The array is modified in place.
+     * @param demand The demand values
+     * @return the same array, no longer containing negative values.
+     */
+    public final static long[] positiveDemand(long[] demand) {
+        long total = 0;
+        for (int i = 0; i < demand.length; i++) {
+            total += demand[i];
+            if (total < 0) {
+                demand[i] = 0;
+            }
+            else {
+                demand[i] = total;
+                total = 0;
+            }
+        }
+        return demand;
+    }
+
     public static class DynamicDemandInfo {
         private List<String> adds;
         private List<String> subtracts;
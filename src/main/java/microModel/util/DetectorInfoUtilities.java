@@ -54,4 +54,34 @@ public class DetectorInfoUtilities {
         }
         return data;
     }
+
+    /**
+     * Reads a detector info file into primitive columns. The ID is stored as a long,
+     * the latitude and longitude as the raw long bits of their double values
+     * (see {@link #latitude(LongColumnTable, int)} and {@link #longitude(LongColumnTable, int)}).
+     * @param path the path to the file
+     * @return A columnar table of the data with the described columns.
+     * @throws IOException
+     */
+    public static final LongColumnTable readDetectorInfoColumns(String path) throws IOException {
+        TableData<String> text = readDetectorInfoData(path);
+        LongColumnTable data = new LongColumnTable(3, text.rowSize());
+        long[] row = new long[3];
+        for (int r = 0; r < text.rowSize(); r++) {
+            row[ID_COLUMN] = Long.parseLong(text.get(r, ID_COLUMN));
+            row[LATITUDE_COLUMN] = Double.doubleToLongBits(Double.parseDouble(text.get(r, LATITUDE_COLUMN)));
+            row[LONGITUDE_COLUMN] = Double.doubleToLongBits(Double.parseDouble(text.get(r, LONGITUDE_COLUMN)));
+            data.addRow(row);
+        }
+        data.trim();
+        return data;
+    }
+
+    public static double latitude(LongColumnTable data, int row) {
+        return Double.longBitsToDouble(data.get(row, LATITUDE_COLUMN));
+    }
+
+    public static double longitude(LongColumnTable data, int row) {
+        return Double.longBitsToDouble(data.get(row, LONGITUDE_COLUMN));
+    }
 }
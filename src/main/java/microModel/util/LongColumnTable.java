@@ -0,0 +1,284 @@
+package microModel.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * <p>
+ * Column oriented table of primitive long values. Each column is stored in its own
+ * array so that large data sets (e.g. a full day of detector data) do not need a boxed
+ * object per cell.
+ * </p><p>
+ * Rows can only be appended. After loading, {@link #trim()} can be used to release
+ * the spare capacity of the column arrays.
+ * </p><p>
+ * A table can be indexed on one column with {@link #indexBy(int)}. The rows are then
+ * grouped by the values of that column and a directory maps each value to its row range,
+ * so that {@link #select(int, long)} and {@link #firstRow(int, long)} do not scan the table.
+ * </p>
+ */
+public class LongColumnTable {
+
+    /** Column arrays, indexed by column number. */
+    private long[][] columns;
+    /** Number of rows in use. */
+    private int rowSize = 0;
+    /** Column on which the directory is built, -1 if the table is not indexed. */
+    private int indexColumn = -1;
+    /** Sorted distinct values of the index column. */
+    private long[] directoryKeys;
+    /** First row of each directory key; the range ends at the first row of the next key. */
+    private int[] directoryStarts;
+
+    /**
+     * Creates an empty table.
+     *
+     * @param columnSize number of columns.
+     * @param capacity   initial number of rows to reserve.
+     */
+    public LongColumnTable(int columnSize, int capacity) {
+        columns = new long[columnSize][Math.max(capacity, 1)];
+    }
+
+    /**
+     * Creates a table around existing column arrays, e.g. when loaded from a cache.
+     */
+    LongColumnTable(long[][] columns, int rowSize, int indexColumn, long[] directoryKeys, int[] directoryStarts) {
+        this.columns = columns;
+        this.rowSize = rowSize;
+        this.indexColumn = indexColumn;
+        this.directoryKeys = directoryKeys;
+        this.directoryStarts = directoryStarts;
+    }
+
+    public int rowSize() {
+        return rowSize;
+    }
+
+    public int columnSize() {
+        return columns.length;
+    }
+
+    public long get(int row, int column) {
+        return columns[column][row];
+    }
+
+    /**
+     * Returns the backing array of a column. Only the first {@link #rowSize()} values
+     * are valid. The array must not be modified.
+     *
+     * @param column the column to return.
+     * @return backing array of the column.
+     */
+    public long[] column(int column) {
+        return columns[column];
+    }
+
+    /**
+     * Appends a row to the table.
+     *
+     * @param row values for each column, the array is copied.
+     */
+    public void addRow(long[] row) {
+        ensureCapacity(rowSize + 1);
+        for (int c = 0; c < columns.length; c++) {
+            columns[c][rowSize] = row[c];
+        }
+        rowSize++;
+        indexColumn = -1;
+    }
+
+    /**
+     * Appends all rows of another table with the same number of columns.
+     *
+     * @param other table to append.
+     */
+    public void addRows(LongColumnTable other) {
+        if (other.columnSize() != columnSize()) {
+            throw new IllegalArgumentException("Column size mismatch: " + other.columnSize() + " != " + columnSize());
+        }
+        ensureCapacity(rowSize + other.rowSize);
+        for (int c = 0; c < columns.length; c++) {
+            System.arraycopy(other.columns[c], 0, columns[c], rowSize, other.rowSize);
+        }
+        rowSize += other.rowSize;
+        indexColumn = -1;
+    }
+
+    /** Shrinks the column arrays to the number of rows in use. */
+    public void trim() {
+        for (int c = 0; c < columns.length; c++) {
+            if (columns[c].length != rowSize) {
+                columns[c] = Arrays.copyOf(columns[c], rowSize);
+            }
+        }
+    }
+
+    /**
+     * Selects all rows that have the given value in a column, keeping their order.
+     * (Similar to a Database select query).
+     *
+     * @param column the column to compare.
+     * @param value  the value to look for.
+     * @return the matching rows as a (small) TableData instance.
+     */
+    public TableData<Long> select(int column, long value) {
+        TableData<Long> result = new TableData<Long>();
+        if (column == indexColumn) {
+            int key = Arrays.binarySearch(directoryKeys, value);
+            if (key >= 0) {
+                for (int r = directoryStarts[key]; r < directoryEnd(key); r++) {
+                    result.addRow(row(r));
+                }
+            }
+            return result;
+        }
+        long[] values = columns[column];
+        for (int r = 0; r < rowSize; r++) {
+            if (values[r] == value) {
+                result.addRow(row(r));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the first row that has the given value in a column.
+     *
+     * @param column the column to compare.
+     * @param value  the value to look for.
+     * @return the row index, or -1 if no row matches.
+     */
+    public int firstRow(int column, long value) {
+        if (column == indexColumn) {
+            int key = Arrays.binarySearch(directoryKeys, value);
+            return key >= 0 ? directoryStarts[key] : -1;
+        }
+        long[] values = columns[column];
+        for (int r = 0; r < rowSize; r++) {
+            if (values[r] == value) {
+                return r;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Counts the rows that have the given value in a column. For the indexed column
+     * these rows are contiguous, starting at {@link #firstRow(int, long)}.
+     *
+     * @param column the column to compare.
+     * @param value  the value to look for.
+     * @return the number of matching rows.
+     */
+    public int rowCount(int column, long value) {
+        if (column == indexColumn) {
+            int key = Arrays.binarySearch(directoryKeys, value);
+            return key >= 0 ? directoryEnd(key) - directoryStarts[key] : 0;
+        }
+        long[] values = columns[column];
+        int count = 0;
+        for (int r = 0; r < rowSize; r++) {
+            if (values[r] == value) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Groups the rows by the values of a column and builds the directory for it.
+     * The sort is stable, so rows with the same value keep their relative order.
+     *
+     * @param column the column to index.
+     */
+    public void indexBy(final int column) {
+        final long[] values = columns[column];
+        Integer[] order = new Integer[rowSize];
+        for (int r = 0; r < rowSize; r++) {
+            order[r] = r;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer r1, Integer r2) {
+                long v1 = values[r1];
+                long v2 = values[r2];
+                return v1 < v2 ? -1 : (v1 == v2 ? 0 : 1);
+            }
+        });
+        for (int c = 0; c < columns.length; c++) {
+            long[] sorted = new long[rowSize];
+            for (int r = 0; r < rowSize; r++) {
+                sorted[r] = columns[c][order[r]];
+            }
+            columns[c] = sorted;
+        }
+
+        long[] sorted = columns[column];
+        int keys = 0;
+        for (int r = 0; r < rowSize; r++) {
+            if (r == 0 || sorted[r] != sorted[r - 1]) {
+                keys++;
+            }
+        }
+        directoryKeys = new long[keys];
+        directoryStarts = new int[keys];
+        int key = 0;
+        for (int r = 0; r < rowSize; r++) {
+            if (r == 0 || sorted[r] != sorted[r - 1]) {
+                directoryKeys[key] = sorted[r];
+                directoryStarts[key] = r;
+                key++;
+            }
+        }
+        indexColumn = column;
+    }
+
+    /** @return the indexed column, -1 if the table is not indexed. */
+    public int indexColumn() {
+        return indexColumn;
+    }
+
+    long[] directoryKeys() {
+        return directoryKeys;
+    }
+
+    int[] directoryStarts() {
+        return directoryStarts;
+    }
+
+    private int directoryEnd(int key) {
+        return key + 1 < directoryStarts.length ? directoryStarts[key + 1] : rowSize;
+    }
+
+    /**
+     * Converts the whole table into a TableData instance.
+     *
+     * @return the table as boxed TableData.
+     */
+    public TableData<Long> toTableData() {
+        TableData<Long> result = new TableData<Long>();
+        for (int r = 0; r < rowSize; r++) {
+            result.addRow(row(r));
+        }
+        return result;
+    }
+
+    private Long[] row(int r) {
+        Long[] row = new Long[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            row[c] = columns[c][r];
+        }
+        return row;
+    }
+
+    private void ensureCapacity(int rows) {
+        int capacity = columns[0].length;
+        if (rows > capacity) {
+            int newCapacity = Math.max(rows, capacity + (capacity >> 1));
+            for (int c = 0; c < columns.length; c++) {
+                columns[c] = Arrays.copyOf(columns[c], newCapacity);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package microModel.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParameterValuesTest {
+
+    @Test
+    public void equalParametersShareOrdinal() {
+        Parameter<Double> pd1 = new Parameter<Double>("ParameterValuesTest_speed", 1.0);
+        Parameter<Double> pd2 = new Parameter<Double>("ParameterValuesTest_speed", 2.0);
+        Parameter<Integer> pi = new Parameter<Integer>("ParameterValuesTest_speed", 1);
+        Assert.assertEquals(pd1.ordinal(), pd2.ordinal());
+        Assert.assertTrue(pd1.ordinal() != pi.ordinal());
+        Assert.assertTrue(Parameter.count() > pi.ordinal());
+    }
+
+    @Test
+    public void defaultFallThrough() {
+        Parameter<Double> d = new Parameter<Double>("ParameterValuesTest_d", 1.5);
+        Parameter<Integer> i = new Parameter<Integer>("ParameterValuesTest_i", 4);
+        Parameter<Boolean> b = new Parameter<Boolean>("ParameterValuesTest_b", true);
+        ParameterValues values = new ParameterValues();
+        Assert.assertFalse(values.contains(d));
+        Assert.assertEquals(1.5, values.getDouble(d), 0.0);
+        Assert.assertEquals(Double.valueOf(1.5), values.get(d));
+        Assert.assertEquals(4, values.getInt(i));
+        Assert.assertTrue(values.getBoolean(b));
+    }
+
+    @Test
+    public void setValues() {
+        Parameter<Double> d = new Parameter<Double>("ParameterValuesTest_d", 1.5);
+        Parameter<Boolean> b = new Parameter<Boolean>("ParameterValuesTest_b", true);
+        Parameter<String> s = new Parameter<String>("ParameterValuesTest_s", "a");
+        ParameterValues values = new ParameterValues();
+
+        values.setDouble(d, 2.5);
+        Assert.assertTrue(values.contains(d));
+        Assert.assertEquals(2.5, values.getDouble(d), 0.0);
+        Assert.assertEquals(Double.valueOf(2.5), values.get(d));
+        values.set(d, 3.5);
+        Assert.assertEquals(3.5, values.getDouble(d), 0.0);
+
+        values.set(b, false);
+        Assert.assertFalse(values.getBoolean(b));
+        Assert.assertEquals(Boolean.FALSE, values.get(b));
+
+        values.set(s, "b");
+        Assert.assertEquals("b", values.get(s));
+
+        //Parameters declared after the values were created
+        Parameter<Double> late = new Parameter<Double>("ParameterValuesTest_late" + System.nanoTime(), 7.0);
+        Assert.assertEquals(7.0, values.getDouble(late), 0.0);
+        values.setDouble(late, 8.0);
+        Assert.assertEquals(8.0, values.getDouble(late), 0.0);
+    }
+}
@@ -0,0 +1,121 @@
+package microModel.core.device;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ControllerSchedulerTest {
+
+    /**
+     * Compares the control times of a controller run every time step with those of the
+     * same controller run by a scheduler.
+     */
+    private static void assertSameAsPolling(double duration, double start, double dt, int slots) {
+        RecordingController polled = new RecordingController(duration, start);
+        RecordingController scheduled = new RecordingController(duration, start);
+        ControllerScheduler scheduler = new ControllerScheduler(dt, 0, slots);
+        Assert.assertTrue(scheduler.add(scheduled));
+        for (int step = 0; step < 2000; step++) {
+            polled.run(step * dt);
+            scheduler.run(step, step * dt);
+        }
+        Assert.assertFalse(polled.controls.isEmpty());
+        Assert.assertEquals(polled.controls, scheduled.controls);
+        // controllers are only run around the steps they are due
+        Assert.assertTrue(scheduled.runs <= 2 * scheduled.controls.size());
+    }
+
+    @Test
+    public void firesWhenDue() {
+        assertSameAsPolling(5, 0, 0.5, 256);
+        assertSameAsPolling(60, 0, 0.1, 256);
+        assertSameAsPolling(0.3, 0, 0.1, 4);
+        assertSameAsPolling(7, 33, 0.2, 4);
+    }
+
+    @Test
+    public void acceptsOnlyIntervalControllers() {
+        ControllerScheduler scheduler = new ControllerScheduler(0.5, 0);
+        Assert.assertFalse(scheduler.add(new RecordingController(0, 0)));
+        RecordingController polling = new RecordingController(5, 0);
+        polling.polls = true;
+        Assert.assertFalse(scheduler.add(polling));
+        Assert.assertTrue(scheduler.add(new RecordingController(5, 0)));
+        Assert.assertEquals(1, scheduler.size());
+    }
+
+    @Test
+    public void runsInOrderOfAdding() {
+        List<String> order = new ArrayList<String>();
+        ControllerScheduler scheduler = new ControllerScheduler(0.5, 0);
+        Assert.assertTrue(scheduler.add(new OrderController("a", 0.5, order)));
+        Assert.assertFalse(scheduler.add(new OrderController("b", 0, order)));
+        Assert.assertTrue(scheduler.add(new OrderController("c", 0.5, order)));
+        Assert.assertTrue(scheduler.add(new OrderController("d", 0.5, order)));
+        Assert.assertFalse(scheduler.add(new OrderController("e", 0, order)));
+        scheduler.run(0, 0);
+        // the first control is due after one interval
+        Assert.assertEquals(Arrays.asList("b", "e"), order);
+        for (int step = 1; step < 10; step++) {
+            order.clear();
+            scheduler.run(step, step * 0.5);
+            Assert.assertEquals(Arrays.asList("a", "b", "c", "d", "e"), order);
+        }
+    }
+
+    /** Controller that records its name when it runs. */
+    private static final class OrderController extends AbstractController {
+        private final String name;
+        private final List<String> order;
+
+        private OrderController(String name, double duration, List<String> order) {
+            super(duration, 0);
+            this.name = name;
+            this.order = order;
+        }
+
+        public void init() {}
+
+        public void control() {
+            order.add(name);
+        }
+
+        public void noControl() {
+            order.add(name);
+        }
+
+        @Override
+        public boolean pollsNoControl() {
+            return false;
+        }
+    }
+
+    private static final class RecordingController extends AbstractController {
+        private final List<Double> controls = new ArrayList<Double>();
+        private int runs;
+        private boolean polls;
+
+        private RecordingController(double duration, double start) {
+            super(duration, start);
+        }
+
+        public void init() {}
+
+        public void control() {
+            runs++;
+            controls.add(t);
+        }
+
+        public void noControl() {
+            runs++;
+        }
+
+        @Override
+        public boolean pollsNoControl() {
+            return polls;
+        }
+    }
+}
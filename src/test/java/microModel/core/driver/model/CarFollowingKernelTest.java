@@ -0,0 +1,130 @@
+package microModel.core.driver.model;
+
+import apl.AgentDriver;
+import microModel.core.driver.IDMPlus_LMRS_Driver;
+import microModel.core.driver.jDriver;
+import microModel.core.road.TestLanes;
+import microModel.core.road.jLane;
+import microModel.core.vehicle.Enclosure;
+import microModel.core.vehicle.Vehicle;
+import microModel.jModel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CarFollowingKernelTest {
+
+    private static final double V0 = 30;
+    private static final double S0 = 3;
+    private static final double T = 1.2;
+    private static final double A = 1.25;
+    private static final double B = 2.09;
+    private static final int DELTA = 4;
+
+    private static CarFollowingKernel platoon(int n) {
+        CarFollowingKernel kernel = new CarFollowingKernel(1);
+        for (int i = 0; i < n; i++) {
+            int index = kernel.add(1000 - 30 * i, 20 + i % 3, 4, V0, S0, T, A, B, DELTA, -10);
+            if (i > 0) {
+                kernel.setLeader(index, index - 1);
+            }
+        }
+        return kernel;
+    }
+
+    @Test
+    public void idmPlusMatchesScalarModel() {
+        CarFollowingKernel kernel = platoon(10);
+        kernel.accelerateIDMPlus();
+        CarFollowingKernel.View leader = kernel.view(0);
+        Assert.assertNull(leader.getLeader());
+        Assert.assertEquals(A * (1 - Math.pow(leader.getSpeed() / V0, DELTA)), leader.getAcceleration(), 1e-12);
+        for (int i = 1; i < kernel.size(); i++) {
+            CarFollowingKernel.View view = kernel.view(i);
+            double v = view.getSpeed();
+            double dv = v - view.getLeader().getSpeed();
+            double expected = IDMPlus.plusAcceleration(A, Math.sqrt(A * B), S0, T, DELTA, v, dv, V0, view.getGap());
+            Assert.assertEquals(Math.max(expected, -10), view.getAcceleration(), 0.0);
+            Assert.assertEquals(26, view.getGap(), 1e-12);
+        }
+    }
+
+    @Test
+    public void idmMatchesScalarModel() {
+        CarFollowingKernel kernel = platoon(5);
+        kernel.accelerateIDM();
+        for (int i = 1; i < kernel.size(); i++) {
+            CarFollowingKernel.View view = kernel.view(i);
+            double v = view.getSpeed();
+            double expected = IDM.acceleration(S0, V0, v, DELTA, T, v - view.getLeader().getSpeed(), view.getGap(), A, B);
+            Assert.assertEquals(Math.max(expected, -10), view.getAcceleration(), 0.0);
+        }
+    }
+
+    @Test
+    public void move() {
+        CarFollowingKernel kernel = platoon(50);
+        for (int step = 0; step < 1000; step++) {
+            kernel.accelerateIDMPlus();
+            kernel.move(0.5);
+        }
+        for (int i = 0; i < kernel.size(); i++) {
+            CarFollowingKernel.View view = kernel.view(i);
+            Assert.assertTrue(view.getSpeed() >= 0);
+            if (i > 0) {
+                Assert.assertTrue(view.getGap() > 0);
+            }
+        }
+        //The platoon approaches the desired speed
+        Assert.assertEquals(V0, kernel.view(0).getSpeed(), 0.5);
+    }
+
+    private static Vehicle vehicle(jDriver.Builder drivers, jLane lane, double x, double v) {
+        Vehicle vehicle = new Vehicle.Builder(lane).withL(4).build();
+        drivers.build().setVehicle(vehicle);
+        vehicle.paste(lane, x);
+        vehicle.setSpeed(v);
+        return vehicle;
+    }
+
+    @Test
+    public void driveMatchesObjectModel() {
+        jLane up = TestLanes.lane(1, 0, 0, 100);
+        jLane down = TestLanes.lane(2, 0, 100, 400);
+        down.connectLong(up);
+        new jModel.Builder(new jLane[] {up, down}).build(0);
+        jDriver.Builder drivers = new IDMPlus_LMRS_Driver.Builder(null);
+        List<Vehicle> vehicles = new ArrayList<Vehicle>();
+        vehicles.add(vehicle(drivers, up, 50, 25));
+        // leader on the next lane
+        vehicles.add(vehicle(drivers, up, 95, 22));
+        // leader that is not driven by the kernel
+        vehicles.add(vehicle(drivers, down, 60, 20));
+        Vehicle agent = vehicle(new AgentDriver.Builder(null), down, 90, 5);
+        vehicles.add(agent);
+        vehicles.add(vehicle(drivers, down, 250, 15));
+
+        double[] expected = new double[vehicles.size()];
+        for (int i = 0; i < vehicles.size(); i++) {
+            Vehicle vehicle = vehicles.get(i);
+            vehicle.sense();
+            expected[i] = IDMPlus.acceleration(vehicle, vehicle.getVehicle(Enclosure.DOWNSTREAM));
+            vehicle.setAcceleration(Double.NaN);
+        }
+        Assert.assertSame(vehicles.get(2), vehicles.get(1).getVehicle(Enclosure.DOWNSTREAM));
+
+        CarFollowingKernel kernel = new CarFollowingKernel(1);
+        kernel.drive(vehicles);
+        Assert.assertEquals(4, kernel.size());
+        Assert.assertEquals(0, agent.getAcceleration(), 0.0);
+        for (int i = 0; i < vehicles.size(); i++) {
+            if (vehicles.get(i) != agent) {
+                Assert.assertEquals(expected[i], vehicles.get(i).getAcceleration(), 1e-9);
+            }
+        }
+        // the gap across lanes is the gap of the object model
+        Assert.assertEquals(vehicles.get(1).getGap(vehicles.get(2)), kernel.view(1).getGap(), 1e-9);
+    }
+}
@@ -0,0 +1,68 @@
+package microModel.core;
+
+import microModel.core.road.RoutingTable;
+import microModel.core.road.TestLanes;
+import microModel.core.road.jLane;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class jRouteTest {
+
+    @Test
+    public void interned() {
+        jRoute route = jRoute.of(1, 2, 3);
+        Assert.assertSame(route, jRoute.of(1, 2, 3));
+        Assert.assertNotSame(route, jRoute.of(1, 2));
+        Assert.assertArrayEquals(new int[] {1, 2, 3}, route.destinations());
+        Assert.assertEquals(3, route.size());
+    }
+
+    @Test
+    public void subRouteAfter() {
+        jRoute route = jRoute.of(4, 5, 4, 6);
+        jRoute sub = route.subRouteAfter(5);
+        Assert.assertArrayEquals(new int[] {4, 6}, sub.destinations());
+        Assert.assertEquals(4, sub.destination(0));
+        Assert.assertSame(sub, route.subRouteAfter(5));
+        //The last occurrence of a destination counts
+        Assert.assertArrayEquals(new int[] {6}, route.subRouteAfter(4).destinations());
+        Assert.assertSame(route, route.subRouteAfter(7));
+        Assert.assertEquals(0, route.subRouteAfter(6).size());
+    }
+
+    @Test
+    public void laneChanges() {
+        //Two lanes of 100m followed by two lanes of 200m, the left one to destination 1 and the right one to destination 2.
+        jLane upLeft = TestLanes.lane(0, 0, 0, 100);
+        jLane upRight = TestLanes.lane(1, 3.5, 0, 100);
+        jLane downLeft = TestLanes.lane(2, 0, 100, 300);
+        jLane downRight = TestLanes.lane(3, 3.5, 100, 300);
+        upLeft.connectLat(upRight);
+        downLeft.connectLat(downRight);
+        downLeft.connectLong(upLeft);
+        downRight.connectLong(upRight);
+        downLeft.setDestination(1);
+        downRight.setDestination(2);
+        upLeft.setGoRight(true);
+        upRight.setGoLeft(true);
+        jLane[] lanes = {upLeft, upRight, downLeft, downRight};
+
+        jRoute route = jRoute.of(9, 2);
+        Assert.assertFalse(route.canBeFollowedFrom(upLeft));
+
+        RoutingTable.build(lanes);
+        Assert.assertTrue(route.canBeFollowedFrom(upLeft));
+        Assert.assertEquals(1, route.nLaneChanges(upLeft));
+        Assert.assertEquals(100, route.xLaneChanges(upLeft), 1e-9);
+        Assert.assertEquals(0, route.nLaneChanges(upRight));
+        Assert.assertEquals(300, route.xLaneChanges(upRight), 1e-9);
+        Assert.assertFalse(route.canBeFollowedFrom(downLeft));
+        Assert.assertFalse(route.canBeFollowedFrom(null));
+
+        //A new routing table of the network replaces the reachability of the route
+        downLeft.setDestination(2);
+        RoutingTable.build(lanes);
+        Assert.assertTrue(route.canBeFollowedFrom(downLeft));
+        Assert.assertEquals(0, route.nLaneChanges(upLeft));
+    }
+}
@@ -0,0 +1,103 @@
+package microModel.core.road;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RoutingTableTest {
+    private jLane[] lanes;
+
+    @Before
+    public void init() {
+        //Three lanes of 100m, followed by three lanes of 200m. The right one leads to destination 1,
+        //the left one to destination 2. The middle lane does not allow changing to the right.
+        lanes = new jLane[6];
+        for (int i = 0; i < 3; i++) {
+            lanes[i] = TestLanes.lane(i, 3.5 * i, 0, 100);
+            lanes[3 + i] = TestLanes.lane(3 + i, 3.5 * i, 100, 300);
+        }
+        for (int i = 0; i < 2; i++) {
+            lanes[i].connectLat(lanes[i + 1]);
+            lanes[3 + i].connectLat(lanes[4 + i]);
+        }
+        for (int i = 0; i < 3; i++) {
+            lanes[3 + i].connectLong(lanes[i]);
+        }
+        for (jLane lane : lanes) {
+            lane.setGoLeft(true);
+            lane.setGoRight(true);
+        }
+        lanes[4].setGoRight(false);
+        lanes[5].setDestination(1);
+        lanes[3].setDestination(2);
+    }
+
+    @Test
+    public void laneChanges() {
+        RoutingTable routing = RoutingTable.build(lanes);
+        Assert.assertEquals(2, routing.destinationCount());
+        Assert.assertEquals(6, routing.laneCount());
+        for (int i = 0; i < lanes.length; i++) {
+            Assert.assertEquals(i, lanes[i].ordinal());
+            Assert.assertSame(routing, lanes[i].getRouting());
+        }
+
+        //Downstream, destination 1 can not be reached from the left and middle lanes, as the middle lane
+        //does not allow going right. Upstream, the middle lane can go right.
+        Assert.assertFalse(lanes[3].leadsTo(1));
+        Assert.assertFalse(lanes[4].leadsTo(1));
+        Assert.assertEquals(0, lanes[5].nLaneChanges(1));
+        Assert.assertEquals(200, lanes[5].xLaneChanges(1), 1e-9);
+        Assert.assertEquals(0, lanes[2].nLaneChanges(1));
+        Assert.assertEquals(1, lanes[1].nLaneChanges(1));
+        Assert.assertEquals(100, lanes[1].xLaneChanges(1), 1e-9);
+        Assert.assertEquals(2, lanes[0].nLaneChanges(1));
+
+        Assert.assertEquals(0, lanes[3].nLaneChanges(2));
+        Assert.assertEquals(1, lanes[4].nLaneChanges(2));
+        Assert.assertEquals(2, lanes[5].nLaneChanges(2));
+        Assert.assertEquals(200, lanes[5].xLaneChanges(2), 1e-9);
+        Assert.assertEquals(2, lanes[2].nLaneChanges(2));
+        Assert.assertEquals(300, lanes[2].xLaneChanges(2), 1e-9);
+
+        Assert.assertFalse(lanes[0].leadsTo(3));
+        Assert.assertEquals(-1, routing.destinationOrdinal(3));
+    }
+
+    @Test
+    public void unknownDestination() {
+        RoutingTable.build(lanes);
+        Assert.assertFalse(lanes[1].leadsTo(3));
+        for (int destination : new int[] {0, 3, -1}) {
+            try {
+                lanes[0].nLaneChanges(destination);
+                Assert.fail("No lane has destination " + destination);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+            try {
+                lanes[3].xLaneChanges(destination);
+                Assert.fail("No lane has destination " + destination);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void forNetworkReusesTable() {
+        RoutingTable routing = RoutingTable.forNetwork(lanes);
+        Assert.assertSame(routing, RoutingTable.forNetwork(lanes));
+        jLane[] reversed = new jLane[lanes.length];
+        for (int i = 0; i < lanes.length; i++) {
+            reversed[i] = lanes[lanes.length - 1 - i];
+        }
+        Assert.assertNotSame(routing, RoutingTable.forNetwork(reversed));
+        Assert.assertEquals(5, lanes[0].ordinal());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void linkedLaneOutsideNetwork() {
+        RoutingTable.build(new jLane[] {lanes[3], lanes[4]});
+    }
+}
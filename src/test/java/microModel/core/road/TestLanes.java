@@ -0,0 +1,30 @@
+package microModel.core.road;
+
+/**
+ * Lanes for tests.
+ */
+public final class TestLanes {
+
+    private TestLanes() {/* Should not be instantiated */}
+
+    /**
+     * @param id Lane ID.
+     * @param x X coordinates of the lane.
+     * @param y Y coordinates of the lane.
+     * @return Normal lane through the given points.
+     */
+    public static jLane lane(int id, double[] x, double[] y) {
+        return new jLane.Builder().withType(LaneType.NORMAL).withID(id).withX(x).withY(y).build();
+    }
+
+    /**
+     * @param id Lane ID.
+     * @param x X coordinate of the lane.
+     * @param yStart Y coordinate of the start of the lane.
+     * @param yEnd Y coordinate of the end of the lane.
+     * @return Straight normal lane in the y direction.
+     */
+    public static jLane lane(int id, double x, double yStart, double yEnd) {
+        return lane(id, new double[] {x, x}, new double[] {yStart, yEnd});
+    }
+}
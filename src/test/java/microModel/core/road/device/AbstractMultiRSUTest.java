@@ -0,0 +1,87 @@
+package microModel.core.road.device;
+
+import microModel.core.observation.jObservable;
+import microModel.core.road.TestLanes;
+import microModel.core.road.jLane;
+import microModel.core.vehicle.Vehicle;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AbstractMultiRSUTest {
+
+    /** Three lanes, from left to right, where the left lane is twice as long. */
+    private static jLane[] crossSection() {
+        jLane left = TestLanes.lane(1, new double[] {0, 200}, new double[] {7, 7});
+        jLane middle = TestLanes.lane(2, new double[] {0, 100}, new double[] {3.5, 3.5});
+        jLane right = TestLanes.lane(3, new double[] {0, 100}, new double[] {0, 0});
+        left.connectLat(middle);
+        middle.connectLat(right);
+        return new jLane[] {left, middle, right};
+    }
+
+    @Test
+    public void coversCrossSection() {
+        jLane[] lanes = crossSection();
+        CountingMultiRSU rsu = new CountingMultiRSU(lanes[1], 50);
+        Assert.assertEquals(3, rsu.getLanes().length);
+        Assert.assertSame(lanes[1], rsu.getLanes()[0]);
+        Assert.assertEquals(100, rsu.getX(lanes[0]), 1e-9);
+        Assert.assertEquals(50, rsu.getX(lanes[1]), 0.0);
+        Assert.assertEquals(50, rsu.getX(lanes[2]), 1e-9);
+        for (jLane lane : lanes) {
+            Assert.assertTrue(rsu.isAt(lane));
+            Assert.assertEquals(1, lane.RSUcount());
+            lane.init();
+        }
+        Assert.assertEquals(1, rsu.inits);
+
+        Vehicle vehicle = new Vehicle();
+        lanes[0].passRSUs(vehicle, 90, 110);
+        lanes[0].passRSUs(vehicle, 40, 60);
+        lanes[2].passRSUs(vehicle, 40, 60);
+        Assert.assertEquals(1, rsu.getCount(lanes[0]));
+        Assert.assertEquals(0, rsu.getCount(lanes[1]));
+        Assert.assertEquals(1, rsu.getCount(lanes[2]));
+        Assert.assertEquals(2, rsu.getCount());
+        Assert.assertEquals(2, rsu.seen);
+
+        rsu.setX(20);
+        Assert.assertEquals(40, rsu.getX(lanes[0]), 1e-9);
+        Assert.assertEquals(20, rsu.getX(lanes[2]), 1e-9);
+    }
+
+    @Test
+    public void selectedLanes() {
+        jLane[] lanes = crossSection();
+        CountingMultiRSU rsu = new CountingMultiRSU(new jLane[] {lanes[0], lanes[2]}, 100);
+        Assert.assertEquals(2, rsu.getLanes().length);
+        Assert.assertFalse(rsu.isAt(lanes[1]));
+        Assert.assertEquals(0, lanes[1].RSUcount());
+        Assert.assertEquals(50, rsu.getX(lanes[2]), 1e-9);
+    }
+
+    private static final class CountingMultiRSU extends AbstractMultiRSU {
+        private int inits;
+        private int seen;
+
+        private CountingMultiRSU(jLane lane, double x) {
+            super(lane, x, true, false);
+        }
+
+        private CountingMultiRSU(jLane[] lanes, double x) {
+            super(lanes, x, true, false);
+        }
+
+        public void init() {
+            inits++;
+        }
+
+        public void control() {}
+
+        public void noControl() {}
+
+        public void see(jObservable observable) {
+            seen++;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package microModel.core.road;
+
+import microModel.core.observation.jObservable;
+import microModel.core.road.device.AbstractRSU;
+import microModel.core.vehicle.Vehicle;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+
+public class jLaneTest {
+
+    /** An L-shaped lane: 30m east, then 40m north, then 10m east. */
+    private static jLane lane() {
+        return TestLanes.lane(1, new double[] {0, 30, 30, 40}, new double[] {0, 0, 40, 40});
+    }
+
+    @Test
+    public void length() {
+        Assert.assertEquals(80, lane().getL(), 1e-12);
+    }
+
+    @Test
+    public void xy() {
+        jLane lane = lane();
+        Point2D.Double point = new Point2D.Double();
+        Assert.assertSame(point, lane.XY(10, point));
+        Assert.assertEquals(new Point2D.Double(10, 0), point);
+        Assert.assertEquals(new Point2D.Double(30, 20), lane.XY(50, point));
+        Assert.assertEquals(new Point2D.Double(35, 40), lane.XY(75, point));
+        // on a coordinate, the next section is used
+        Assert.assertEquals(new Point2D.Double(30, 0), lane.XY(30));
+        // beyond either end, the first or last section is extrapolated
+        Assert.assertEquals(new Point2D.Double(-5, 0), lane.XY(-5));
+        Assert.assertEquals(new Point2D.Double(45, 40), lane.XY(85));
+    }
+
+    @Test
+    public void heading() {
+        jLane lane = lane();
+        Point2D.Double heading = new Point2D.Double();
+        Assert.assertSame(heading, lane.heading(10, heading));
+        Assert.assertEquals(new Point2D.Double(1, 0), heading);
+        Assert.assertEquals(new Point2D.Double(0, 1), lane.heading(30, heading));
+        Assert.assertEquals(new Point2D.Double(1, 0), lane.heading(100));
+    }
+
+    @Test
+    public void passRSUs() {
+        jLane lane = lane();
+        CountingRSU[] rsus = {new CountingRSU(lane, 50), new CountingRSU(lane, 10), new CountingRSU(lane, 20),
+                new CountingRSU(lane, 20), new CountingRSU(lane, 70)};
+        rsus[4].passable = false;
+        // RSUs add themselves to the lane, adding them again has no effect
+        lane.addRSU(rsus[0]);
+        Assert.assertEquals(rsus.length, lane.RSUcount());
+        Vehicle vehicle = new Vehicle();
+
+        lane.passRSUs(vehicle, 10, 20);
+        lane.passRSUs(vehicle, 20, 50);
+        lane.passRSUs(vehicle, 50, 50);
+        lane.passRSUs(vehicle, 60, 80);
+        int[] expected = {0, 1, 1, 1, 0};
+        for (int i = 0; i < rsus.length; i++) {
+            Assert.assertEquals(expected[i], rsus[i].count);
+        }
+        lane.passRSUs(vehicle, -5, 100);
+        Assert.assertEquals(1, rsus[0].count);
+        Assert.assertEquals(2, rsus[1].count);
+    }
+
+    @Test
+    public void findNoticeableRSU() {
+        jLane first = lane();
+        jLane second = TestLanes.lane(2, new double[] {40, 140}, new double[] {40, 40});
+        second.connectLong(first);
+        AbstractRSU sign = new CountingRSU(first, 60, true);
+        new CountingRSU(first, 70, false);
+        AbstractRSU light = new CountingRSU(second, 0, true);
+        AbstractRSU end = new CountingRSU(second, 50, true);
+
+        Assert.assertSame(sign, first.findNoticeableRSU(10, 50));
+        Assert.assertNull(first.findNoticeableRSU(10, 49));
+        Assert.assertSame(light, first.findNoticeableRSU(60, 20));
+        Assert.assertNull(first.findNoticeableRSU(60, 19));
+        Assert.assertSame(end, second.findNoticeableRSU(0, 100));
+        Assert.assertSame(end, first.findNoticeableRSU(90, 40));
+        Assert.assertNull(second.findNoticeableRSU(50, 1000));
+
+        // moving and adding RSUs updates the index
+        sign.setX(5);
+        Assert.assertSame(sign, first.getRSU(0));
+        Assert.assertSame(light, first.findNoticeableRSU(10, 100));
+        AbstractRSU added = new CountingRSU(second, 20, true);
+        Assert.assertSame(added, second.findNoticeableRSU(0, 100));
+        second.removeRSU(added);
+        Assert.assertSame(end, second.findNoticeableRSU(0, 100));
+    }
+
+    private static final class CountingRSU extends AbstractRSU {
+        private int count;
+
+        private CountingRSU(jLane lane, double x) {
+            this(lane, x, false);
+        }
+
+        private CountingRSU(jLane lane, double x, boolean noticeable) {
+            super(lane, x, true, noticeable);
+        }
+
+        public void init() {}
+
+        public void control() {}
+
+        public void noControl() {}
+
+        public void see(jObservable observable) {
+            count++;
+        }
+    }
+}
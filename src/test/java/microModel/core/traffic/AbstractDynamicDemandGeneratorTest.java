@@ -0,0 +1,90 @@
+package microModel.core.traffic;
+
+import apl.jSimEnvironment;
+import microModel.core.driver.IDMPlus_LMRS_Driver;
+import microModel.core.road.TestLanes;
+import microModel.core.road.jLane;
+import microModel.core.vehicle.AbstractVehicle;
+import microModel.core.vehicle.Vehicle;
+import microModel.jModel;
+import microModel.settings.BuiltInSettings;
+import microModel.settings.jSettings;
+import microModel.util.TableData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class AbstractDynamicDemandGeneratorTest {
+
+    /** Demand data of 60 vehicles per minute at 72 km/h, in the default detector data columns. */
+    private static TableData<Long> demand() {
+        jSettings settings = jSettings.getInstance();
+        Long[][] rows = new Long[2][5];
+        for (int i = 0; i < rows.length; i++) {
+            Arrays.fill(rows[i], 0L);
+            rows[i][settings.get(BuiltInSettings.DETECTOR_DATA_TIME_COLUMN_INDEX)] = 60L * i;
+            rows[i][settings.get(BuiltInSettings.DETECTOR_DATA_DEMAND_COLUMN_INDEX)] = 60L;
+            rows[i][settings.get(BuiltInSettings.DETECTOR_DATA_SPEED_COLUMN_INDEX)] = 72L;
+        }
+        return new TableData<Long>(rows);
+    }
+
+    private static AbstractDynamicDemandGenerator generator(jLane lane, double length) {
+        DriverGenerator drivers = new DriverGenerator(new Vehicle.Builder(lane).withL(length),
+                new IDMPlus_LMRS_Driver.Builder(null)) {};
+        return new AbstractDynamicDemandGenerator(lane, drivers, demand(), AbstractDynamicDemandGenerator.Distribution.UNIFORM) {
+            @Override
+            protected void register(AbstractVehicle vehicle) {}
+        };
+    }
+
+    /** Places a vehicle of 5m at the given position. */
+    private static Vehicle leader(jLane lane, double x) {
+        DriverGenerator drivers = new DriverGenerator(new Vehicle.Builder(lane).withL(5),
+                new IDMPlus_LMRS_Driver.Builder(null)) {};
+        AbstractVehicle vehicle = drivers.generate(lane, 10, 0);
+        drivers.addToSimulation(vehicle, x);
+        return (Vehicle) vehicle;
+    }
+
+    @Test
+    public void waitsForRoomBehindLeader() {
+        jLane lane = TestLanes.lane(1, 0, 0, 500);
+        new jModel.Builder(new jLane[] {lane}).build(0);
+        // a 15m vehicle does not fit behind a 5m vehicle at 12m with the stopping distance
+        Vehicle leader = leader(lane, 12);
+        AbstractDynamicDemandGenerator generator = generator(lane, 15);
+        generator.init();
+        generator.control();
+        // the waiting vehicle and the other 59 of the interval
+        Assert.assertEquals(60, generator.getQueue());
+        Assert.assertEquals(1, lane.getVehicles().size());
+
+        leader.setX(40);
+        generator.control();
+        Assert.assertEquals(59, generator.getQueue());
+        Assert.assertEquals(2, lane.getVehicles().size());
+        for (AbstractVehicle vehicle : lane.getVehicles()) {
+            vehicle.sense();
+            Assert.assertFalse(vehicle.isCrashed());
+        }
+    }
+
+    @Test
+    public void generatesOnlyTheFirstWaitingVehicle() {
+        jLane lane = TestLanes.lane(1, 0, 0, 500);
+        jModel model = new jModel.Builder(new jLane[] {lane}).build(0);
+        // a vehicle at the start of the lane that is not part of the model, so the model runs without agents
+        Vehicle blocking = new Vehicle.Builder(lane).withL(5).build();
+        blocking.paste(lane, 3);
+        AbstractDynamicDemandGenerator generator = generator(lane, 4);
+        generator.init();
+        int generated = jSimEnvironment.VEHICLE_COUNTER;
+        int steps = (int) Math.round(10 / model.getStepSize());
+        model.run(steps);
+        Assert.assertEquals(1, jSimEnvironment.VEHICLE_COUNTER - generated);
+        Assert.assertEquals(60, generator.getQueue());
+        Assert.assertEquals(1, lane.getVehicles().size());
+    }
+}
@@ -0,0 +1,49 @@
+package microModel.core.traffic;
+
+import microModel.util.TableData;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DemandScheduleTest {
+    private TableData<Long> data;
+
+    @Before
+    public void init() {
+        /* time, demand, speed; deliberately out of order */
+        data = new TableData<Long>(new Long[][] { {120L, 3L, 90L},
+                                                  {0L,   1L, 100L},
+                                                  {60L,  2L, 80L} });
+    }
+
+    @Test
+    public void advanceTest() {
+        DemandSchedule schedule = new DemandSchedule(data, 0, 1, 2);
+        Assert.assertEquals(3, schedule.size());
+        Assert.assertEquals(60, schedule.interval());
+
+        Assert.assertFalse(schedule.isActive());
+        Assert.assertEquals(0, schedule.demand());
+
+        Assert.assertTrue(schedule.advanceTo(0));
+        Assert.assertEquals(0, schedule.time());
+        Assert.assertEquals(1, schedule.demand());
+        Assert.assertEquals(100, schedule.speed());
+
+        Assert.assertFalse(schedule.advanceTo(59));
+        Assert.assertEquals(1, schedule.demand());
+
+        Assert.assertTrue(schedule.advanceTo(150));
+        Assert.assertEquals(120, schedule.time());
+        Assert.assertEquals(3, schedule.demand());
+    }
+
+    @Test
+    public void monotonicTest() {
+        DemandSchedule schedule = new DemandSchedule(data, 0, 1, 2);
+        schedule.advanceTo(60);
+        Assert.assertFalse(schedule.advanceTo(0));
+        Assert.assertEquals(60, schedule.time());
+        Assert.assertEquals(2, schedule.demand());
+    }
+}
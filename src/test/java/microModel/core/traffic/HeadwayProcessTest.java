@@ -0,0 +1,82 @@
+package microModel.core.traffic;
+
+import microModel.core.traffic.AbstractDynamicDemandGenerator.Distribution;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class HeadwayProcessTest {
+
+    /** Counts the release times of an interval, checking that they are in order and within the interval. */
+    private static int count(HeadwayProcess process, double start, double end, double[] halves) {
+        int n = 0;
+        double previous = start;
+        while (process.peek() < Double.POSITIVE_INFINITY) {
+            double t = process.poll();
+            Assert.assertTrue(t >= previous && t < end);
+            if (halves != null) {
+                halves[t < (start + end) / 2 ? 0 : 1]++;
+            }
+            previous = t;
+            n++;
+        }
+        return n;
+    }
+
+    @Test
+    public void uniform() {
+        HeadwayProcess process = new HeadwayProcess(Distribution.UNIFORM, new Random(1));
+        process.reset(100, 400, 7, 0);
+        Assert.assertEquals(100, process.peek(), 0.0);
+        Assert.assertEquals(7, process.remaining(), 0.0);
+        process.poll();
+        Assert.assertEquals(6, process.remaining(), 0.0);
+        Assert.assertEquals(100 + 300 / 7.0, process.poll(), 1e-9);
+        Assert.assertEquals(5, count(process, 100, 400, null));
+        // no demand
+        process.reset(400, 700, 0, 10);
+        Assert.assertEquals(Double.POSITIVE_INFINITY, process.peek(), 0.0);
+        Assert.assertEquals(0, process.remaining(), 0.0);
+    }
+
+    @Test
+    public void exponential() {
+        HeadwayProcess process = new HeadwayProcess(Distribution.EXPONENTIAL, new Random(2));
+        int total = 0;
+        for (int i = 0; i < 100; i++) {
+            process.reset(i * 300, (i + 1) * 300, 500, 0);
+            total += count(process, i * 300, (i + 1) * 300, null);
+        }
+        Assert.assertEquals(50000, total, 1000);
+    }
+
+    @Test
+    public void poissonFollowsChangingDemand() {
+        HeadwayProcess process = new HeadwayProcess(Distribution.POISSON, new Random(3));
+        double[] halves = new double[2];
+        int total = 0;
+        for (int i = 0; i < 100; i++) {
+            process.reset(0, 300, 200, 600);
+            // about the expected number of the whole interval
+            Assert.assertEquals(400, process.remaining(), 10);
+            total += count(process, 0, 300, halves);
+        }
+        // the rate increases linearly from 200 to 600 per interval
+        Assert.assertEquals(40000, total, 1000);
+        Assert.assertEquals(15000, halves[0], 600);
+        Assert.assertEquals(25000, halves[1], 600);
+    }
+
+    @Test
+    public void seeded() {
+        HeadwayProcess first = new HeadwayProcess(Distribution.POISSON, new Random(4));
+        HeadwayProcess second = new HeadwayProcess(Distribution.POISSON, new Random(4));
+        first.reset(0, 60, 30, 10);
+        second.reset(0, 60, 30, 10);
+        while (first.peek() < Double.POSITIVE_INFINITY) {
+            Assert.assertEquals(first.poll(), second.poll(), 0.0);
+        }
+        Assert.assertEquals(Double.POSITIVE_INFINITY, second.peek(), 0.0);
+    }
+}
@@ -0,0 +1,93 @@
+package microModel.core.vehicle;
+
+import microModel.core.road.TestLanes;
+import microModel.core.road.jLane;
+import microModel.jModel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+
+public class VehicleTest {
+
+    @Test
+    public void readState() {
+        jLane lane = TestLanes.lane(1, new double[] {0, 100, 100}, new double[] {0, 0, 100});
+        new jModel.Builder(new jLane[] {lane}).build(0);
+        Vehicle vehicle = new Vehicle.Builder(lane).withL(4).build();
+        vehicle.setX(150);
+        vehicle.setSpeed(20);
+        vehicle.setAcceleration(-1);
+
+        VehicleState state = vehicle.readState(new VehicleState());
+        Assert.assertSame(lane, state.getLane());
+        Assert.assertEquals(150, state.getX(), 0.0);
+        Assert.assertEquals(20, state.getSpeed(), 0.0);
+        Assert.assertEquals(-1, state.getAcceleration(), 0.0);
+        Assert.assertEquals(4, state.getLength(), 0.0);
+        Assert.assertEquals(lane.XY(150), state.getCoordinates());
+        Assert.assertEquals(lane.heading(150), state.getHeading());
+    }
+
+    @Test
+    public void readStateDuringUpdates() throws InterruptedException {
+        jLane lane = TestLanes.lane(1, 0, 0, 1000);
+        new jModel.Builder(new jLane[] {lane}).build(0);
+        final Vehicle vehicle = new Vehicle.Builder(lane).build();
+        final int updates = 100000;
+        Thread simulation = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 1; i <= updates; i++) {
+                    vehicle.beginUpdate();
+                    vehicle.setX(i % 1000);
+                    // give the reader a chance to read a partial update
+                    Thread.yield();
+                    vehicle.setSpeed(i % 1000);
+                    vehicle.setAcceleration(-(i % 1000));
+                    vehicle.endUpdate();
+                }
+            }
+        });
+        simulation.start();
+        VehicleState state = new VehicleState();
+        while (simulation.isAlive()) {
+            vehicle.readState(state);
+            Assert.assertEquals(state.getX(), state.getSpeed(), 0.0);
+            Assert.assertEquals(-state.getX(), state.getAcceleration(), 0.0);
+        }
+        simulation.join();
+        vehicle.readState(state);
+        Assert.assertEquals(updates % 1000, state.getX(), 0.0);
+    }
+
+    @Test
+    public void readStateCopiesConsumedCoordinates() {
+        jLane lane = TestLanes.lane(1, 0, 0, 1000);
+        jModel model = new jModel.Builder(new jLane[] {lane}).build(0);
+        Object consumer = new Object();
+        model.addCoordinateConsumer(consumer);
+        model.addCoordinateConsumer(consumer);
+        Vehicle vehicle = new Vehicle.Builder(lane).build(new Vehicle() {
+            @Override
+            protected void calculateCoordinates(Point2D.Double coordinates, Point2D.Double heading) {
+                coordinates.setLocation(1, 2);
+                heading.setLocation(0, 1);
+            }
+        });
+        VehicleState state = vehicle.readState(new VehicleState());
+        Assert.assertEquals(new Point2D.Double(1, 2), state.getCoordinates());
+        Assert.assertEquals(new Point2D.Double(0, 1), state.getHeading());
+
+        model.removeCoordinateConsumer(consumer);
+        Assert.assertFalse(model.hasCoordinateConsumers());
+        // removing twice, e.g. when the GUI is closed twice, has no effect
+        model.removeCoordinateConsumer(consumer);
+        Assert.assertFalse(model.hasCoordinateConsumers());
+        vehicle = new Vehicle.Builder(lane).build();
+        vehicle.readState(state);
+        Assert.assertEquals(lane.XY(0), state.getCoordinates());
+        model.addCoordinateConsumer(consumer);
+        Assert.assertTrue(model.hasCoordinateConsumers());
+    }
+}
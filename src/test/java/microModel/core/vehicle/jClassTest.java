@@ -0,0 +1,101 @@
+package microModel.core.vehicle;
+
+import apl.AgentDriver;
+import microModel.core.driver.IDMPlus_LMRS_Driver;
+import microModel.core.driver.jDriver;
+import microModel.core.driver.model.IDMPlus;
+import microModel.core.road.TestLanes;
+import microModel.core.road.jLane;
+import microModel.jModel;
+import microModel.settings.BuiltInSettings;
+import microModel.settings.jSettings;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class jClassTest {
+
+    private static jModel model(int poolSize, jLane... network) {
+        jSettings settings = jSettings.getInstance();
+        int size = settings.get(BuiltInSettings.VEHICLE_POOL_SIZE);
+        try {
+            settings.put(BuiltInSettings.VEHICLE_POOL_SIZE, poolSize);
+            return new jModel.Builder(network).build(0);
+        } finally {
+            settings.put(BuiltInSettings.VEHICLE_POOL_SIZE, size);
+        }
+    }
+
+    @Test
+    public void deletedVehiclesAreReset() {
+        jLane first = TestLanes.lane(1, 0, 0, 500);
+        jLane second = TestLanes.lane(2, 0, 0, 500);
+        model(1, first, second);
+        jClass c = new jClass(new Vehicle.Builder(first).withL(4), new IDMPlus_LMRS_Driver.Builder(null));
+        Vehicle vehicle = c.generateVehicle(first, 10, 1);
+        jDriver driver = vehicle.getDriver();
+        Assert.assertSame(c, vehicle.pool);
+
+        vehicle.setX(200);
+        vehicle.setAcceleration(-3);
+        vehicle.dy = 0.2;
+        vehicle.laneChangeProgress = 0.4;
+        vehicle.toggleLeftIndicator();
+        vehicle.setCrashed(true);
+        vehicle.updateSurrounding(Enclosure.DOWNSTREAM, c.generateVehicle(first, 0, 9));
+        driver.setDouble(IDMPlus.A, 5.0);
+        c.release(vehicle);
+        // the pool is full
+        c.release(c.generateVehicle(first, 0, 10));
+        Assert.assertEquals(1, c.getPoolSize());
+
+        Vehicle reused = c.generateVehicle(second, 20, 2);
+        Assert.assertEquals(0, c.getPoolSize());
+        Assert.assertSame(vehicle, reused);
+        Assert.assertSame(driver, reused.getDriver());
+        Assert.assertSame(second, reused.getLane());
+        Assert.assertEquals(2, driver.getID());
+        Assert.assertEquals(IDMPlus.A.value(), driver.getDouble(IDMPlus.A), 0.0);
+        Assert.assertEquals(20, reused.getSpeed(), 0.0);
+        Assert.assertEquals(0, reused.getAcceleration(), 0.0);
+        Assert.assertEquals(4, reused.getLength(), 0.0);
+        Assert.assertEquals(0, reused.getX(), 0.0);
+        Assert.assertEquals(0, reused.dy, 0.0);
+        Assert.assertFalse(reused.isChangingLane());
+        Assert.assertFalse(reused.isIndicatingLeft());
+        Assert.assertFalse(reused.isCrashed());
+        Assert.assertNull(reused.getVehicle(Enclosure.DOWNSTREAM));
+        Assert.assertSame(reused, reused.getVehicle(Enclosure.CURRENT_LOCATION));
+        Assert.assertSame(c, reused.pool);
+    }
+
+    @Test
+    public void noPoolingByDefault() {
+        jLane lane = TestLanes.lane(1, 0, 0, 500);
+        model(0, lane);
+        jClass c = new jClass(new Vehicle.Builder(lane), new IDMPlus_LMRS_Driver.Builder(null));
+        Vehicle vehicle = c.generateVehicle(lane, 10, 1);
+        Assert.assertNull(vehicle.pool);
+        c.release(vehicle);
+        Assert.assertEquals(0, c.getPoolSize());
+        Assert.assertNotSame(vehicle, c.generateVehicle(lane, 10, 2));
+    }
+
+    @Test
+    public void agentVehiclesAreNotPooled() {
+        jLane lane = TestLanes.lane(1, 0, 0, 500);
+        model(1, lane);
+        jClass c = new jClass(new Vehicle.Builder(lane), new AgentDriver.Builder(null));
+        Vehicle vehicle = c.generateVehicle(lane, 10, 1);
+        jDriver driver = vehicle.getDriver();
+        Assert.assertNull(vehicle.pool);
+        c.release(vehicle);
+
+        // the agent of the deleted vehicle keeps acting on a vehicle nobody else drives
+        Vehicle next = c.generateVehicle(lane, 20, 2);
+        Assert.assertNotSame(vehicle, next);
+        Assert.assertNotSame(driver, next.getDriver());
+        Assert.assertSame(vehicle, driver.getVehicle());
+        Assert.assertSame(driver, vehicle.getDriver());
+        Assert.assertEquals(10, vehicle.getSpeed(), 0.0);
+    }
+}
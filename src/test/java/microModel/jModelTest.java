@@ -0,0 +1,53 @@
+package microModel;
+
+import microModel.core.observation.jObservable;
+import microModel.core.road.TestLanes;
+import microModel.core.road.device.AbstractRSU;
+import microModel.core.road.jLane;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class jModelTest {
+
+    @Test
+    public void runsRSUsAddedAfterInit() {
+        jLane lane = TestLanes.lane(1, 0, 0, 500);
+        jModel model = new jModel.Builder(new jLane[] {lane}).build(0);
+        // the model runs without init
+        CountingRSU before = new CountingRSU(lane, 100, 0);
+        model.run(2);
+        Assert.assertEquals(2, before.controls);
+
+        model.init();
+        CountingRSU polled = new CountingRSU(lane, 200, 0);
+        CountingRSU scheduled = new CountingRSU(lane, 300, 10 * model.getStepSize());
+        int steps = 20;
+        model.run(steps);
+        Assert.assertEquals(2 + steps, before.controls);
+        Assert.assertEquals(steps, polled.controls);
+        Assert.assertEquals(2, scheduled.controls);
+
+        lane.removeRSU(polled);
+        model.run(1);
+        Assert.assertEquals(steps, polled.controls);
+        Assert.assertEquals(3 + steps, before.controls);
+    }
+
+    private static final class CountingRSU extends AbstractRSU {
+        private int controls;
+
+        private CountingRSU(jLane lane, double x, double period) {
+            super(lane, x, period, true, false);
+        }
+
+        public void init() {}
+
+        public void control() {
+            controls++;
+        }
+
+        public void noControl() {}
+
+        public void see(jObservable observable) {}
+    }
+}
@@ -0,0 +1,113 @@
+package microModel.map;
+
+import microModel.core.road.device.jDetector;
+import microModel.core.road.device.jTrafficLight;
+import microModel.core.road.TestLanes;
+import microModel.core.road.jLane;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+public class CompiledNetworkTest {
+    private File file;
+    private List<jLane> lanes;
+
+    @Before
+    public void init() {
+        file = new File(System.getProperty("java.io.tmpdir"), "jSimNetworkTest" + System.nanoTime() + ".net");
+
+        //Two lanes of 100m, followed by two lanes of 200m of which the right one leads to destination 1.
+        jLane upLeft = TestLanes.lane(0, 0, 0, 100);
+        jLane upRight = TestLanes.lane(1, 3.5, 0, 100);
+        jLane downLeft = TestLanes.lane(2, 0, 100, 300);
+        jLane downRight = TestLanes.lane(3, 3.5, 100, 300);
+        upLeft.connectLat(upRight);
+        downLeft.connectLat(downRight);
+        downLeft.connectLong(upLeft);
+        downRight.connectLong(upRight);
+        for (jLane lane : new jLane[] {upLeft, upRight, downLeft, downRight}) {
+            lane.setGoLeft(true);
+            lane.setGoRight(true);
+            lane.setvLim(120);
+        }
+        downRight.setGoRight(false);
+        downRight.setDestination(1);
+        // the detector adds itself to the lane
+        new jDetector(downRight, 150, 60, 42);
+        lanes = Arrays.asList(upLeft, upRight, downLeft, downRight);
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        long[] checksum = {123L, 456L};
+        CompiledNetwork.write(lanes, checksum, file);
+        jLane[] loaded = CompiledNetwork.read(file, checksum);
+        file.delete();
+
+        Assert.assertEquals(lanes.size(), loaded.length);
+        for (int i = 0; i < loaded.length; i++) {
+            jLane expected = lanes.get(i);
+            jLane actual = loaded[i];
+            Assert.assertEquals(expected.getId(), actual.getId());
+            Assert.assertEquals(expected.getType(), actual.getType());
+            Assert.assertArrayEquals(expected.getX(), actual.getX(), 0.0);
+            Assert.assertArrayEquals(expected.getY(), actual.getY(), 0.0);
+            Assert.assertEquals(expected.getL(), actual.getL(), 1e-9);
+            Assert.assertEquals(expected.isGoLeft(), actual.isGoLeft());
+            Assert.assertEquals(expected.isGoRight(), actual.isGoRight());
+            Assert.assertEquals(expected.getDestination(), actual.getDestination());
+            Assert.assertEquals(expected.getvLim(), actual.getvLim(), 0.0);
+            Assert.assertEquals(expected.leadsTo(1), actual.leadsTo(1));
+            if (expected.leadsTo(1)) {
+                Assert.assertEquals(expected.nLaneChanges(1), actual.nLaneChanges(1));
+                Assert.assertEquals(expected.xLaneChanges(1), actual.xLaneChanges(1), 0.0);
+            }
+            Assert.assertEquals(lanes.indexOf(expected.getUp()), indexOf(loaded, actual.getUp()));
+            Assert.assertEquals(lanes.indexOf(expected.getDown()), indexOf(loaded, actual.getDown()));
+            Assert.assertEquals(lanes.indexOf(expected.getLeft()), indexOf(loaded, actual.getLeft()));
+            Assert.assertEquals(lanes.indexOf(expected.getRight()), indexOf(loaded, actual.getRight()));
+            Assert.assertEquals(expected.RSUcount(), actual.RSUcount());
+        }
+        Assert.assertEquals(0, loaded[1].nLaneChanges(1));
+        Assert.assertEquals(1, loaded[0].nLaneChanges(1));
+        jDetector detector = (jDetector) loaded[3].getRSU(0);
+        Assert.assertEquals(150, detector.getX(), 0.0);
+        Assert.assertEquals(60, detector.getDuration(), 0.0);
+        Assert.assertEquals(42, detector.id());
+    }
+
+    @Test
+    public void otherSourceIsNotLoaded() throws IOException {
+        CompiledNetwork.write(lanes, new long[] {123L, 456L}, file);
+        Assert.assertNull(CompiledNetwork.readIfValid(file, new long[] {124L, 456L}));
+        file.delete();
+        Assert.assertNull(CompiledNetwork.readIfValid(file, new long[] {123L, 456L}));
+    }
+
+    @Test
+    public void otherRSUsAreNotWritten() throws IOException {
+        Assert.assertTrue(CompiledNetwork.isStorable(lanes));
+        new jTrafficLight(lanes.get(0), 50);
+        Assert.assertFalse(CompiledNetwork.isStorable(lanes));
+        try {
+            CompiledNetwork.write(lanes, new long[] {123L, 456L}, file);
+            Assert.fail("Network with a traffic light should not be written.");
+        } catch (IllegalArgumentException e) {
+            Assert.assertFalse(file.exists());
+        }
+    }
+
+    private static int indexOf(jLane[] lanes, jLane lane) {
+        for (int i = 0; i < lanes.length; i++) {
+            if (lanes[i] == lane) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
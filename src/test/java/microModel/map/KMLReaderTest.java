@@ -0,0 +1,35 @@
+package microModel.map;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.InputStream;
+import java.util.List;
+
+public class KMLReaderTest {
+
+    @Test
+    public void placemarks() throws XMLStreamException {
+        InputStream kml = getClass().getResourceAsStream("/merge.kml");
+        List<KMLReader.Placemark> placemarks = KMLReader.getPlacemarks(kml);
+        Assert.assertEquals(5, placemarks.size());
+
+        KMLReader.Placemark first = placemarks.get(0);
+        Assert.assertEquals("1", first.getName());
+        Assert.assertTrue(first.getDescription().contains("lanes:n|:n"));
+        Assert.assertEquals(3, first.getCoordinates().size());
+        Assert.assertEquals(4.649260824893144, first.getCoordinates().get(0).x, 0.0);
+        Assert.assertEquals(51.79752834854137, first.getCoordinates().get(0).y, 0.0);
+    }
+
+    @Test
+    public void coordinates() {
+        List<Coordinate> coordinates = KMLReader.parseCoordinates("\n  4.5,51.2,0 4.6,51.3\n\t4.7,51.4,10  ");
+        Assert.assertEquals(3, coordinates.size());
+        Assert.assertEquals(4.6, coordinates.get(1).x, 0.0);
+        Assert.assertEquals(51.3, coordinates.get(1).y, 0.0);
+        Assert.assertEquals(10.0, coordinates.get(2).z, 0.0);
+    }
+}
@@ -0,0 +1,93 @@
+package microModel.output;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DetectorHistoryTest {
+
+    @Test
+    public void chunks() throws IOException {
+        DetectorHistory history = new DetectorHistory(4);
+        for (int i = 0; i < 10; i++) {
+            history.add(60 * i, i, 20 + i);
+        }
+        Assert.assertEquals(10, history.size());
+        Assert.assertEquals(300, history.time(5), 0.0);
+        Assert.assertEquals(9, history.flow(9));
+        Assert.assertEquals(27, history.speed(7), 0.0);
+        int[] flows = history.flows();
+        double[] speeds = history.speeds();
+        Assert.assertEquals(10, flows.length);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(i, flows[i]);
+            Assert.assertEquals(20 + i, speeds[i], 0.0);
+        }
+        Assert.assertEquals(45, history.totalFlow());
+    }
+
+    @Test
+    public void aggregation() throws IOException {
+        DetectorHistory history = new DetectorHistory();
+        Assert.assertTrue(Double.isNaN(history.harmonicMeanSpeed()));
+        history.add(0, 1, 10);
+        history.add(60, 1, 30);
+        history.add(120, 0, 0);
+        history.add(180, 2, 20);
+        // 4 vehicles, 1/10 + 1/30 + 2/20 = 7/30
+        Assert.assertEquals(4 / (7.0 / 30), history.harmonicMeanSpeed(), 1e-12);
+        Assert.assertEquals(10, history.speedPercentile(0), 0.0);
+        Assert.assertEquals(20, history.speedPercentile(50), 0.0);
+        Assert.assertEquals(30, history.speedPercentile(100), 0.0);
+    }
+
+    @Test
+    public void sink() throws IOException {
+        final List<Double> written = new ArrayList<Double>();
+        DetectorHistory history = new DetectorHistory(3);
+        history.setSink(new DetectorHistory.Sink() {
+            @Override
+            public void write(double[] t, int[] q, double[] v, int n) {
+                for (int i = 0; i < n; i++) {
+                    written.add(t[i]);
+                }
+            }
+        });
+        for (int i = 0; i < 7; i++) {
+            history.add(i, 1, 1);
+        }
+        Assert.assertEquals(6, written.size());
+        Assert.assertEquals(1, history.size());
+        Assert.assertEquals(6, history.time(0), 0.0);
+        history.flush();
+        Assert.assertEquals(7, written.size());
+        Assert.assertEquals(7, history.flushed());
+        Assert.assertEquals(0, history.size());
+    }
+
+    @Test
+    public void lateSink() throws IOException {
+        final List<Double> written = new ArrayList<Double>();
+        DetectorHistory history = new DetectorHistory(3);
+        for (int i = 0; i < 7; i++) {
+            history.add(i, 1, 1);
+        }
+        history.setSink(new DetectorHistory.Sink() {
+            @Override
+            public void write(double[] t, int[] q, double[] v, int n) {
+                for (int i = 0; i < n; i++) {
+                    written.add(t[i]);
+                }
+            }
+        });
+        history.add(7, 1, 1);
+        Assert.assertEquals(8, written.size());
+        Assert.assertEquals(0, history.size());
+        history.add(8, 1, 1);
+        Assert.assertEquals(1, history.size());
+        Assert.assertEquals(8, history.time(0), 0.0);
+    }
+}
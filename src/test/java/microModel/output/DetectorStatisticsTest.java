@@ -0,0 +1,30 @@
+package microModel.output;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DetectorStatisticsTest {
+
+    @Test
+    public void period() {
+        DetectorStatistics statistics = new DetectorStatistics();
+        statistics.vehiclePassed(10, 5);
+        statistics.vehiclePassed(30, 5);
+        statistics.vehiclePassed(0, 5);
+        Assert.assertEquals(3, statistics.getCount());
+        statistics.endPeriod(60);
+        Assert.assertEquals(0, statistics.getCount());
+        Assert.assertEquals(3 / 60.0, statistics.getFlow(), 1e-12);
+        Assert.assertEquals(40 / 3.0, statistics.getTimeMeanSpeed(), 1e-12);
+        Assert.assertEquals(2 / (1 / 10.0 + 1 / 30.0), statistics.getSpaceMeanSpeed(), 1e-12);
+        Assert.assertEquals((0.5 + 5 / 30.0) / 60, statistics.getOccupancy(), 1e-12);
+        Assert.assertEquals(statistics.getFlow() / statistics.getSpaceMeanSpeed(), statistics.getDensity(), 1e-12);
+
+        statistics.endPeriod(60);
+        Assert.assertEquals(0, statistics.getFlow(), 0.0);
+        Assert.assertEquals(0, statistics.getDensity(), 0.0);
+        Assert.assertTrue(Double.isNaN(statistics.getSpaceMeanSpeed()));
+        Assert.assertEquals(3, statistics.getTotalCount());
+        Assert.assertEquals(3 / 120.0, statistics.getMeanFlow(), 1e-12);
+    }
+}
@@ -0,0 +1,125 @@
+package microModel.output;
+
+import microModel.core.road.RoutingTable;
+import microModel.core.road.TestLanes;
+import microModel.core.road.jLane;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.List;
+
+public class SpaceTimeGridTest {
+
+    @Test
+    public void movementIsSpreadOverCells() {
+        SpaceTimeGrid grid = new SpaceTimeGrid(new jLane[] {TestLanes.lane(1, 0, 0, 250)}, 100, 10, 0, 20);
+        Assert.assertEquals(3, grid.getSpaceCells());
+        grid.add(0, 80, 130, 1);
+        grid.add(10, 200, 200, 1);
+        Assert.assertEquals(2, grid.getTimeCells());
+        Assert.assertEquals(20, grid.getDistance(0, 0), 1e-12);
+        Assert.assertEquals(0.4, grid.getTime(0, 0), 1e-12);
+        Assert.assertEquals(30, grid.getDistance(1, 0), 1e-12);
+        Assert.assertEquals(0.6, grid.getTime(1, 0), 1e-12);
+        Assert.assertEquals(50, grid.getSpeed(1, 0), 1e-12);
+        Assert.assertEquals(1, grid.getTime(2, 1), 0.0);
+        // the last cell is 50m long
+        Assert.assertEquals(1 / (50 * 10.0), grid.getDensity(2, 1), 1e-12);
+        Assert.assertTrue(Double.isNaN(grid.getSpeed(0, 1)));
+        // the grid grows beyond the expected duration
+        grid.add(35, 0, 10, 1);
+        Assert.assertEquals(4, grid.getTimeCells());
+        Assert.assertEquals(10 / (100 * 10.0), grid.getFlow(0, 3), 1e-12);
+    }
+
+    @Test
+    public void aggregationFeedsChains() {
+        jLane up = TestLanes.lane(1, 0, 0, 100);
+        jLane down = TestLanes.lane(2, 0, 100, 300);
+        down.connectLong(up);
+        jLane other = TestLanes.lane(3, 0, 0, 50);
+        jLane[] network = {down, other, up};
+        RoutingTable.build(network);
+
+        TrafficAggregation aggregation = new TrafficAggregation(network, 10, 0);
+        aggregation.addSpaceTimeGrids(100, 10, 20);
+        List<SpaceTimeGrid> grids = aggregation.getSpaceTimeGrids();
+        Assert.assertEquals(2, grids.size());
+        SpaceTimeGrid grid = grids.get(0).getLanes()[0] == up ? grids.get(0) : grids.get(1);
+        Assert.assertEquals(2, grid.getLanes().length);
+        Assert.assertSame(down, grid.getLanes()[1]);
+        Assert.assertEquals(100, grid.getOffset(1), 0.0);
+
+        aggregation.moved(up, 90, 110, 1);
+        aggregation.update(10);
+        aggregation.moved(down, 50, 70, 1);
+        Assert.assertEquals(10, grid.getDistance(0, 0), 1e-12);
+        Assert.assertEquals(10, grid.getDistance(1, 0), 1e-12);
+        Assert.assertEquals(20, grid.getDistance(1, 1), 1e-12);
+        Assert.assertEquals(1, grid.getTime(1, 1), 1e-12);
+    }
+
+    @Test
+    public void aggregationSplitsMovementsAtMerges() {
+        jLane left = TestLanes.lane(1, 0, 0, 100);
+        jLane right = TestLanes.lane(2, 0, 0, 100);
+        jLane down = TestLanes.lane(3, 0, 100, 300);
+        down.connectLong(left);
+        down.connectLong(right);
+        jLane[] network = {left, right, down};
+        RoutingTable.build(network);
+
+        TrafficAggregation aggregation = new TrafficAggregation(network, 10, 0);
+        aggregation.addSpaceTimeGrids(100, 10, 20);
+        List<SpaceTimeGrid> grids = aggregation.getSpaceTimeGrids();
+        Assert.assertEquals(2, grids.size());
+        SpaceTimeGrid chain = grids.get(0).getLanes()[0] == left ? grids.get(0) : grids.get(1);
+        SpaceTimeGrid single = grids.get(0) == chain ? grids.get(1) : grids.get(0);
+        Assert.assertSame(right, single.getLanes()[0]);
+        Assert.assertEquals(1, single.getLanes().length);
+
+        // the part on the downstream lane is added to the grid of the other chain
+        aggregation.moved(right, 80, 120, 2);
+        Assert.assertEquals(20, single.getDistance(0, 0), 1e-12);
+        Assert.assertEquals(1, single.getTime(0, 0), 1e-12);
+        Assert.assertEquals(20, chain.getDistance(1, 0), 1e-12);
+        Assert.assertEquals(1, chain.getTime(1, 0), 1e-12);
+        Assert.assertEquals(0, chain.getDistance(0, 0), 0.0);
+        aggregation.update(10);
+        Assert.assertEquals(20 / (200 * 10.0), aggregation.getSection(down).getFlow(), 1e-12);
+    }
+
+    @Test
+    public void write() throws IOException {
+        SpaceTimeGrid grid = new SpaceTimeGrid(new jLane[] {TestLanes.lane(7, 0, 0, 200)}, 100, 10, 0, 10);
+        grid.add(0, 50, 150, 2);
+        File file = File.createTempFile("grid", ".bin");
+        file.deleteOnExit();
+        grid.write(file);
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            Assert.assertEquals(0x4a585447, in.readInt());
+            Assert.assertEquals(1, in.readInt());
+            Assert.assertEquals(1, in.readInt());
+            Assert.assertEquals(7, in.readInt());
+            Assert.assertEquals(0, in.readDouble(), 0.0);
+            Assert.assertEquals(200, in.readDouble(), 0.0);
+            Assert.assertEquals(100, in.readDouble(), 0.0);
+            Assert.assertEquals(10, in.readDouble(), 0.0);
+            Assert.assertEquals(0, in.readDouble(), 0.0);
+            Assert.assertEquals(2, in.readInt());
+            Assert.assertEquals(1, in.readInt());
+            Assert.assertEquals(50, in.readFloat(), 0.0);
+            Assert.assertEquals(50, in.readFloat(), 0.0);
+            Assert.assertEquals(1, in.readFloat(), 0.0);
+            Assert.assertEquals(1, in.readFloat(), 0.0);
+            Assert.assertEquals(-1, in.read());
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package microModel.output;
+
+import microModel.core.road.RoutingTable;
+import microModel.core.road.TestLanes;
+import microModel.core.road.jLane;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TrafficAggregationTest {
+
+    @Test
+    public void edie() {
+        SectionStatistics section = new SectionStatistics(100);
+        // two vehicles, one traversing the section in 5s, one standing still for 10s
+        section.add(100, 5);
+        section.add(0, 10);
+        section.endPeriod(10);
+        Assert.assertEquals(0.1, section.getFlow(), 1e-12);
+        Assert.assertEquals(0.015, section.getDensity(), 1e-12);
+        Assert.assertEquals(100 / 15.0, section.getSpeed(), 1e-12);
+        section.endPeriod(10);
+        Assert.assertEquals(0, section.getFlow(), 0.0);
+        Assert.assertTrue(Double.isNaN(section.getSpeed()));
+        Assert.assertEquals(0.05, section.getMeanFlow(), 1e-12);
+        Assert.assertEquals(100 / 15.0, section.getMeanSpeed(), 1e-12);
+    }
+
+    @Test
+    public void movesAcrossLanes() {
+        jLane up = TestLanes.lane(1, 0, 0, 100);
+        jLane down = TestLanes.lane(2, 0, 100, 300);
+        down.connectLong(up);
+        jLane[] network = {up, down};
+        RoutingTable.build(network);
+
+        TrafficAggregation aggregation = new TrafficAggregation(network, 10, 0);
+        aggregation.moved(up, 90, 110, 1);
+        aggregation.moved(down, 50, 50, 1);
+        aggregation.update(9.9);
+        Assert.assertTrue(Double.isNaN(aggregation.getSection(up).getFlow()));
+        aggregation.update(10);
+        SectionStatistics first = aggregation.getSection(up);
+        SectionStatistics second = aggregation.getSection(down);
+        Assert.assertEquals(10 / (100 * 10.0), first.getFlow(), 1e-12);
+        Assert.assertEquals(0.5 / (100 * 10.0), first.getDensity(), 1e-12);
+        Assert.assertEquals(10 / (200 * 10.0), second.getFlow(), 1e-12);
+        Assert.assertEquals(1.5 / (200 * 10.0), second.getDensity(), 1e-12);
+    }
+}
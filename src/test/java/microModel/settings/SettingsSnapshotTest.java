@@ -0,0 +1,24 @@
+package microModel.settings;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SettingsSnapshotTest {
+
+    @Test
+    public void frozen() {
+        jSettings settings = jSettings.getInstance();
+        boolean detector = settings.get(BuiltInSettings.DEBUG_DETECTOR);
+        try {
+            settings.put(BuiltInSettings.DEBUG_DETECTOR, true);
+            SettingsSnapshot snapshot = new SettingsSnapshot(settings);
+            settings.put(BuiltInSettings.DEBUG_DETECTOR, false);
+            Assert.assertTrue(snapshot.debugDetector);
+            Assert.assertFalse(new SettingsSnapshot(settings).debugDetector);
+            Assert.assertEquals((double) settings.get(BuiltInSettings.DEBUG_TRAJECTORY_SAMPLING_RATE),
+                    snapshot.debugTrajectorySamplingRate, 0.0);
+        } finally {
+            settings.put(BuiltInSettings.DEBUG_DETECTOR, detector);
+        }
+    }
+}
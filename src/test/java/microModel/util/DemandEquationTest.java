@@ -0,0 +1,56 @@
+package microModel.util;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DemandEquationTest {
+    private LongColumnTable data;
+
+    @Before
+    public void init() {
+        /* id, time, lane, demand, speed */
+        data = new LongColumnTable(5, 8);
+        data.addRow(new long[] {1, 0, 1, 10, 100});
+        data.addRow(new long[] {2, 0, 1, 4, 90});
+        data.addRow(new long[] {3, 0, 1, 8, 80});
+        data.addRow(new long[] {1, 60, 1, 2, 100});
+        data.addRow(new long[] {2, 60, 1, 1, 90});
+        data.addRow(new long[] {3, 60, 1, 1, 80});
+        data.addRow(new long[] {1, 120, 1, 5, 100});
+        data.addRow(new long[] {2, 120, 1, 0, 90});
+        data.addRow(new long[] {3, 120, 1, 1, 80});
+    }
+
+    @Test
+    public void evaluate() {
+        DemandEquation equation = DemandEquation.compile(new DetectorDataUtilities.DynamicDemandInfo(
+                Lists.newArrayList("1", "2"), Lists.newArrayList("3"), true));
+        Assert.assertArrayEquals(new long[] {6, 2, 4}, equation.evaluate(data));
+    }
+
+    @Test
+    public void positiveDemandData() {
+        DemandEquation equation = DemandEquation.compile(new DetectorDataUtilities.DynamicDemandInfo(
+                Lists.newArrayList("2"), Lists.newArrayList("1"), true));
+        TableData<Long> demand = equation.demandData(data);
+        Assert.assertEquals(3, demand.rowSize());
+        /* -6, -1, -5 are carried over and never become positive */
+        Assert.assertEquals(0L, demand.get(0, DetectorDataUtilities.DEMAND_COLUMN).longValue());
+        Assert.assertEquals(0L, demand.get(2, DetectorDataUtilities.DEMAND_COLUMN).longValue());
+        /* timestamps and speeds come from the last detector of the equation */
+        Assert.assertEquals(120L, demand.get(2, DetectorDataUtilities.TIMESTAMP_COLUMN).longValue());
+        Assert.assertEquals(100L, demand.get(0, DetectorDataUtilities.SPEED_COLUMN).longValue());
+    }
+
+    @Test
+    public void singleDetector() {
+        DemandEquation equation = DemandEquation.compile(new DetectorDataUtilities.DynamicDemandInfo(
+                Lists.newArrayList("3"), null, false));
+        TableData<Long> demand = equation.demandData(data);
+        Assert.assertEquals(3, demand.rowSize());
+        Assert.assertEquals(8L, demand.get(0, DetectorDataUtilities.DEMAND_COLUMN).longValue());
+        Assert.assertEquals(1L, demand.get(1, DetectorDataUtilities.DEMAND_COLUMN).longValue());
+    }
+}
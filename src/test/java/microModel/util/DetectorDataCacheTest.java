@@ -0,0 +1,121 @@
+package microModel.util;
+
+import microModel.settings.BuiltInSettings;
+import microModel.settings.jSettings;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+
+public class DetectorDataCacheTest {
+    private String dataFile = "/detector_data/example.data";
+    private String infoFile = "/detector_data/detectors.info";
+    private File cacheDir;
+    private String cachePath;
+
+    @Before
+    public void init() {
+        cacheDir = new File(System.getProperty("java.io.tmpdir"), "jSimCacheTest" + System.nanoTime());
+        cachePath = jSettings.getInstance().get(BuiltInSettings.DETECTOR_CACHE_PATH);
+        jSettings.getInstance().put(BuiltInSettings.DETECTOR_CACHE_PATH, cacheDir.getPath());
+    }
+
+    @After
+    public void restore() {
+        jSettings.getInstance().put(BuiltInSettings.DETECTOR_CACHE_PATH, cachePath);
+        File[] files = cacheDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        cacheDir.delete();
+    }
+
+    /** Source of a table with a single value, that counts how often it is read. */
+    private static final class CountingSource implements DetectorDataCache.Source {
+        private final String options;
+        private final long value;
+        private int reads;
+
+        private CountingSource(String options, long value) {
+            this.options = options;
+            this.value = value;
+        }
+
+        @Override
+        public LongColumnTable read() {
+            reads++;
+            LongColumnTable table = new LongColumnTable(1, 1);
+            table.addRow(new long[] {value});
+            table.trim();
+            return table;
+        }
+
+        @Override
+        public String options() {
+            return options;
+        }
+    }
+
+    @Test
+    public void optionsInvalidateCache() throws IOException, ParseException {
+        CountingSource utc = new CountingSource("UTC", 1);
+        DetectorDataCache.load(infoFile, 0, false, utc);
+        LongColumnTable cached = DetectorDataCache.load(infoFile, 0, false, utc);
+        Assert.assertEquals(1, utc.reads);
+        Assert.assertEquals(1L, cached.get(0, 0));
+
+        CountingSource amsterdam = new CountingSource("Europe/Amsterdam", 2);
+        Assert.assertEquals(2L, DetectorDataCache.load(infoFile, 0, false, amsterdam).get(0, 0));
+        Assert.assertEquals(1, amsterdam.reads);
+    }
+
+    @Test
+    public void noCacheWithoutPath() throws IOException, ParseException {
+        jSettings.getInstance().put(BuiltInSettings.DETECTOR_CACHE_PATH, "");
+        CountingSource source = new CountingSource("UTC", 1);
+        DetectorDataCache.load(infoFile, 0, false, source);
+        DetectorDataCache.load(infoFile, 0, false, source);
+        Assert.assertEquals(2, source.reads);
+        Assert.assertFalse(cacheDir.exists());
+    }
+
+    @Test
+    public void cachedDataMatchesSource() throws IOException, ParseException {
+        LongColumnTable parsed = DetectorDataCache.detectorData(dataFile);
+        Assert.assertTrue(new File(cacheDir, "detector_data_example.data.bin").isFile());
+        LongColumnTable cached = DetectorDataCache.detectorData(dataFile);
+
+        Assert.assertEquals(parsed.rowSize(), cached.rowSize());
+        Assert.assertEquals(DetectorDataUtilities.ID_COLUMN, cached.indexColumn());
+        for (int c = 0; c < parsed.columnSize(); c++) {
+            for (int r = 0; r < parsed.rowSize(); r++) {
+                Assert.assertEquals(parsed.get(r, c), cached.get(r, c));
+            }
+        }
+
+        TableData<Long> rows = cached.select(DetectorDataUtilities.ID_COLUMN, 3189L);
+        Assert.assertTrue(rows.rowSize() > 0);
+        for (int r = 0; r < rows.rowSize(); r++) {
+            Assert.assertEquals(3189L, rows.get(r, DetectorDataUtilities.ID_COLUMN).longValue());
+            if (r > 0) {
+                Assert.assertTrue(rows.get(r, DetectorDataUtilities.TIMESTAMP_COLUMN) >= rows.get(r - 1, DetectorDataUtilities.TIMESTAMP_COLUMN));
+            }
+        }
+    }
+
+    @Test
+    public void cachedInfo() throws IOException, ParseException {
+        DetectorDataCache.detectorInfo(infoFile);
+        LongColumnTable info = DetectorDataCache.detectorInfo(infoFile);
+        int row = info.firstRow(DetectorInfoUtilities.ID_COLUMN, 3900L);
+        Assert.assertEquals(4.588464, DetectorInfoUtilities.latitude(info, row), 0.0);
+        Assert.assertEquals(51.966842, DetectorInfoUtilities.longitude(info, row), 0.0);
+        Assert.assertEquals(-1, info.firstRow(DetectorInfoUtilities.ID_COLUMN, -1L));
+    }
+}
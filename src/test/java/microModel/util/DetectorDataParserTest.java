@@ -0,0 +1,48 @@
+package microModel.util;
+
+import com.google.common.io.Resources;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+
+public class DetectorDataParserTest {
+    private String dataFile = "/detector_data/detectors.data";
+
+    private DetectorDataParser parser() {
+        return new DetectorDataParser(",", DetectorDataParser.DEFAULT_TIMESTAMP_FORMAT, 5, 1);
+    }
+
+    @Test
+    public void parseLines() throws ParseException {
+        ByteBuffer buffer = ByteBuffer.wrap("3189,2009-05-13 15:00:00,1,20,97\r\n\n3190,2009-05-13 15:01:00,2,-3,0".getBytes());
+        LongColumnTable table = parser().parse(buffer, 1);
+        Assert.assertEquals(2, table.rowSize());
+        Assert.assertEquals(3189L, table.get(0, 0));
+        Assert.assertEquals(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse("2009-05-13 15:00:00").getTime() / 1000, table.get(0, 1));
+        Assert.assertEquals(60L, table.get(1, 1) - table.get(0, 1));
+        Assert.assertEquals(-3L, table.get(1, 3));
+        Assert.assertEquals(97L, table.get(0, 4));
+    }
+
+    @Test
+    public void parallelMatchesSequential() throws IOException, ParseException {
+        byte[] bytes = Resources.toByteArray(Resources.getResource(DetectorDataParserTest.class, dataFile));
+        LongColumnTable sequential = parser().parse(ByteBuffer.wrap(bytes), 1);
+        LongColumnTable parallel = parser().parse(ByteBuffer.wrap(bytes), 4);
+        Assert.assertEquals(sequential.rowSize(), parallel.rowSize());
+        for (int c = 0; c < sequential.columnSize(); c++) {
+            for (int r = 0; r < sequential.rowSize(); r++) {
+                Assert.assertEquals(sequential.get(r, c), parallel.get(r, c));
+            }
+        }
+    }
+
+    @Test(expected = ParseException.class)
+    public void invalidLine() throws ParseException {
+        parser().parse(ByteBuffer.wrap("3189,2009-05-13 15:00:00,1".getBytes()), 1);
+    }
+}